@@ -0,0 +1,49 @@
+package chess.engine.benchmark;
+
+import chess.engine.board.Move;
+
+/**
+ * Positions of the benchmarks, each with a legal move that is not a promotion.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public enum BenchmarkPosition {
+    /**
+     * Italian opening, all pieces on the board and every castling right.
+     */
+    OPENING("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3", "f1b5"),
+    /**
+     * Middlegame with pins and many captures.
+     */
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", "c3d5"),
+    /**
+     * Rook endgame with few pieces and long slides.
+     */
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", "e2e4"),
+    /**
+     * White king in check by a bishop, answered by blocks, captures and king moves.
+     */
+    CHECK("rnbqk1nr/pppp1ppp/8/4p3/1b1P4/8/PPP1PPPP/RNBQKBNR w KQkq - 1 3", "c2c3");
+
+    /**
+     * The FEN string of the position.
+     */
+    public final String fen;
+
+    /**
+     * A legal move of the position.
+     */
+    public final Move move;
+
+    /**
+     * Constructor.
+     *
+     * @param fen  The FEN string of the position.
+     * @param move A legal move of the position, in long algebraic notation.
+     */
+    BenchmarkPosition(String fen, String move) {
+        this.fen = fen;
+        this.move = new Move(move);
+    }
+}
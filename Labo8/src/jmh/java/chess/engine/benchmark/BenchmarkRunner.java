@@ -0,0 +1,46 @@
+package chess.engine.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. It accepts the usual JMH options and, unless given otherwise, enables the
+ * allocation profiler ({@code -prof gc}) and writes the results to {@code target/jmh-result.json}, so that a run can
+ * be compared with a baseline.
+ * <p>
+ * Usage: {@code java -jar target/benchmarks.jar [BoardBenchmark] [-p position=CHECK] [-rff baseline.json]}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BenchmarkRunner {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args The JMH command line options.
+     * @throws Exception If the options are invalid or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        final var command = new CommandLineOptions(args);
+        final var options = new OptionsBuilder().parent(command);
+        if (command.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!command.getResult().hasValue()) {
+            options.result("target/jmh-result.json");
+        }
+        if (!command.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package chess.engine.benchmark;
+
+import chess.engine.Controller;
+import chess.engine.board.Board;
+import chess.engine.board.Move;
+import chess.engine.board.Square;
+import chess.engine.util.BoardFactory;
+import chess.views.headless.HeadlessView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the board model used by the controller and the views: FEN parsing, cloning, checkmate detection,
+ * enumeration of the valid moves and a full move through the controller.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    /**
+     * The position.
+     */
+    @Param
+    public BenchmarkPosition position;
+
+    /**
+     * The view of the controllers.
+     */
+    private final HeadlessView view = new HeadlessView();
+
+    /**
+     * The controller of the position, never modified: the moves are played on clones.
+     */
+    private Controller controller;
+
+    /**
+     * Create the controller of the position.
+     */
+    @Setup
+    public void setup() {
+        controller = new Controller();
+        controller.setView(view);
+        controller.setBoard(BoardFactory.createFromFen(position.fen));
+        controller.updateGameState();
+    }
+
+    @Benchmark
+    public Board createFromFen() {
+        return BoardFactory.createFromFen(position.fen);
+    }
+
+    @Benchmark
+    public Board cloneBoard() {
+        return controller.board().clone();
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        final var board = controller.board();
+        return board.king(board.currentPlayer()).isInCheckmate();
+    }
+
+    /**
+     * Enumerate the valid moves of the player to move as the views do, by validating every destination square of
+     * every piece.
+     *
+     * @return The number of valid moves.
+     */
+    @Benchmark
+    public int enumerateMoves() {
+        final var board = controller.board();
+        int valid = 0;
+        for (var piece : board.pieces(board.currentPlayer()).entrySet()) {
+            for (int square = 0; square < Square.BOARD_WIDTH * Square.BOARD_WIDTH; square++) {
+                if (piece.getValue().move(new Move(piece.getKey(), new Square(square))).isValid()) {
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Play a move through the controller, on a clone of the position. Subtract {@link #cloneBoard()} to get the
+     * cost of the move alone.
+     *
+     * @return Whether the move was valid.
+     */
+    @Benchmark
+    public boolean controllerMove() {
+        final var clone = controller.clone();
+        clone.setView(view);
+        final Move move = position.move;
+        return clone.move(move.from().x(), move.from().y(), move.to().x(), move.to().y());
+    }
+}
@@ -0,0 +1,76 @@
+package chess.engine.benchmark;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the search move generator: legal move generation, and making and unmaking every legal move.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    /**
+     * The position.
+     */
+    @Param
+    public BenchmarkPosition position;
+
+    /**
+     * The search position and a reused move list.
+     */
+    private Position searchPosition;
+    private final MoveList moves = new MoveList();
+
+    /**
+     * Load the position.
+     */
+    @Setup
+    public void setup() {
+        searchPosition = Position.fromFen(position.fen);
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        MoveGenerator.legalMoves(searchPosition, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public long makeUnmake() {
+        MoveGenerator.legalMoves(searchPosition, moves);
+        long hashes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            searchPosition.make(moves.get(i));
+            hashes += searchPosition.hash();
+            searchPosition.unmake();
+        }
+        return hashes;
+    }
+
+    @Benchmark
+    public Position loadFen() {
+        searchPosition.load(position.fen);
+        return searchPosition;
+    }
+}
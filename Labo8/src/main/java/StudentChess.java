@@ -1,18 +1,27 @@
-import chess.ChessController;
 import chess.ChessView;
 import chess.engine.Controller;
+import chess.engine.broadcast.Broadcast;
+import chess.engine.broadcast.BroadcastServer;
 import chess.views.gui.GUIView;
 
+import java.io.IOException;
+
 /**
- * Jeu d'échecs
+ * Jeu d'échecs. Avec {@code --broadcast <port>}, la partie est diffusée aux spectateurs connectés sur le port local.
  *
  * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
  * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
  */
 public class StudentChess {
-    public static void main(String[] args) {
-        ChessController controller = new Controller();
+    public static void main(String[] args) throws IOException {
+        Controller controller = new Controller();
         ChessView view = new GUIView(controller);
+        if (args.length == 2 && args[0].equals("--broadcast")) {
+            Broadcast broadcast = new Broadcast(1024, 512);
+            BroadcastServer server = new BroadcastServer(broadcast, Integer.parseInt(args[1]));
+            controller.setBroadcast(broadcast);
+            System.out.println("Diffusion de la partie sur le port " + server.port());
+        }
         controller.start(view);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Différence entre deux états de l'échiquier : le nouveau contenu de chaque case modifiée par un coup. Une case
+ * modifiée plusieurs fois n'apparaît qu'une fois, avec son contenu final.
+ */
+public final class BoardDiff {
+
+  /**
+   * Nouveau contenu d'une case.
+   * @param x la colonne de la case.
+   * @param y la ligne de la case.
+   * @param type le type de la pièce, null si la case est vide.
+   * @param color la couleur de la pièce, null si la case est vide.
+   */
+  public record Change(int x, int y, PieceType type, PlayerColor color) {
+    /**
+     * @return true si la case est vide après le coup.
+     */
+    public boolean isEmpty() {
+      return type == null;
+    }
+  }
+
+  // Index dans changes de la modification de chaque case, -1 si la case n'est pas modifiée
+  private final int[] indices = new int[64];
+  private final List<Change> changes = new ArrayList<>();
+
+  public BoardDiff() {
+    Arrays.fill(indices, -1);
+  }
+
+  /**
+   * Vide la case donnée.
+   * @param x
+   * @param y
+   * @return cette différence.
+   */
+  public BoardDiff removePiece(int x, int y) {
+    return set(new Change(x, y, null, null));
+  }
+
+  /**
+   * Place la pièce donnée sur la case fournie, en remplaçant la pièce qui s'y trouve.
+   * @param type
+   * @param color
+   * @param x
+   * @param y
+   * @return cette différence.
+   */
+  public BoardDiff putPiece(PieceType type, PlayerColor color, int x, int y) {
+    return set(new Change(x, y, type, color));
+  }
+
+  /**
+   * @return les cases modifiées, dans l'ordre de leur première modification.
+   */
+  public List<Change> changes() {
+    return Collections.unmodifiableList(changes);
+  }
+
+  /**
+   * @return true si aucune case n'est modifiée.
+   */
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  private BoardDiff set(Change change) {
+    int square = change.y() * 8 + change.x();
+    if (indices[square] < 0) {
+      indices[square] = changes.size();
+      changes.add(change);
+    }
+    else {
+      changes.set(indices[square], change);
+    }
+    return this;
+  }
+}
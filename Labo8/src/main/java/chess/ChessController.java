@@ -28,4 +28,37 @@ public interface ChessController {
    */
   void newGame();
 
+  /**
+   * Active ou désactive l'analyse en arrière-plan de la position, affichée par ChessView.displayAnalysis.
+   * Par défaut, l'analyse n'est pas disponible.
+   * @param enabled true pour activer l'analyse.
+   */
+  default void setAnalysis(boolean enabled) {
+  }
+
+  /**
+   * Donne les cases où la pièce en X, Y peut se déplacer légalement. Le bit y * 8 + x du résultat est mis pour
+   * chaque case de destination. Permet de mettre en évidence les coups possibles et de valider un coup sans le jouer.
+   * Par défaut, aucune destination n'est connue.
+   * @param x
+   * @param y
+   * @return le masque des destinations, 0 si la case est vide, si ce n'est pas au tour de la pièce ou si la partie
+   * est terminée.
+   */
+  default long legalDestinations(int x, int y) {
+    return 0;
+  }
+
+  /**
+   * Indique si le déplacement de la position X à la position Y est légal, sans le jouer.
+   * @param fromX
+   * @param fromY
+   * @param toX
+   * @param toY
+   * @return true si le mouvement est légal.
+   */
+  default boolean isLegalMove(int fromX, int fromY, int toX, int toY) {
+    return (legalDestinations(fromX, fromY) >>> (toY * 8 + toX) & 1) != 0;
+  }
+
 }
\ No newline at end of file
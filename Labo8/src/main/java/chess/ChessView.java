@@ -26,6 +26,23 @@ public interface ChessView {
    */
   void putPiece(PieceType type, PlayerColor color, int x, int y);
 
+  /**
+   * Applique en une fois toutes les modifications de l'échiquier dues à un coup, p.ex. les deux pièces déplacées par
+   * un roque ou le pion capturé en passant, pour que la vue ne soit mise à jour qu'une fois par coup. Par défaut,
+   * les cases sont modifiées une à une avec removePiece et putPiece.
+   * @param diff le nouveau contenu des cases modifiées.
+   */
+  default void update(BoardDiff diff) {
+    for (BoardDiff.Change change : diff.changes()) {
+      if (change.isEmpty()) {
+        removePiece(change.x(), change.y());
+      }
+      else {
+        putPiece(change.type(), change.color(), change.x(), change.y());
+      }
+    }
+  }
+
   /**
    * Affiche un message informatif à l'utilisateur.
    * @param msg le message à afficher.
@@ -50,4 +67,13 @@ public interface ChessView {
    */
   <T extends UserChoice> T askUser (String title, String question, T ... possibilities);
 
+  /**
+   * Affiche le résultat de l'analyse en arrière-plan de la position. Peut être appelée depuis un autre thread que
+   * celui de la vue. Par défaut, l'analyse n'est pas affichée.
+   * @param evaluation l'évaluation de la position, vide pour effacer l'analyse.
+   * @param line la meilleure suite de coups trouvée.
+   */
+  default void displayAnalysis(String evaluation, String line) {
+  }
+
 }
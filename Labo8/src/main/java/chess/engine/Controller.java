@@ -1,8 +1,18 @@
 package chess.engine;
 
+import chess.BoardDiff;
 import chess.ChessController;
 import chess.ChessView;
+import chess.PieceType;
+import chess.engine.analysis.Analyzer;
 import chess.engine.board.*;
+import chess.engine.broadcast.Broadcast;
+import chess.engine.piece.Piece;
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
 import chess.engine.util.BoardFactory;
 import chess.engine.util.PieceFactory;
 import chess.engine.util.PromotionChoice;
@@ -25,6 +35,22 @@ public class Controller implements ChessController {
      */
     private Board board;
 
+    /**
+     * The background analysis of the position, or null if it is disabled.
+     */
+    private Analyzer analyzer;
+
+    /**
+     * The legal moves of the turn, computed once by {@link #updateGameState()}, or null if they must be computed
+     * again. They are replaced and never modified, so the views can query them from any thread.
+     */
+    private volatile LegalMoves legalMoves;
+
+    /**
+     * The broadcast of the game to the spectators, or null.
+     */
+    private Broadcast broadcast;
+
     /**
      * Start the controller and a new game.
      *
@@ -38,8 +64,8 @@ public class Controller implements ChessController {
     }
 
     /**
-     * Move a piece from one square to another. This function checks the values returned in the MoveResult class
-     * and updates the board (model) and the GUI (view) accordingly.
+     * Move a piece from one square to another. The move is checked against the legal moves of the turn and the
+     * board (model) and the GUI (view) are updated accordingly.
      *
      * @param fromX The x coordinate of the square to move from.
      * @param fromY The y coordinate of the square to move from.
@@ -49,102 +75,140 @@ public class Controller implements ChessController {
      */
     @Override
     public boolean move(int fromX, int fromY, int toX, int toY) {
-        displayGameState();
-        if (board().gameState() == GameState.CHECKMATE || board().gameState() == GameState.DRAW) {
-            displayGameState();
-            return false;
+        final var event = new ControllerCallEvent("move");
+        event.begin();
+        boolean valid = false;
+        try {
+            valid = tryMove(fromX, fromY, toX, toY);
+            return valid;
+        } finally {
+            // The fields are only filled for a recorded call, so a move costs no allocation when recording is off.
+            if (event.shouldCommit()) {
+                event.move = fromX + "," + fromY + " " + toX + "," + toY;
+                event.result = valid ? "valid" : "invalid";
+                event.commit();
+            }
         }
+    }
 
-        final var move = new Move(new Square(fromX, fromY), new Square(toX, toY)); // Convert the coordinates to a move.
-        final var piece = board().pieces().get(move.from());
-
-        // Preamble checks.
-        if (piece == null || piece.color() != board().currentPlayer()) {
+    /**
+     * Validate and apply a move. See {@link #move(int, int, int, int)}. An illegal move is rejected by a lookup in the
+     * destinations of the turn, without running the rules of the pieces; the side effects of a legal move are given
+     * by the flags of its encoded move.
+     *
+     * @param fromX The x coordinate of the square to move from.
+     * @param fromY The y coordinate of the square to move from.
+     * @param toX   The x coordinate of the square to move to.
+     * @param toY   The y coordinate of the square to move to.
+     * @return True if the move was successful, false otherwise.
+     */
+    private boolean tryMove(int fromX, int fromY, int toX, int toY) {
+        displayGameState();
+        if (!Square.isValid(fromX, fromY) || !Square.isValid(toX, toY)) {
             return false;
         }
-
-        // Get the result of moving the piece.
-        final MoveResult moveResult = piece.move(move);
-
-        // Check the validity of the move.
-        if (!moveResult.isValid()) {
+        final var move = new Move(new Square(fromX, fromY), new Square(toX, toY)); // Convert the coordinates to a move.
+        final int encoded = legalMoves().find(move.from().index(), move.to().index());
+        if (encoded == Moves.NONE) {
             return false;
         }
 
-        applyMoveSideEffects(moveResult);
-        applyMove(move);
+        // Collect the changes of the squares so the view is updated once per move.
+        final var diff = new BoardDiff();
+        applyMoveSideEffects(encoded, diff);
+        applyMove(move, diff);
 
-        if (moveResult.isPromotion()) handlePromotion(move);
+        if (Moves.isPromotion(encoded)) handlePromotion(move, diff);
+        view().update(diff);
 
         board().setLastHalfMove(move);
         board().nextTurn();
+        legalMoves = null;
 
         updateGameState();
+        analyzePosition();
+        broadcast("move " + move.longAlgebraicNotation()
+                          + (Moves.isPromotion(encoded) ? promotionSuffix(board().pieces().get(move.to())) : ""));
 
         return true;
     }
 
     /**
-     * Applies the side effects of a move to the board and the view.
+     * Applies the side effects of a legal move to the board and records the changed squares: the capture, the rook of
+     * a castling, the castling rights, the half move clock and the en passant square.
      *
-     * @param moveResult The move result to apply.
-     */
-    private void applyMoveSideEffects(MoveResult moveResult) {
-        // Adapt the castling rights.
-        moveResult.lostCastlingRights().forEach(board().castlingRights()::remove);
-
-        // Remove the deleted pieces and move the current piece.
-        moveResult.removedPieces().forEach(square -> {
-            board().pieces().remove(square);
-            view().removePiece(square.x(), square.y());
-        });
-
-        // Move the pieces that were moved as a side effect of the current move.
-        moveResult.movedPieces().forEach(m -> {
-            var pieceToMove = board().pieces().get(m.from());
-            board().pieces().remove(m.from());
-            board().pieces().put(m.to(), pieceToMove);
-            view().removePiece(m.from().x(), m.from().y());
-            view().putPiece(pieceToMove.type(), pieceToMove.color(), m.to().x(), m.to().y());
-        });
-
-        if (moveResult.resetHalfMoveClock()) {
+     * @param encoded The move, as generated by {@link MoveGenerator}.
+     * @param diff    The changes of the squares for the view.
+     */
+    private void applyMoveSideEffects(int encoded, BoardDiff diff) {
+        final var from = new Square(Moves.from(encoded));
+        final var to = new Square(Moves.to(encoded));
+        final int flags = Moves.flags(encoded);
+        final var piece = board().pieces().get(from);
+
+        // Adapt the castling rights when a king or a rook leaves its square, or a rook is captured.
+        for (var type : CastlingType.values()) {
+            final var king = type.squares().get(0);
+            final var rook = type.squares().get(type.squares().size() - 1);
+            if (from.equals(king) || from.equals(rook) || to.equals(rook)) {
+                board().castlingRights().remove(type);
+            }
+        }
+
+        // Remove the captured piece, which is beside the destination for an en passant capture.
+        final var captured = flags == Moves.EN_PASSANT ? new Square(to.x(), from.y()) : to;
+        final boolean capture = board().removePiece(captured) != null;
+        if (capture) {
+            diff.removePiece(captured.x(), captured.y());
+        }
+
+        // Move the rook of a castling.
+        if (flags == Moves.KING_CASTLE || flags == Moves.QUEEN_CASTLE) {
+            final var rookFrom = new Square(flags == Moves.KING_CASTLE ? 7 : 0, from.y());
+            final var rookTo = new Square(flags == Moves.KING_CASTLE ? 5 : 3, from.y());
+            final var rook = board().removePiece(rookFrom);
+            board().putPiece(rookTo, rook);
+            diff.removePiece(rookFrom.x(), rookFrom.y());
+            diff.putPiece(rook.type(), rook.color(), rookTo.x(), rookTo.y());
+        }
+
+        if (capture || piece.type() == PieceType.PAWN) {
             board().setHalfMoveClock(0);
         } else {
             board().incrementHalfMoveClock();
         }
-        board().setEnPassantSquare(moveResult.enPassantSquare());
+        board().setEnPassantSquare(flags == Moves.DOUBLE_PUSH ? new Square(from.x(), (from.y() + to.y()) / 2) : null);
     }
 
     /**
-     * Apply the main move to the board and the view.
+     * Apply the main move to the board and record the changed squares.
      *
      * @param move The move to apply.
+     * @param diff The changes of the squares for the view.
      */
-    private void applyMove(Move move) {
+    private void applyMove(Move move, BoardDiff diff) {
         final var piece = board().pieces().get(move.from());
-        board().pieces().remove(move.from());
-        board().pieces().put(move.to(), piece);
-        view.removePiece(move.from().x(), move.from().y());
-        view.putPiece(piece.type(), piece.color(), move.to().x(), move.to().y());
+        board().removePiece(move.from());
+        board().putPiece(move.to(), piece);
+        diff.removePiece(move.from().x(), move.from().y());
+        diff.putPiece(piece.type(), piece.color(), move.to().x(), move.to().y());
     }
 
     /**
      * Handle the promotion of a pawn by asking the user which piece they want to promote to.
      *
      * @param move The move to apply during the promotion.
+     * @param diff The changes of the squares for the view.
      */
-    private void handlePromotion(Move move) {
+    private void handlePromotion(Move move, BoardDiff diff) {
         var choice = view().askUser("Promotion", "Which piece would you like to promote to?",
                                     PromotionChoice.PROMOTION_CHOICES);
         if (choice == null) {
             throw new IllegalStateException("User cancelled promotion");
         }
         var newPiece = PieceFactory.createPiece(board(), choice.getPieceType(), board().currentPlayer());
-        board().pieces().put(move.to(), newPiece);
-        view().removePiece(move.from().x(), move.from().y());
-        view().removePiece(move.to().x(), move.to().y());
-        view().putPiece(newPiece.type(), newPiece.color(), move.to().x(), move.to().y());
+        board().putPiece(move.to(), newPiece);
+        diff.putPiece(newPiece.type(), newPiece.color(), move.to().x(), move.to().y());
     }
 
     /**
@@ -152,17 +216,127 @@ public class Controller implements ChessController {
      */
     @Override
     public void newGame() {
-        board = BoardFactory.createInitialBoard();
+        setBoard(BoardFactory.createInitialBoard());
         // Use the following line to debug a specific position :
         // setBoard(BoardFactory.createFromFen("r1bqkbnr/pppp1ppp/8/n3p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 2 3")); // For example scholar's mate
-        for (var entry : board().pieces().entrySet()) {
-            var square = entry.getKey();
-            var piece = entry.getValue();
-            view().putPiece(piece.type(), piece.color(), square.x(), square.y());
+        final var diff = new BoardDiff();
+        for (int x = 0; x < Square.BOARD_WIDTH; x++) {
+            for (int y = 0; y < Square.BOARD_WIDTH; y++) {
+                final var piece = board().pieces().get(new Square(x, y));
+                if (piece == null) {
+                    diff.removePiece(x, y);
+                } else {
+                    diff.putPiece(piece.type(), piece.color(), x, y);
+                }
+            }
         }
+        view().update(diff);
 
         // Update the game state. Useful to debug positions and see if there is a check, checkmate, stalemate, etc.
         updateGameState();
+        analyzePosition();
+        broadcast("newgame");
+    }
+
+    /**
+     * Enable or disable the background analysis of the position. The analysis runs on a worker thread and its
+     * updates are sent to {@link ChessView#displayAnalysis(String, String)}.
+     *
+     * @param enabled True to enable the analysis.
+     */
+    @Override
+    public void setAnalysis(boolean enabled) {
+        if (enabled && analyzer == null) {
+            analyzer = new Analyzer(analysis -> view().displayAnalysis(analysis.evaluation(), analysis.line()));
+            analyzePosition();
+        } else if (!enabled && analyzer != null) {
+            analyzer.shutdown();
+            analyzer = null;
+            view().displayAnalysis("", "");
+        }
+    }
+
+    /**
+     * Get the squares the piece on a square can legally move to, from the legal moves of the turn.
+     *
+     * @param x The x coordinate of the square.
+     * @param y The y coordinate of the square.
+     * @return The bitboard of the destinations.
+     */
+    @Override
+    public long legalDestinations(int x, int y) {
+        return Square.isValid(x, y) ? legalMoves().destinations()[new Square(x, y).index()] : 0;
+    }
+
+    /**
+     * Get the legal moves of the turn, computing them if needed. There are none once the game is over.
+     *
+     * @return The legal moves, also stored for the next queries.
+     */
+    private LegalMoves legalMoves() {
+        var moves = legalMoves;
+        if (moves == null) {
+            moves = turnMoves(MoveGenerator.legalMoves(Position.of(board())));
+            legalMoves = moves;
+        }
+        return moves;
+    }
+
+    /**
+     * Collect the legal moves of the turn.
+     *
+     * @param moves The legal moves of the position.
+     * @return The legal moves of the turn, none once the game is over.
+     */
+    private LegalMoves turnMoves(MoveList moves) {
+        if (board().gameState() == GameState.CHECKMATE || board().gameState() == GameState.DRAW) {
+            return new LegalMoves(new long[Square.BOARD_WIDTH * Square.BOARD_WIDTH], new int[0]);
+        }
+        return LegalMoves.of(moves);
+    }
+
+    /**
+     * Broadcast the game to spectators. The controller publishes an event for each new game ({@code newgame}) and
+     * each move ({@code move e2e4}), followed by the game state and the FEN string of the position, so a spectator
+     * joining at any time knows the whole position. The controller must be used by a single thread.
+     *
+     * @param broadcast The broadcast, or null to stop broadcasting.
+     */
+    public void setBroadcast(Broadcast broadcast) {
+        this.broadcast = broadcast;
+        if (broadcast != null && board() != null) {
+            broadcast("position");
+        }
+    }
+
+    /**
+     * Publish an event to the spectators, if the game is broadcast.
+     *
+     * @param event The event, completed by the game state and the position.
+     */
+    private void broadcast(String event) {
+        if (broadcast != null) {
+            broadcast.publish(event + " " + board().gameState() + " " + Position.of(board()).toFen());
+        }
+    }
+
+    /**
+     * Get the suffix of a promotion in long algebraic notation.
+     *
+     * @param piece The promoted piece.
+     * @return The letter of the piece, in lower case.
+     */
+    private static String promotionSuffix(Piece piece) {
+        return String.valueOf(Character.toLowerCase(Pieces.fenChar(Pieces.of(piece.type(), piece.color()))));
+    }
+
+    /**
+     * Restart the background analysis on the current position, if it is enabled.
+     */
+    private void analyzePosition() {
+        if (analyzer != null && board() != null) {
+            analyzer.analyze(board());
+        }
     }
 
     /**
@@ -177,6 +351,7 @@ public class Controller implements ChessController {
      */
     public void setBoard(Board board) {
         this.board = board;
+        legalMoves = null;
     }
 
     /**
@@ -197,20 +372,21 @@ public class Controller implements ChessController {
      * Update the game state and display a message if necessary.
      */
     public void updateGameState() {
-        // A check depends on a king existing, otherwise we're in a special kind of chess (kingless, dros delnoch, etc.)
-        if (board().king(board().currentPlayer()) != null && board().isCheck()) {
-            if (board().isCheckmate()) {
-                board().setGameState(GameState.CHECKMATE);
-            } else {
-                board().setGameState(GameState.CHECK);
+        final var event = new ControllerCallEvent("updateGameState");
+        event.begin();
+        try {
+            // The legal moves give both the state and the moves of the turn.
+            final var position = Position.of(board());
+            final var moves = MoveGenerator.legalMoves(position);
+            board().setGameState(board().status(position, moves).gameState());
+            legalMoves = turnMoves(moves);
+            displayGameState();
+        } finally {
+            if (event.shouldCommit()) {
+                event.result = String.valueOf(board().gameState());
+                event.commit();
             }
-        } else if (board().isDraw()) {
-            board().setGameState(GameState.DRAW);
-        } else {
-            board().setGameState(GameState.NORMAL);
         }
-
-        displayGameState();
     }
 
     /**
@@ -238,4 +414,47 @@ public class Controller implements ChessController {
         clone.setBoard(board().clone());
         return clone;
     }
+
+    /**
+     * The legal moves of a turn.
+     *
+     * @param destinations The destinations of the piece on each square, as bitboards indexed by square index.
+     * @param moves        The encoded moves.
+     */
+    private record LegalMoves(long[] destinations, int[] moves) {
+        /**
+         * Collect the legal moves of a position.
+         *
+         * @param list The legal moves.
+         * @return The legal moves of the turn.
+         */
+        static LegalMoves of(MoveList list) {
+            final long[] destinations = new long[Square.BOARD_WIDTH * Square.BOARD_WIDTH];
+            final int[] moves = new int[list.size()];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = list.get(i);
+                destinations[Moves.from(moves[i])] |= 1L << Moves.to(moves[i]);
+            }
+            return new LegalMoves(destinations, moves);
+        }
+
+        /**
+         * Find a legal move. Only the moves of the piece are scanned, once the destination is known to be legal.
+         *
+         * @param from The square index of the origin.
+         * @param to   The square index of the destination.
+         * @return The move, the promotion to a queen for a promotion, or {@link Moves#NONE} if the move is illegal.
+         */
+        int find(int from, int to) {
+            if ((destinations[from] >>> to & 1) == 0) {
+                return Moves.NONE;
+            }
+            for (int move : moves) {
+                if (Moves.from(move) == from && Moves.to(move) == to) {
+                    return move;
+                }
+            }
+            return Moves.NONE;
+        }
+    }
 }
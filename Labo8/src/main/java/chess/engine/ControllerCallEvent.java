@@ -0,0 +1,42 @@
+package chess.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of a slow call to the controller. Only calls longer than the threshold (10 ms by default,
+ * configurable in the recording settings) are recorded.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+@Name("chess.ControllerCall")
+@Label("Controller Call")
+@Category({"Chess", "Controller"})
+@Description("A slow call to Controller.move or Controller.updateGameState")
+@Threshold("10 ms")
+@StackTrace(false)
+class ControllerCallEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Move")
+    String move;
+
+    @Label("Result")
+    String result;
+
+    /**
+     * Constructor. The move and the result are filled once the call is known to be recorded.
+     *
+     * @param operation The name of the controller method.
+     */
+    ControllerCallEvent(String operation) {
+        this.operation = operation;
+    }
+}
@@ -0,0 +1,33 @@
+package chess.engine.analysis;
+
+import chess.engine.search.Search;
+
+/**
+ * An update of the background analysis of a position.
+ *
+ * @param depth The depth of the search, 0 if the position has no legal move.
+ * @param score The score in centipawns from white's point of view, or a mate score.
+ * @param line  The principal variation in standard algebraic notation, e.g. "1. e4 e5 2. Nf3".
+ * @param nodes The number of nodes searched.
+ * @param done  Whether the search of the position is over.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record Analysis(int depth, int score, String line, long nodes, boolean done) {
+    /**
+     * The evaluation in pawns from white's point of view, e.g. "+0.35", or the distance to mate, e.g. "#3" when white
+     * mates in 3 moves and "#-2" when black does in 2.
+     *
+     * @return The formatted evaluation, empty if the position has no legal move.
+     */
+    public String evaluation() {
+        if (depth == 0) {
+            return "";
+        }
+        if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+            final int plies = Search.MATE - Math.abs(score);
+            return "#" + (score > 0 ? "" : "-") + (plies + 1) / 2;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+}
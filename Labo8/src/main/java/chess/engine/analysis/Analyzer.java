@@ -0,0 +1,169 @@
+package chess.engine.analysis;
+
+import chess.engine.board.Board;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+import chess.engine.search.Search;
+import chess.engine.search.SearchLimits;
+import chess.engine.search.SearchResult;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Background analysis of the game. The search runs on a worker thread over a snapshot of the board taken when the
+ * position changes, so the thread of the view is never blocked. Each change of position stops the running search
+ * and starts a new one; the updates of a stale search are never published. The updates are throttled: an iteration
+ * completed less than {@link #PUBLISH_INTERVAL} milliseconds after the last published one is kept until the next
+ * iteration or the end of the search.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Analyzer {
+    /**
+     * The minimum interval between two published updates, in milliseconds.
+     */
+    public static final long PUBLISH_INTERVAL = 150;
+
+    /**
+     * The size of the transposition table of the analysis, in megabytes.
+     */
+    private static final int HASH_MEGABYTES = 32;
+
+    /**
+     * The maximum depth of the analysis.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * The search, only used by the worker thread except for {@link Search#stop()}.
+     */
+    private final Search search = new Search(HASH_MEGABYTES);
+
+    /**
+     * The worker thread.
+     */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The listener of the updates, called on the worker thread.
+     */
+    private final Consumer<Analysis> listener;
+
+    /**
+     * The number of the latest position, so the searches of older positions know they are stale.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param listener The listener of the updates, called on the worker thread.
+     */
+    public Analyzer(Consumer<Analysis> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start analysing a new position, stopping the analysis of the previous one.
+     *
+     * @param board The board. A snapshot is taken, so the board can be modified once the method returns.
+     */
+    public void analyze(Board board) {
+        final var snapshot = Position.of(board);
+        final long current = generation.incrementAndGet();
+        search.stop();
+        worker.execute(() -> run(snapshot, current));
+    }
+
+    /**
+     * Stop the analysis and the worker thread.
+     */
+    public void shutdown() {
+        generation.incrementAndGet();
+        search.stop();
+        worker.shutdownNow();
+    }
+
+    /**
+     * Analyse a position on the worker thread.
+     *
+     * @param position The snapshot of the position.
+     * @param current  The generation of the position.
+     */
+    private void run(Position position, long current) {
+        if (generation.get() != current) {
+            return; // A newer position is queued.
+        }
+        // Clear the previous stop, then check the generation again: a newer position either is seen here, or its stop
+        // comes after the clear and stops the search.
+        search.prepare();
+        if (generation.get() != current) {
+            return;
+        }
+        final Analysis[] pending = {null};
+        final long[] lastPublished = {0};
+        search.setListener(results -> {
+            if (generation.get() != current) {
+                return; // The position changed, the search is being stopped.
+            }
+            pending[0] = toAnalysis(position, results, false);
+            final long now = System.currentTimeMillis();
+            if (now - lastPublished[0] >= PUBLISH_INTERVAL) {
+                listener.accept(pending[0]);
+                pending[0] = null;
+                lastPublished[0] = now;
+            }
+        });
+        final SearchResult result = search.search(position, SearchLimits.depth(MAX_DEPTH));
+        if (generation.get() == current) {
+            listener.accept(result.move() == Moves.NONE ? new Analysis(0, 0, "", 0, true)
+                                    : toAnalysis(position, List.of(result), true));
+        }
+    }
+
+    /**
+     * Convert the best line of a search to an update.
+     *
+     * @param position The position searched.
+     * @param results  The lines of the search, best first.
+     * @param done     Whether the search is over.
+     * @return The update.
+     */
+    private static Analysis toAnalysis(Position position, List<SearchResult> results, boolean done) {
+        final var best = results.get(0);
+        final int score = position.sideToMove() == Pieces.WHITE ? best.score() : -best.score();
+        return new Analysis(best.depth(), score, san(position, best.pv()), best.nodes(), done);
+    }
+
+    /**
+     * Write a line in standard algebraic notation with move numbers.
+     *
+     * @param position The position before the line.
+     * @param pv       The moves of the line.
+     * @return The line, e.g. "12... Nf6 13. e5".
+     */
+    private static String san(Position position, int[] pv) {
+        final var sb = new StringBuilder();
+        final var copy = new Position(position);
+        for (int i = 0; i < pv.length; i++) {
+            if (copy.sideToMove() == Pieces.WHITE) {
+                sb.append(copy.fullMoveNumber()).append(". ");
+            } else if (i == 0) {
+                sb.append(copy.fullMoveNumber()).append("... ");
+            }
+            sb.append(Moves.san(copy, pv[i])).append(' ');
+            copy.make(pv[i]);
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,270 @@
+package chess.engine.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Headless batch analysis of positions. FEN or EPD lines, or CSV records such as the test resources, are streamed
+ * from a file or the standard input and analysed on a fork/join pool: for each position the status, the number of
+ * legal moves and optionally the perft count are written to the standard output, in CSV ({@code line,status,
+ * legal_moves,perft,fen}) or JSON lines, in the order of the input. The throughput is reported on the standard error.
+ * <p>
+ * The input is read in chunks, and only a few chunks per thread are in flight at a time, so the memory used does not
+ * depend on the size of the input. Each chunk is split in tasks of a few lines, and each thread of the pool reuses its
+ * own {@link PositionAnalyzer}.
+ * <p>
+ * Usage: {@code BatchAnalyzer [--input positions.csv] [--perft 3] [--threads 8] [--chunk 4096] [--format csv|json]}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BatchAnalyzer {
+    /**
+     * The number of lines under which a task is not split further.
+     */
+    private static final int TASK_LINES = 64;
+
+    /**
+     * The number of chunks in flight per thread.
+     */
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    /**
+     * The format of the output.
+     */
+    private final boolean json;
+
+    /**
+     * The pool.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of lines per chunk.
+     */
+    private final int chunkLines;
+
+    /**
+     * The analyzer of each thread of the pool.
+     */
+    private final ThreadLocal<PositionAnalyzer> analyzers;
+
+    /**
+     * The statistics, only updated by the thread writing the output.
+     */
+    private final Map<PositionStatus, Long> statuses = new EnumMap<>(PositionStatus.class);
+    private long positions = 0, perftNodes = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param threads    The number of threads.
+     * @param chunkLines The number of lines per chunk.
+     * @param perftDepth The perft depth, or 0 to skip it.
+     * @param json       Whether to write JSON lines instead of CSV.
+     */
+    public BatchAnalyzer(int threads, int chunkLines, int perftDepth, boolean json) {
+        if (threads < 1 || chunkLines < 1) {
+            throw new IllegalArgumentException("The number of threads and the chunk size must be positive.");
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.chunkLines = chunkLines;
+        this.json = json;
+        new PositionAnalyzer(perftDepth); // Fail early on an invalid depth.
+        this.analyzers = ThreadLocal.withInitial(() -> new PositionAnalyzer(perftDepth));
+    }
+
+    /**
+     * Run the analysis from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = null;
+        int perft = 0, threads = Runtime.getRuntime().availableProcessors(), chunk = 4096;
+        boolean json = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input" -> input = args[++i].equals("-") ? null : Path.of(args[i]);
+                case "--perft" -> perft = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk" -> chunk = Integer.parseInt(args[++i]);
+                case "--format" -> json = switch (args[++i]) {
+                    case "csv" -> false;
+                    case "json" -> true;
+                    default -> throw new IllegalArgumentException("Unknown format: " + args[i]);
+                };
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        final var analyzer = new BatchAnalyzer(threads, chunk, perft, json);
+        final var out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        final long start = System.nanoTime();
+        try (var in = input == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(input)) {
+            analyzer.run(in, out);
+        } finally {
+            out.flush();
+            analyzer.shutdown();
+        }
+        System.err.println(analyzer.summary(System.nanoTime() - start));
+    }
+
+    /**
+     * Analyse every position of the input and write the reports in the order of the input.
+     *
+     * @param in  The input.
+     * @param out The output.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public void run(BufferedReader in, Writer out) throws IOException {
+        if (!json) {
+            out.write("line,status,legal_moves,perft,fen\n");
+        }
+        final var inFlight = new ArrayDeque<Chunk>();
+        final int maxInFlight = pool.getParallelism() * CHUNKS_PER_THREAD;
+        long lineNumber = 0;
+        Chunk chunk = new Chunk(chunkLines);
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            final String fen = PositionAnalyzer.extractFen(line);
+            if (fen == null) {
+                continue;
+            }
+            chunk.add(lineNumber, fen);
+            if (chunk.size == chunkLines) {
+                if (inFlight.size() == maxInFlight) {
+                    write(inFlight.removeFirst(), out);
+                }
+                inFlight.addLast(chunk.submit());
+                chunk = new Chunk(chunkLines);
+            }
+        }
+        if (chunk.size > 0) {
+            inFlight.addLast(chunk.submit());
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.removeFirst(), out);
+        }
+    }
+
+    /**
+     * Wait for a chunk, write its reports and account for them.
+     *
+     * @param chunk The chunk.
+     * @param out   The output.
+     * @throws IOException If the output cannot be written.
+     */
+    private void write(Chunk chunk, Writer out) throws IOException {
+        chunk.task.join();
+        final var text = new StringBuilder(chunk.size * 80);
+        for (int i = 0; i < chunk.size; i++) {
+            final var report = chunk.reports[i];
+            if (json) {
+                report.appendJson(text);
+            } else {
+                report.appendCsv(text);
+            }
+            statuses.merge(report.status(), 1L, Long::sum);
+            positions++;
+            perftNodes += Math.max(report.perft(), 0);
+        }
+        out.write(text.toString());
+    }
+
+    /**
+     * Describe the statistics of the analysis.
+     *
+     * @param nanos The elapsed time, in nanoseconds.
+     * @return The summary.
+     */
+    public String summary(long nanos) {
+        final double seconds = Math.max(nanos, 1) / 1e9;
+        final var summary = new StringBuilder(String.format(
+                "%d positions in %.2f s, %.0f positions/s", positions, seconds, positions / seconds));
+        if (perftNodes > 0) {
+            summary.append(String.format(", perft %d nodes, %.0f nodes/s", perftNodes, perftNodes / seconds));
+        }
+        statuses.forEach((status, count) -> summary.append(String.format("%n  %-22s %d", status, count)));
+        return summary.toString();
+    }
+
+    /**
+     * Stop the threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Lines of the input analysed together.
+     */
+    private final class Chunk {
+        private final long[] lines;
+        private final String[] fens;
+        private final PositionReport[] reports;
+        private int size = 0;
+        private ForkJoinTask<?> task;
+
+        private Chunk(int capacity) {
+            lines = new long[capacity];
+            fens = new String[capacity];
+            reports = new PositionReport[capacity];
+        }
+
+        private void add(long line, String fen) {
+            lines[size] = line;
+            fens[size++] = fen;
+        }
+
+        private Chunk submit() {
+            task = pool.submit(new Analysis(this, 0, size));
+            return this;
+        }
+    }
+
+    /**
+     * Analysis of a range of lines of a chunk, split in halves until it is small enough.
+     */
+    @SuppressWarnings("serial") // The tasks are never serialized.
+    private final class Analysis extends RecursiveAction {
+        private final Chunk chunk;
+        private final int from, to;
+
+        private Analysis(Chunk chunk, int from, int to) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TASK_LINES) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Analysis(chunk, from, middle), new Analysis(chunk, middle, to));
+                return;
+            }
+            final var analyzer = analyzers.get();
+            for (int i = from; i < to; i++) {
+                chunk.reports[i] = analyzer.analyze(chunk.lines[i], chunk.fens[i]);
+            }
+        }
+    }
+}
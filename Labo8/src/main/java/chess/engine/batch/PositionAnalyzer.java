@@ -0,0 +1,178 @@
+package chess.engine.batch;
+
+import chess.engine.perft.Perft;
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Position;
+
+import java.util.Arrays;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Analysis of positions read from text lines: legality, number of legal moves, status and optionally perft. The
+ * position and the move lists are reused from one line to the next, so an instance is meant to be kept by a single
+ * thread for a whole batch. It is not thread-safe.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class PositionAnalyzer {
+    /**
+     * The position, reloaded for every line.
+     */
+    private final Position position = new Position();
+
+    /**
+     * The legal moves of the position.
+     */
+    private final MoveList moves = new MoveList();
+
+    /**
+     * The perft counter.
+     */
+    private final Perft perft = new Perft(null);
+
+    /**
+     * The perft depth, or 0 to skip it.
+     */
+    private final int perftDepth;
+
+    /**
+     * The number of pieces of each color and type, indexed by piece code.
+     */
+    private final int[] counts = new int[16];
+
+    /**
+     * Constructor.
+     *
+     * @param perftDepth The perft depth, or 0 to skip it.
+     */
+    public PositionAnalyzer(int perftDepth) {
+        if (perftDepth < 0) {
+            throw new IllegalArgumentException("Invalid perft depth: " + perftDepth);
+        }
+        this.perftDepth = perftDepth;
+    }
+
+    /**
+     * Extract the FEN string of an input line. A line is either a FEN or EPD string, or a CSV record whose first field
+     * containing a '/' is the FEN string, as in the test resources.
+     *
+     * @param line The input line.
+     * @return The FEN string, or null if the line is empty, a comment or a CSV header.
+     */
+    public static String extractFen(String line) {
+        final String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        if (trimmed.indexOf(',') < 0) {
+            return trimmed;
+        }
+        for (var field : trimmed.split(",")) {
+            if (field.indexOf('/') >= 0) {
+                return field.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Analyse a position.
+     *
+     * @param line The number of the input line.
+     * @param text The FEN or EPD string. The EPD operations are ignored.
+     * @return The report of the position.
+     */
+    public PositionReport analyze(long line, String text) {
+        final String fen;
+        try {
+            fen = text.substring(0, position.load(text)).trim();
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return new PositionReport(line, text, PositionStatus.INVALID, -1, -1, e.getMessage());
+        }
+        final String illegal = countPieces();
+        if (illegal != null) {
+            return new PositionReport(line, fen, PositionStatus.ILLEGAL, -1, -1, illegal);
+        }
+
+        MoveGenerator.legalMoves(position, moves);
+        final int legalMoves = moves.size();
+        final long nodes = perftDepth > 0 ? perft.count(position, perftDepth) : -1;
+        return new PositionReport(line, fen, status(legalMoves), legalMoves, nodes, null);
+    }
+
+    /**
+     * Count the pieces of the position and check that it can be reached.
+     *
+     * @return The reason why the position is illegal, or null if it is legal.
+     */
+    private String countPieces() {
+        Arrays.fill(counts, 0);
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            counts[piece]++;
+            if (type(piece) == PAWN && (square < 8 || square >= 56)) {
+                return "Pawn on a back rank";
+            }
+        }
+        if (counts[of(KING, WHITE)] > 1 || counts[of(KING, BLACK)] > 1) {
+            return "More than one king of a color";
+        }
+        final int opponent = position.sideToMove() ^ 1;
+        if (position.king(opponent) >= 0 && position.isAttacked(position.king(opponent), opponent ^ 1)) {
+            return "The side not to move is in check";
+        }
+        return null;
+    }
+
+    /**
+     * Compute the status of the position, with the rules of the board model, repetitions excepted.
+     *
+     * @param legalMoves The number of legal moves.
+     * @return The status.
+     */
+    private PositionStatus status(int legalMoves) {
+        final boolean check = position.inCheck();
+        if (check && legalMoves == 0) {
+            return PositionStatus.CHECKMATE;
+        }
+        final boolean kingPresent = position.king(position.sideToMove()) >= 0;
+        if (kingPresent && legalMoves == 0) {
+            return PositionStatus.STALEMATE;
+        } else if (position.halfMoveClock() >= 100) {
+            return PositionStatus.FIFTY_MOVES;
+        } else if (kingPresent && isInsufficientMaterial()) {
+            return PositionStatus.INSUFFICIENT_MATERIAL;
+        }
+        return check ? PositionStatus.CHECK : PositionStatus.NORMAL;
+    }
+
+    /**
+     * Check whether neither player has enough material to checkmate, with the rule of the board model.
+     *
+     * @return True if the material is insufficient.
+     */
+    private boolean isInsufficientMaterial() {
+        if (counts[of(KING, WHITE)] != 1 || counts[of(KING, BLACK)] != 1) {
+            return false;
+        }
+        int minors = 0, knights = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            if (counts[of(PAWN, color)] + counts[of(ROOK, color)] + counts[of(QUEEN, color)] > 0) {
+                return false;
+            }
+            knights += counts[of(KNIGHT, color)];
+            minors += counts[of(KNIGHT, color)] + counts[of(BISHOP, color)];
+        }
+        // King vs king, king and a minor piece vs king, or only bishops that all stand on the same square color.
+        int bishops = 0;
+        for (int square = 0; square < 64; square++) {
+            if (type(position.pieceAt(square)) == BISHOP) {
+                bishops |= 1 << ((square / 8 + square % 8) & 1);
+            }
+        }
+        return minors <= 1 || knights == 0 && bishops != 3;
+    }
+}
@@ -0,0 +1,74 @@
+package chess.engine.batch;
+
+/**
+ * Result of the analysis of a position.
+ *
+ * @param line       The number of the input line, starting at 1.
+ * @param fen        The FEN string of the position, or the input line if it is invalid.
+ * @param status     The status of the position.
+ * @param legalMoves The number of legal moves, or -1 if the position is invalid or illegal.
+ * @param perft      The number of leaf nodes of the legal move tree at the requested depth, or -1 if not computed.
+ * @param error      The reason why the position is invalid or illegal, or null.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record PositionReport(long line, String fen, PositionStatus status, int legalMoves, long perft, String error) {
+    /**
+     * Append the report as a CSV record: line, status, legal moves, perft, FEN. The unknown values are left empty.
+     *
+     * @param out The output.
+     */
+    public void appendCsv(StringBuilder out) {
+        out.append(line).append(',').append(status).append(',');
+        if (legalMoves >= 0) {
+            out.append(legalMoves);
+        }
+        out.append(',');
+        if (perft >= 0) {
+            out.append(perft);
+        }
+        out.append(',').append(fen.indexOf(',') >= 0 || fen.indexOf('"') >= 0
+                                       ? '"' + fen.replace("\"", "\"\"") + '"' : fen).append('\n');
+    }
+
+    /**
+     * Append the report as a JSON object on a single line. The unknown values are omitted.
+     *
+     * @param out The output.
+     */
+    public void appendJson(StringBuilder out) {
+        out.append("{\"line\":").append(line).append(",\"status\":\"").append(status).append('"');
+        if (legalMoves >= 0) {
+            out.append(",\"legalMoves\":").append(legalMoves);
+        }
+        if (perft >= 0) {
+            out.append(",\"perft\":").append(perft);
+        }
+        appendJsonString(out.append(",\"fen\":"), fen);
+        if (error != null) {
+            appendJsonString(out.append(",\"error\":"), error);
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Append a JSON string literal.
+     *
+     * @param out   The output.
+     * @param value The string.
+     */
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
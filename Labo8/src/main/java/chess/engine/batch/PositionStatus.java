@@ -0,0 +1,42 @@
+package chess.engine.batch;
+
+/**
+ * Status of a position analysed in batch.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public enum PositionStatus {
+    /**
+     * The side to move has legal moves and is not in check.
+     */
+    NORMAL,
+    /**
+     * The side to move is in check and has legal moves.
+     */
+    CHECK,
+    /**
+     * The side to move is in check and has no legal move.
+     */
+    CHECKMATE,
+    /**
+     * The side to move has a king that is not in check and has no legal move.
+     */
+    STALEMATE,
+    /**
+     * Fifty full moves were played without a capture or a pawn advance.
+     */
+    FIFTY_MOVES,
+    /**
+     * Neither player has enough material to checkmate.
+     */
+    INSUFFICIENT_MATERIAL,
+    /**
+     * The position cannot be reached: the side that just moved is in check or a pawn stands on a back rank.
+     */
+    ILLEGAL,
+    /**
+     * The line is not a valid FEN or EPD string.
+     */
+    INVALID
+}
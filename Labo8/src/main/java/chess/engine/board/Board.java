@@ -4,10 +4,16 @@ import chess.PieceType;
 import chess.PlayerColor;
 import chess.engine.piece.King;
 import chess.engine.piece.Piece;
-
-import java.util.ArrayList;
+import chess.engine.position.BoardSnapshot;
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+import chess.engine.position.Zobrist;
+import chess.engine.util.PieceFactory;
+
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import static chess.PlayerColor.BLACK;
@@ -20,9 +26,18 @@ import static chess.PlayerColor.BLACK;
  */
 public class Board {
     /**
-     * The list of previous full moves.
+     * The hashes of the positions of the game, the current one last. Filled by {@link #resetHistory()} and
+     * {@link #nextTurn()}.
+     */
+    private long[] hashHistory = new long[64];
+    /**
+     * The number of hashes in the history.
      */
-    private final List<FullMove> moveHistory = new ArrayList<>();
+    private int historySize = 0;
+    /**
+     * The Zobrist hash of the pieces on the board, updated incrementally.
+     */
+    private long piecesHash = 0;
     /**
      * The pieces on the board. The key is the position of the piece on the board (e.g. "A1") and the value is the piece.
      */
@@ -66,6 +81,18 @@ public class Board {
      */
     private int fullMoveCount = 1;
 
+    /**
+     * The number of pieces of each color and type, indexed by color ordinal and piece type ordinal. Kept in sync
+     * with the pieces map by {@link #putPiece(Square, Piece)} and {@link #removePiece(Square)}.
+     */
+    private final int[][] pieceCounts = new int[PlayerColor.values().length][PieceType.values().length];
+
+    /**
+     * The number of bishops of each color standing on light and dark squares, indexed by color ordinal.
+     */
+    private final int[] lightBishops = new int[PlayerColor.values().length];
+    private final int[] darkBishops = new int[PlayerColor.values().length];
+
     /**
      * The squares that are attacked by the current player.
      */
@@ -75,13 +102,104 @@ public class Board {
     }
 
     /**
-     * Get the pieces on the board.
+     * Get the pieces on the board. The map must not be modified directly, use {@link #putPiece(Square, Piece)} and
+     * {@link #removePiece(Square)} so the material counters stay in sync.
      *
      * @return The pieces on the board.
      */
     public HashMap<Square, Piece> pieces() {
         return pieces;
     }
+
+    /**
+     * Put a piece on a square, replacing the piece that was there.
+     *
+     * @param square The square.
+     * @param piece  The piece to put.
+     * @return The replaced piece, or null if the square was empty.
+     */
+    public Piece putPiece(Square square, Piece piece) {
+        final var replaced = pieces.put(square, piece);
+        if (replaced != null) {
+            count(square, replaced, -1);
+        }
+        count(square, piece, 1);
+        return replaced;
+    }
+
+    /**
+     * Remove the piece on a square.
+     *
+     * @param square The square.
+     * @return The removed piece, or null if the square was empty.
+     */
+    public Piece removePiece(Square square) {
+        final var removed = pieces.remove(square);
+        if (removed != null) {
+            count(square, removed, -1);
+        }
+        return removed;
+    }
+
+    /**
+     * Update the material counters for a piece added to or removed from a square.
+     *
+     * @param square The square of the piece.
+     * @param piece  The piece.
+     * @param delta  1 if the piece was added, -1 if it was removed.
+     */
+    private void count(Square square, Piece piece, int delta) {
+        piecesHash ^= Zobrist.piece(Pieces.of(piece.type(), piece.color()), square.index());
+        final int color = piece.color().ordinal();
+        pieceCounts[color][piece.type().ordinal()] += delta;
+        if (piece.type() == PieceType.BISHOP) {
+            if (square.isLight()) {
+                lightBishops[color] += delta;
+            } else {
+                darkBishops[color] += delta;
+            }
+        }
+    }
+
+    /**
+     * Get the number of pieces of a player and type.
+     *
+     * @param color The color of the player.
+     * @param type  The type of the pieces.
+     * @return The number of pieces.
+     */
+    public int pieceCount(PlayerColor color, PieceType type) {
+        return pieceCounts[color.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * Get the square colors of the bishops of a player.
+     *
+     * @param color The color of the player.
+     * @return A mask with bit 0 set if the player has a bishop on a light square and bit 1 set if the player has a
+     * bishop on a dark square.
+     */
+    public int bishopMask(PlayerColor color) {
+        return (lightBishops[color.ordinal()] > 0 ? 1 : 0) | (darkBishops[color.ordinal()] > 0 ? 2 : 0);
+    }
+
+    /**
+     * Get the material signature of the board: the number of pieces of each color and type packed in 4 bits each,
+     * white in the low bits. Two boards with the same material have the same signature, so endgames can be
+     * classified with a single lookup.
+     *
+     * @return The material signature.
+     */
+    public long materialSignature() {
+        long signature = 0;
+        for (int color = 0; color < pieceCounts.length; color++) {
+            for (int type = 0; type < pieceCounts[color].length; type++) {
+                final int shift = (color * pieceCounts[color].length + type) * 4;
+                signature |= (long) Math.min(pieceCounts[color][type], 15) << shift;
+            }
+        }
+        return signature;
+    }
     
     /**
      * Get the castling rights.
@@ -107,11 +225,65 @@ public class Board {
     }
 
     /**
-     * Advance to the next turn by incrementing the full move count and changing the current player.
+     * Advance to the next turn by changing the current player, and incrementing the full move count once black has
+     * moved, as in the FEN notation. The reached position is added to the history.
      */
     public void nextTurn() {
-        incrementFullMoveCount();
+        if (currentPlayer() == BLACK) {
+            incrementFullMoveCount();
+        }
         setCurrentPlayer(currentPlayer() == PlayerColor.WHITE ? BLACK : PlayerColor.WHITE);
+        if (historySize == hashHistory.length) {
+            hashHistory = Arrays.copyOf(hashHistory, historySize * 2);
+        }
+        hashHistory[historySize++] = hash();
+    }
+
+    /**
+     * Forget the previous positions and start the history with the current one. Called once the board is set up.
+     */
+    public void resetHistory() {
+        hashHistory[0] = hash();
+        historySize = 1;
+    }
+
+    /**
+     * Get the Zobrist hash of the current position. Equal to the hash of the same position in the search model.
+     *
+     * @return The hash of the position.
+     */
+    public long hash() {
+        final int rights = (getCastlingRight(CastlingType.WHITE_KINGSIDE) ? Position.WHITE_KINGSIDE : 0)
+                | (getCastlingRight(CastlingType.WHITE_QUEENSIDE) ? Position.WHITE_QUEENSIDE : 0)
+                | (getCastlingRight(CastlingType.BLACK_KINGSIDE) ? Position.BLACK_KINGSIDE : 0)
+                | (getCastlingRight(CastlingType.BLACK_QUEENSIDE) ? Position.BLACK_QUEENSIDE : 0);
+        long hash = piecesHash ^ Zobrist.castling(rights);
+        if (enPassantSquare() != null) {
+            hash ^= Zobrist.enPassant(enPassantSquare().index());
+        }
+        return currentPlayer() == BLACK ? hash ^ Zobrist.side() : hash;
+    }
+
+    /**
+     * Count how many times the current position occurred before in the game. Only the positions since the last
+     * capture or pawn advance can repeat, and only every second one has the same player to move, so the scan stops
+     * after a few comparisons.
+     *
+     * @return The number of previous occurrences of the current position.
+     */
+    public int repetitionCount() {
+        if (historySize == 0) {
+            return 0;
+        }
+        final long current = hashHistory[historySize - 1];
+        final int oldest = Math.max(0, historySize - 1 - halfMoveClock);
+        int count = 0;
+        for (int i = historySize - 3; i >= oldest; i -= 2) {
+            if (hashHistory[i] == current) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -148,6 +320,15 @@ public class Board {
         halfMoveClock = value;
     }
 
+    /**
+     * Get the number of half moves since the last capture or pawn advance.
+     *
+     * @return The number of half moves since the last capture or pawn advance.
+     */
+    public int halfMoveClock() {
+        return halfMoveClock;
+    }
+
     /**
      * Increment the number of half moves since the last capture or pawn advance.
      */
@@ -156,13 +337,12 @@ public class Board {
     }
 
     /**
-     * Set the last half move. Also updates the full move list and increments the threefold repetition counter.
+     * Set the last half move. Also updates the last full move.
      *
      * @param move The last half move.
      */
     public void setLastHalfMove(Move move) {
         final var fullMove = new FullMove(lastHalfMove, move, castling, enPassantSquare());
-        moveHistory.add(fullMove);
         setLastFullMove(fullMove);
         lastHalfMove = move;
     }
@@ -194,13 +374,22 @@ public class Board {
         fullMoveCount = value;
     }
 
+    /**
+     * Get the number of full moves since the start of the game.
+     *
+     * @return The number of full moves since the start of the game.
+     */
+    public int fullMoveCount() {
+        return fullMoveCount;
+    }
+
     /**
      * Check if the current player is in check.
      *
      * @return True if the current player is in check, false otherwise.
      */
     public boolean isCheck() {
-        return king(currentPlayer()).isInCheck();
+        return status().check();
     }
 
     /**
@@ -230,57 +419,54 @@ public class Board {
      * @return True if the current player is in checkmate, false otherwise.
      */
     public boolean isCheckmate() {
-        return king(currentPlayer()).isInCheckmate();
+        return status().isCheckmate();
     }
 
     /**
-     * Check if the current player is in stalemate.
+     * Check if the game is drawn.
      *
-     * @return True if the current player is in stalemate, false otherwise.
+     * @return True if the game is drawn, false otherwise.
      */
     public boolean isDraw() {
-        // Some type of draws depend on a king being present and others don't.
-        return (king(currentPlayer()) != null && isStalemate()) || (king(
-                currentPlayer()) != null && isInsufficientMaterial()) || isThreefoldRepetition() || isFivefoldRepetition() || isFiftyMoveRule();
+        return status().isDraw();
     }
 
     /**
-     * Check if the current player is in stalemate.
+     * Compute the status of the game for the current player. The legal moves are generated once and the check,
+     * checkmate, stalemate and draw rules are all derived from that single pass, so callers needing several of them
+     * should call this method once rather than the individual predicates.
      *
-     * @return True if the current player is in stalemate, false otherwise.
+     * @return The status of the game.
      */
-    private boolean isStalemate() {
-        return king(currentPlayer()).isInStalemate();
+    public GameStatus status() {
+        final var position = Position.of(this);
+        return status(position, MoveGenerator.legalMoves(position));
     }
 
     /**
-     * Check if the current position has been repeated three times throughout the history of the game.
+     * Compute the status of the game from legal moves already generated, so a caller that also needs the moves
+     * generates them only once.
      *
-     * @return True if the current position has been repeated three times, false otherwise.
+     * @param position   The position of the board, see {@link Position#of(Board)}.
+     * @param legalMoves The legal moves of the position.
+     * @return The status of the game.
      */
-    private boolean isThreefoldRepetition() {
-        return lastFullMove != null && moveHistory.stream().filter(lastFullMove::equals).count() >= 3;
+    public GameStatus status(Position position, MoveList legalMoves) {
+        final boolean kingPresent = position.king(position.sideToMove()) >= 0;
+        // Some type of draws depend on a king being present and others don't.
+        return new GameStatus(kingPresent, position.inCheck(), legalMoves.size(),
+                              isRepetition(), isFiftyMoveRule(),
+                              kingPresent && isInsufficientMaterial());
     }
 
     /**
-     * Check if the current position has been repeated five times during the last five fullmoves.
+     * Check if the current position occurred three times, which also covers the fivefold repetition. The history is
+     * scanned once.
      *
-     * @return True if the current position has been repeated five times, false otherwise.
+     * @return True if the current position has been repeated at least three times, false otherwise.
      */
-    private boolean isFivefoldRepetition() {
-        int size = moveHistory.size();
-        if (size < 11) {
-            return false;
-        }
-
-        FullMove lastMove = moveHistory.get(size - 1);
-        for (int i = 2; i <= 10; i += 2) {
-            if (!moveHistory.get(size - 1 - i).equals(lastMove)) {
-                return false;
-            }
-        }
-
-        return true;
+    private boolean isRepetition() {
+        return repetitionCount() >= 2;
     }
 
     /**
@@ -289,7 +475,7 @@ public class Board {
      * @return True if the fifty move rule has been reached, false otherwise.
      */
     private boolean isFiftyMoveRule() {
-        return halfMoveClock >= 50;
+        return halfMoveClock >= 100;
     }
 
     /**
@@ -298,55 +484,52 @@ public class Board {
      * @return True if the current position has insufficient material to checkmate, false otherwise.
      */
     private boolean isInsufficientMaterial() {
-        if (pieces().size() == 2 && pieces().containsValue(king(PlayerColor.WHITE)) && pieces().containsValue(
-                king(BLACK))) {
-            // King vs king
-            return true;
-        } else if (pieces().size() == 3 && pieces().containsValue(king(PlayerColor.WHITE)) && pieces().containsValue(
-                king(BLACK))) {
-            // King vs king and bishop
-            // King vs king and knight
-            return pieces().values()
-                           .stream()
-                           .anyMatch(piece -> piece.type() == PieceType.BISHOP) || pieces().values().stream()
-                                   .anyMatch(piece -> piece.type() == PieceType.KNIGHT);
-        } else if (pieces().size() == 4) {
-            // King and bishop vs king and bishop with the bishops on the same color.
-            if (pieces().values().stream()
-                        .allMatch(piece -> piece.type() == PieceType.BISHOP || piece.type() == PieceType.KING)) {
-                  HashMap<Square, Piece> bishops = pieces().entrySet().stream()
-                        .filter(entry -> entry.getValue().type() == PieceType.BISHOP)
-                        .collect(HashMap::new,(m, entry) -> m.put(entry.getKey(), entry.getValue()), HashMap::putAll);
-                if (bishops.size() == 2) {
-                    Piece bishop1 = bishops.values().stream().findFirst().orElse(null);
-                    Piece bishop2 = bishops.values().stream().skip(1).findFirst().orElse(null);
-                    Square bishop1Square = bishops.keySet().stream().findFirst().orElse(null);
-                    Square bishop2Square = bishops.keySet().stream().skip(1).findFirst().orElse(null);
-
-                    // Linter yells if we don't assert.
-                    assert bishop2 != null;
-                    assert bishop2Square != null;
-                    return bishop1.color() != bishop2.color() && bishop1Square.isLight() == bishop2Square.isLight();
-                }
+        if (pieceCount(PlayerColor.WHITE, PieceType.KING) != 1 || pieceCount(BLACK, PieceType.KING) != 1) {
+            return false;
+        }
+        int minors = 0, knights = 0;
+        for (var color : PlayerColor.values()) {
+            if (pieceCount(color, PieceType.PAWN) + pieceCount(color, PieceType.ROOK)
+                    + pieceCount(color, PieceType.QUEEN) > 0) {
+                return false;
             }
+            knights += pieceCount(color, PieceType.KNIGHT);
+            minors += pieceCount(color, PieceType.KNIGHT) + pieceCount(color, PieceType.BISHOP);
         }
-        return false;
+        // King vs king, king and a minor piece vs king, or only bishops that all stand on the same square color.
+        final int bishops = bishopMask(PlayerColor.WHITE) | bishopMask(BLACK);
+        return minors <= 1 || knights == 0 && bishops != 3;
     }
 
     /**
-     * Clone the board.
+     * Take an immutable snapshot of the position, which can be shared with other threads and played on without
+     * modifying the board.
+     *
+     * @return The snapshot.
+     */
+    public BoardSnapshot snapshot() {
+        return BoardSnapshot.of(this);
+    }
+
+    /**
+     * Clone the board. The pieces are recreated so they refer to the clone, which is independent of this board.
      *
      * @return The cloned board.
      */
     @Override
     public Board clone() {
         Board clone = new Board();
-        clone.setPieces((HashMap<Square, Piece>) pieces().clone());
+        final HashMap<Square, Piece> clonedPieces = new HashMap<>();
+        pieces().forEach((square, piece) -> clonedPieces.put(square, PieceFactory.createPiece(clone, piece.type(),
+                                                                                                piece.color())));
+        clone.setPieces(clonedPieces);
         clone.setEnPassantSquare(enPassantSquare());
         clone.setCurrentPlayer(currentPlayer());
         clone.castling = castling.clone();
         clone.halfMoveClock = halfMoveClock;
         clone.fullMoveCount = fullMoveCount;
+        clone.hashHistory = Arrays.copyOf(hashHistory, hashHistory.length);
+        clone.historySize = historySize;
         clone.setGameState(gameState());
         return clone;
     }
@@ -358,6 +541,13 @@ public class Board {
      */
     public void setPieces(HashMap<Square, Piece> pieces) {
         this.pieces = pieces;
+        for (int[] counts : pieceCounts) {
+            Arrays.fill(counts, 0);
+        }
+        Arrays.fill(lightBishops, 0);
+        Arrays.fill(darkBishops, 0);
+        piecesHash = 0;
+        pieces.forEach((square, piece) -> count(square, piece, 1));
     }
 
     /**
@@ -0,0 +1,60 @@
+package chess.engine.board;
+
+/**
+ * Status of the game for the player to move, computed in a single pass over the legal moves.
+ *
+ * @param kingPresent          Whether the player to move has a king. Variants without kings have no check, checkmate
+ *                             or stalemate.
+ * @param check                Whether the king of the player to move is attacked.
+ * @param legalMoves           The number of legal moves of the player to move.
+ * @param repetition           Whether the position was repeated enough times to end the game.
+ * @param fiftyMoves           Whether fifty full moves were played without a capture or a pawn advance.
+ * @param insufficientMaterial Whether neither player has enough material to checkmate.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record GameStatus(boolean kingPresent, boolean check, int legalMoves, boolean repetition, boolean fiftyMoves,
+                         boolean insufficientMaterial) {
+    /**
+     * Check if the player to move is checkmated.
+     *
+     * @return True if the player to move is in check and has no legal move.
+     */
+    public boolean isCheckmate() {
+        return check && legalMoves == 0;
+    }
+
+    /**
+     * Check if the player to move is stalemated.
+     *
+     * @return True if the player to move has a king that is not in check and has no legal move.
+     */
+    public boolean isStalemate() {
+        return kingPresent && !check && legalMoves == 0;
+    }
+
+    /**
+     * Check if the game is drawn.
+     *
+     * @return True if the game is drawn by stalemate, repetition, the fifty move rule or insufficient material.
+     */
+    public boolean isDraw() {
+        return !isCheckmate() && (isStalemate() || repetition || fiftyMoves || insufficientMaterial);
+    }
+
+    /**
+     * Get the game state matching the status.
+     *
+     * @return The game state.
+     */
+    public GameState gameState() {
+        if (isCheckmate()) {
+            return GameState.CHECKMATE;
+        } else if (isDraw()) {
+            return GameState.DRAW;
+        } else if (check) {
+            return GameState.CHECK;
+        }
+        return GameState.NORMAL;
+    }
+}
@@ -0,0 +1,325 @@
+package chess.engine.broadcast;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcast of the events of a game to its spectators. The events are lines of text, encoded once into an
+ * {@link EventRing} and sent as the same bytes to every spectator. Each spectator is served by its own virtual thread,
+ * which sends the events in order at the pace of its connection, so a slow spectator never delays the game or the
+ * others. A spectator more than {@code maxLag} events behind is dropped, and its connection closed so a send blocked
+ * on it fails.
+ * <p>
+ * An event is {@code <sequence> <text>}, the sequence numbers starting at 0, so a spectator can detect a gap. A new
+ * spectator first receives the last event published, which describes the whole position.
+ * <p>
+ * Only one thread may call {@link #publish(String)}.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Broadcast implements Closeable {
+    /**
+     * The connection of a spectator.
+     */
+    public interface Sink {
+        /**
+         * Send an event. May block until the connection accepts it.
+         *
+         * @param event The event, shared with the other spectators and not to be modified.
+         * @throws IOException If the connection is broken.
+         */
+        void send(byte[] event) throws IOException;
+
+        /**
+         * Flush the events sent, called when the spectator has caught up with the game.
+         *
+         * @throws IOException If the connection is broken.
+         */
+        default void flush() throws IOException {
+        }
+
+        /**
+         * Close the connection, once the spectator is dropped or the broadcast is closed. Called once, possibly from
+         * another thread while {@link #send(byte[])} is blocked, which must then fail.
+         *
+         * @throws IOException If the connection cannot be closed.
+         */
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * The time a spectator waits for an event before checking whether the broadcast is closed, in milliseconds.
+     */
+    private static final long POLL_MILLIS = 1000;
+
+    /**
+     * The events.
+     */
+    private final EventRing ring;
+
+    /**
+     * The number of events a spectator may fall behind before being dropped.
+     */
+    private final int maxLag;
+
+    /**
+     * The number of events between two checks of the lag of the spectators by the producer.
+     */
+    private final int checkInterval;
+
+    /**
+     * The connected spectators.
+     */
+    private final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of spectators dropped for being too slow.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Whether the broadcast is closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of events kept for the spectators that lag behind.
+     * @param maxLag   The number of events a spectator may fall behind, less than the capacity.
+     */
+    public Broadcast(int capacity, int maxLag) {
+        this.ring = new EventRing(capacity);
+        if (maxLag < 1 || maxLag >= ring.capacity()) {
+            throw new IllegalArgumentException("The maximum lag must be between 1 and " + (ring.capacity() - 1));
+        }
+        this.maxLag = maxLag;
+        this.checkInterval = Math.max(1, maxLag / 4);
+    }
+
+    /**
+     * Publish an event to all the spectators.
+     *
+     * @param text The text of the event, a single line.
+     * @return The sequence number of the event.
+     */
+    public long publish(String text) {
+        final long sequence = ring.published() + 1;
+        ring.publish((sequence + " " + text + "\n").getBytes(StandardCharsets.UTF_8));
+        if (sequence % checkInterval == 0) {
+            dropSlowSpectators(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Drop the spectators too far behind. Their threads may be blocked sending to a stalled connection, where they
+     * cannot check their lag themselves, so the producer checks it every {@code checkInterval} events.
+     *
+     * @param published The sequence number of the last event published.
+     */
+    private void dropSlowSpectators(long published) {
+        for (var spectator : spectators) {
+            final long behind = published - spectator.next;
+            if (behind >= maxLag && spectator.disconnect("slow consumer, " + behind + " events behind")) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Add a spectator, served from the last event published.
+     *
+     * @param sink The connection of the spectator.
+     * @return The spectator.
+     */
+    public Spectator subscribe(Sink sink) {
+        if (closed) {
+            throw new IllegalStateException("The broadcast is closed.");
+        }
+        final var spectator = new Spectator(sink, Math.max(0, ring.published()));
+        spectators.add(spectator);
+        spectator.thread = Thread.ofVirtual().name("spectator").start(() -> serve(spectator));
+        return spectator;
+    }
+
+    /**
+     * Send the events to a spectator until it is closed or dropped.
+     *
+     * @param spectator The spectator.
+     */
+    private void serve(Spectator spectator) {
+        try {
+            while (!closed && spectator.isConnected()) {
+                if (!ring.await(spectator.next, POLL_MILLIS)) {
+                    continue;
+                }
+                final long published = ring.published();
+                final byte[] event = ring.read(spectator.next);
+                if (published - spectator.next >= maxLag || event == null) {
+                    if (spectator.disconnect("slow consumer, " + (published - spectator.next) + " events behind")) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                }
+                spectator.sink.send(event);
+                spectator.next++;
+                if (spectator.next > ring.published()) {
+                    spectator.sink.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Keeps the reason if the connection was closed to disconnect the spectator.
+            spectator.disconnect("connection error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            spectator.disconnect("broadcast closed");
+            spectators.remove(spectator);
+        }
+    }
+
+    /**
+     * Get the number of connected spectators.
+     *
+     * @return The number of spectators.
+     */
+    public int spectators() {
+        return spectators.size();
+    }
+
+    /**
+     * Get the number of spectators dropped for being too slow.
+     *
+     * @return The number of dropped spectators.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the sequence number of the last event published.
+     *
+     * @return The sequence number, or -1 if no event was published.
+     */
+    public long published() {
+        return ring.published();
+    }
+
+    /**
+     * Close the broadcast and disconnect all the spectators.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        spectators.forEach(spectator -> spectator.disconnect("broadcast closed"));
+        ring.wakeUp();
+    }
+
+    /**
+     * A spectator of the broadcast.
+     */
+    public final class Spectator {
+        /**
+         * The connection.
+         */
+        private final Sink sink;
+
+        /**
+         * The sequence number of the next event to send. Only written by the thread of the spectator.
+         */
+        private volatile long next;
+
+        /**
+         * The reason the spectator was disconnected, or null while it is connected.
+         */
+        private volatile String closeReason;
+
+        /**
+         * The thread serving the spectator.
+         */
+        private Thread thread;
+
+        /**
+         * Constructor.
+         *
+         * @param sink  The connection.
+         * @param first The sequence number of the first event to send.
+         */
+        private Spectator(Sink sink, long first) {
+            this.sink = sink;
+            this.next = first;
+        }
+
+        /**
+         * Get the number of events published and not sent to the spectator yet.
+         *
+         * @return The lag, in events.
+         */
+        public long lag() {
+            return Math.max(0, ring.published() + 1 - next);
+        }
+
+        /**
+         * Check whether the spectator is still connected.
+         *
+         * @return True if the spectator is connected.
+         */
+        public boolean isConnected() {
+            return closeReason == null;
+        }
+
+        /**
+         * Get the reason the spectator was disconnected.
+         *
+         * @return The reason, or null while the spectator is connected.
+         */
+        public String closeReason() {
+            return closeReason;
+        }
+
+        /**
+         * Disconnect the spectator.
+         */
+        public void close() {
+            disconnect("closed");
+            ring.wakeUp();
+        }
+
+        /**
+         * Disconnect the spectator and close its connection, unless it is already disconnected.
+         *
+         * @param reason The reason of the disconnection.
+         * @return True if the spectator was connected.
+         */
+        private boolean disconnect(String reason) {
+            synchronized (this) {
+                if (closeReason != null) {
+                    return false;
+                }
+                closeReason = reason;
+            }
+            try {
+                sink.close();
+            } catch (IOException ignored) {
+                // The spectator is gone anyway.
+            }
+            return true;
+        }
+
+        /**
+         * Wait until the spectator is disconnected.
+         *
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         */
+        public void join() throws InterruptedException {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package chess.engine.broadcast;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Server of a {@link Broadcast} on a local TCP port. Every connection is a spectator that receives the events as lines
+ * of text until it disconnects or is dropped for being too slow; what it sends is ignored. The server only listens on
+ * the loopback address.
+ * <p>
+ * Example: {@code nc localhost 7777} prints the moves of the game.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BroadcastServer implements Closeable {
+    /**
+     * The size of the output buffer of a connection.
+     */
+    private static final int BUFFER_BYTES = 8192;
+
+    /**
+     * The broadcast served.
+     */
+    private final Broadcast broadcast;
+
+    /**
+     * The listening socket.
+     */
+    private final ServerSocket server;
+
+    /**
+     * Start the server.
+     *
+     * @param broadcast The broadcast to serve.
+     * @param port      The port, or 0 for any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public BroadcastServer(Broadcast broadcast, int port) throws IOException {
+        this.broadcast = broadcast;
+        this.server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("broadcast-server").start(this::accept);
+    }
+
+    /**
+     * Accept the connections until the server is closed.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                continue; // The server was closed, or the connection failed before it was accepted.
+            }
+            try {
+                socket.setTcpNoDelay(true);
+                socket.shutdownInput();
+                broadcast.subscribe(new SocketSink(socket));
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Broadcast connection failed: " + e.getMessage());
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // The connection is dropped anyway.
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Stop accepting spectators. The connected ones are disconnected when the broadcast is closed.
+     *
+     * @throws IOException If the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    /**
+     * The connection of a spectator over a socket.
+     */
+    private static final class SocketSink implements Broadcast.Sink {
+        /**
+         * The socket.
+         */
+        private final Socket socket;
+
+        /**
+         * The buffered output of the socket.
+         */
+        private final OutputStream out;
+
+        /**
+         * Constructor.
+         *
+         * @param socket The socket.
+         * @throws IOException If the output of the socket cannot be opened.
+         */
+        SocketSink(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES);
+        }
+
+        @Override
+        public void send(byte[] event) throws IOException {
+            out.write(event);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package chess.engine.broadcast;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ring buffer of events written by a single producer and read by any number of consumers, each at its own pace. The
+ * consumers keep their own sequence number, so publishing an event costs the same whatever their number, and an event
+ * is shared by all of them without being copied. The oldest events are overwritten when the ring is full: a consumer
+ * that falls a whole ring behind cannot read them any more and must be dropped.
+ * <p>
+ * Only one thread may call {@link #publish(byte[])}; the other methods are thread-safe.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class EventRing {
+    /**
+     * A published event with its sequence number, so a consumer can tell whether the slot was overwritten.
+     *
+     * @param sequence The sequence number.
+     * @param data     The event.
+     */
+    private record Entry(long sequence, byte[] data) {
+    }
+
+    /**
+     * The events, event {@code i} in slot {@code i & mask}.
+     */
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    /**
+     * The sequence number of the last published event, or -1.
+     */
+    private volatile long published = -1;
+
+    /**
+     * The consumers waiting for an event, woken by the producer only when there are some.
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition publishedCondition = lock.newCondition();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of events kept, rounded up to a power of two.
+     */
+    public EventRing(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publish an event, overwriting the oldest one if the ring is full. Must only be called by the producer.
+     *
+     * @param data The event, which must not be modified afterwards.
+     * @return The sequence number of the event.
+     */
+    public long publish(byte[] data) {
+        final long sequence = published + 1;
+        slots.setRelease((int) sequence & mask, new Entry(sequence, data));
+        published = sequence;
+        if (waiting.get() > 0) {
+            wakeUp();
+        }
+        return sequence;
+    }
+
+    /**
+     * Read an event.
+     *
+     * @param sequence The sequence number of the event.
+     * @return The event, or null if it is not published yet or was overwritten, which {@link #published()} tells apart.
+     */
+    public byte[] read(long sequence) {
+        final Entry entry = slots.getAcquire((int) sequence & mask);
+        return entry != null && entry.sequence() == sequence ? entry.data() : null;
+    }
+
+    /**
+     * Get the sequence number of the last published event.
+     *
+     * @return The sequence number, or -1 if no event was published.
+     */
+    public long published() {
+        return published;
+    }
+
+    /**
+     * Get the number of events kept.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Wait until an event is published.
+     *
+     * @param sequence The sequence number of the event.
+     * @param timeout  The maximum time to wait, in milliseconds.
+     * @return True if the event is published.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean await(long sequence, long timeout) throws InterruptedException {
+        if (published >= sequence) {
+            return true;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            while (published < sequence && remaining > 0) {
+                remaining = publishedCondition.awaitNanos(remaining);
+            }
+            return published >= sequence;
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wake up all the waiting consumers, for a new event or so they notice a shutdown.
+     */
+    void wakeUp() {
+        lock.lock();
+        try {
+            publishedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package chess.engine.nnue;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.Position;
+import chess.engine.search.Evaluation;
+import chess.engine.search.Evaluator;
+import chess.engine.tournament.Bench;
+import chess.engine.tournament.Openings;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmark of the evaluations. The legal move tree of each position is walked to a fixed depth, making and unmaking
+ * the moves as the search does, and every node is evaluated, so the incremental updates of the network are measured
+ * with the inference. The hand-crafted evaluation, the network with the scalar and SIMD inference, and the network
+ * recomputed from scratch at every node are compared in evaluations per second. The incremental accumulators are
+ * first checked against the ones computed from scratch.
+ * <p>
+ * Without a network file, a network of random weights is used, which is as fast as a trained one of the same size.
+ * <p>
+ * Usage: {@code EvalBench [--network net.bin] [--hidden 256] [--depth 3] [--millis 2000] [--positions file]}
+ * <p>
+ * The SIMD inference needs the {@code jdk.incubator.vector} module:
+ * {@code java --add-modules jdk.incubator.vector -cp ... chess.engine.nnue.EvalBench}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class EvalBench {
+    /**
+     * The sum of the evaluations, so the work cannot be optimised away.
+     */
+    private static long checksum = 0;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EvalBench() {
+    }
+
+    /**
+     * Run the benchmark from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws Exception If the network or the positions cannot be read.
+     */
+    public static void main(String[] args) throws Exception {
+        Network network = null;
+        int hidden = 256, depth = 3;
+        long millis = 2000;
+        List<String> positions = Bench.POSITIONS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--network" -> network = Network.load(Path.of(args[++i]));
+                case "--hidden" -> hidden = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--millis" -> millis = Long.parseLong(args[++i]);
+                case "--positions" -> positions = Openings.load(Path.of(args[++i]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (network == null) {
+            network = Network.random(hidden, 1);
+        }
+
+        final var simd = new NnueEvaluation(network);
+        final long mismatches = check(positions, depth, simd, new NnueEvaluation(network, false));
+        System.out.printf("Network %d hidden, SIMD %s, incremental check: %s%n", network.hidden(),
+                          simd.isSimd() ? "available" : "unavailable (scalar fallback)",
+                          mismatches == 0 ? "OK" : mismatches + " mismatches");
+
+        run("hand-crafted", new Evaluation(), positions, depth, millis, true);
+        run("nnue scalar", new NnueEvaluation(network, false), positions, depth, millis, true);
+        if (simd.isSimd()) {
+            run("nnue simd", simd, positions, depth, millis, true);
+        }
+        run("nnue refresh", new NnueEvaluation(network), positions, depth, millis, false);
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Measure the speed of an evaluation.
+     *
+     * @param name        The name printed.
+     * @param evaluator   The evaluation.
+     * @param positions   The positions.
+     * @param depth       The depth of the walk.
+     * @param millis      The minimum duration of the measure.
+     * @param incremental Whether the evaluation is attached to the position, or computed from scratch.
+     */
+    private static void run(String name, Evaluator evaluator, List<String> positions, int depth, long millis,
+                            boolean incremental) {
+        walkAll(evaluator, positions, depth, incremental); // Warm up.
+        long evaluations = 0;
+        final long start = System.nanoTime(), end = start + millis * 1_000_000;
+        do {
+            evaluations += walkAll(evaluator, positions, depth, incremental);
+        } while (System.nanoTime() < end);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-14s %12d evals  %8.2f s  %12.0f evals/s%n", name, evaluations, seconds,
+                          evaluations / seconds);
+    }
+
+    /**
+     * Walk the move tree of every position.
+     *
+     * @param evaluator   The evaluation.
+     * @param positions   The positions.
+     * @param depth       The depth of the walk.
+     * @param incremental Whether the evaluation is attached to the position.
+     * @return The number of evaluations.
+     */
+    private static long walkAll(Evaluator evaluator, List<String> positions, int depth, boolean incremental) {
+        long evaluations = 0;
+        for (var fen : positions) {
+            final var position = Position.fromFen(fen);
+            if (incremental) {
+                evaluator.attach(position);
+            }
+            evaluations += walk(position, evaluator, null, depth);
+            evaluator.detach(position);
+        }
+        return evaluations;
+    }
+
+    /**
+     * Count the positions whose incremental evaluation differs from the evaluation computed from scratch.
+     *
+     * @param positions   The positions.
+     * @param depth       The depth of the walk.
+     * @param incremental The evaluation attached to the position.
+     * @param reference   The evaluation computed from scratch.
+     * @return The number of mismatches.
+     */
+    private static long check(List<String> positions, int depth, Evaluator incremental, Evaluator reference) {
+        final long[] mismatches = {0};
+        for (var fen : positions) {
+            final var position = Position.fromFen(fen);
+            incremental.attach(position);
+            walk(position, incremental, score -> {
+                if (score != reference.evaluate(position)) {
+                    mismatches[0]++;
+                }
+            }, depth);
+            incremental.detach(position);
+        }
+        return mismatches[0];
+    }
+
+    /**
+     * Evaluate every node of the legal move tree of a position.
+     *
+     * @param position  The position.
+     * @param evaluator The evaluation.
+     * @param listener  The listener of the scores, or null.
+     * @param depth     The remaining depth.
+     * @return The number of evaluations.
+     */
+    private static long walk(Position position, Evaluator evaluator, IntConsumer listener, int depth) {
+        final int score = evaluator.evaluate(position);
+        checksum += score;
+        if (listener != null) {
+            listener.accept(score);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        long evaluations = 1;
+        final var moves = MoveGenerator.legalMoves(position);
+        for (int i = 0; i < moves.size(); i++) {
+            position.make(moves.get(i));
+            evaluations += walk(position, evaluator, listener, depth - 1);
+            position.unmake();
+        }
+        return evaluations;
+    }
+}
@@ -0,0 +1,53 @@
+package chess.engine.nnue;
+
+/**
+ * Dense operations of the network inference. The SIMD implementation using the incubating Vector API is used when
+ * the {@code jdk.incubator.vector} module is available (run with {@code --add-modules jdk.incubator.vector}), the
+ * scalar one otherwise.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+interface Layers {
+    /**
+     * Add a row of weights to an accumulator.
+     *
+     * @param accumulator The accumulator.
+     * @param weights     The weights.
+     * @param offset      The offset of the row in the weights, of the size of the accumulator.
+     */
+    void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Subtract a row of weights from an accumulator.
+     *
+     * @param accumulator The accumulator.
+     * @param weights     The weights.
+     * @param offset      The offset of the row in the weights, of the size of the accumulator.
+     */
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Compute the output neuron before scaling: the squared clipped ReLU of each accumulator value multiplied by its
+     * output weight, summed over both accumulators.
+     *
+     * @param us      The accumulator of the side to move.
+     * @param them    The accumulator of the other side.
+     * @param weights The output weights of the side to move, then of the other side.
+     * @return The sum, in units of 1 / (QA * QA * QB).
+     */
+    int output(short[] us, short[] them, short[] weights);
+
+    /**
+     * Get the fastest implementation available.
+     *
+     * @return The SIMD implementation if the Vector API is available, the scalar one otherwise.
+     */
+    static Layers best() {
+        try {
+            return (Layers) Class.forName("chess.engine.nnue.VectorLayers").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarLayers();
+        }
+    }
+}
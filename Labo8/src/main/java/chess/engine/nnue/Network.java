@@ -0,0 +1,172 @@
+package chess.engine.nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Weights of an efficiently updatable neural network (NNUE) with a single hidden layer: 768 binary inputs (the piece
+ * type and color on each square, from the point of view of one side), a hidden layer of the same weights for each
+ * point of view, and an output neuron reading the hidden layer of the side to move then the one of the other side
+ * through a squared clipped ReLU.
+ * <p>
+ * The weights are quantised: the hidden layer is computed in units of 1/{@link #QA} and the output weights are in
+ * units of 1/{@link #QB}. The file format is the one of the common training tools for this architecture: the input
+ * weights (input major), the hidden biases, the output weights and the output bias, all as little-endian 16-bit
+ * integers, possibly padded. The size of the hidden layer is deduced from the size of the file.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Network {
+    /**
+     * The number of inputs: 2 colors, 6 piece types and 64 squares.
+     */
+    public static final int INPUTS = 768;
+
+    /**
+     * The quantisation of the hidden layer and of the output weights.
+     */
+    public static final int QA = 255, QB = 64;
+
+    /**
+     * The scale from the output of the network to centipawns.
+     */
+    public static final int SCALE = 400;
+
+    /**
+     * The index of each piece type in the inputs, indexed by piece type.
+     */
+    private static final int[] TYPE_INDEX = {0, 0, 3, 1, 2, 4, 5};
+
+    /**
+     * The size of the hidden layer.
+     */
+    final int hidden;
+
+    /**
+     * The input weights, the hidden weights of input i starting at i * hidden.
+     */
+    final short[] inputWeights;
+
+    /**
+     * The biases of the hidden layer.
+     */
+    final short[] hiddenBiases;
+
+    /**
+     * The output weights: those of the side to move, then those of the other side.
+     */
+    final short[] outputWeights;
+
+    /**
+     * The bias of the output.
+     */
+    final short outputBias;
+
+    /**
+     * Constructor.
+     *
+     * @param hidden        The size of the hidden layer.
+     * @param inputWeights  The input weights.
+     * @param hiddenBiases  The biases of the hidden layer.
+     * @param outputWeights The output weights.
+     * @param outputBias    The bias of the output.
+     */
+    private Network(int hidden, short[] inputWeights, short[] hiddenBiases, short[] outputWeights, short outputBias) {
+        this.hidden = hidden;
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Load a network from a file.
+     *
+     * @param path The file.
+     * @return The network.
+     * @throws IOException If the file cannot be read or is too small.
+     */
+    public static Network load(Path path) throws IOException {
+        final ShortBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN)
+                                             .asShortBuffer();
+        // The file holds INPUTS * hidden + hidden + 2 * hidden + 1 values, possibly followed by padding.
+        final int hidden = (buffer.remaining() - 1) / (INPUTS + 3);
+        if (hidden == 0) {
+            throw new IOException("Network file too small: " + path);
+        }
+        final short[] inputWeights = new short[INPUTS * hidden];
+        final short[] hiddenBiases = new short[hidden];
+        final short[] outputWeights = new short[2 * hidden];
+        buffer.get(inputWeights).get(hiddenBiases).get(outputWeights);
+        return new Network(hidden, inputWeights, hiddenBiases, outputWeights, buffer.get());
+    }
+
+    /**
+     * Create a network of random weights, to measure the speed of the inference without a trained network.
+     *
+     * @param hidden The size of the hidden layer.
+     * @param seed   The seed of the weights.
+     * @return The network.
+     */
+    public static Network random(int hidden, long seed) {
+        final var random = new Random(seed);
+        final short[] inputWeights = new short[INPUTS * hidden];
+        final short[] hiddenBiases = new short[hidden];
+        final short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        for (int i = 0; i < hidden; i++) {
+            hiddenBiases[i] = (short) random.nextInt(QA / 2);
+        }
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        return new Network(hidden, inputWeights, hiddenBiases, outputWeights, (short) 0);
+    }
+
+    /**
+     * Write the network in the format read by {@link #load(Path)}.
+     *
+     * @param path The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        final var bytes = ByteBuffer.allocate(2 * (inputWeights.length + 3 * hidden + 1))
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asShortBuffer().put(inputWeights).put(hiddenBiases).put(outputWeights).put(outputBias);
+        Files.write(path, bytes.array());
+    }
+
+    /**
+     * Get the size of the hidden layer.
+     *
+     * @return The number of hidden neurons of each point of view.
+     */
+    public int hidden() {
+        return hidden;
+    }
+
+    /**
+     * Get the offset of the input weights of a piece on a square, from the point of view of a side. The board is
+     * mirrored vertically for black, so both sides see their own pieces first and on their own side of the board.
+     *
+     * @param perspective The color of the point of view.
+     * @param piece       The piece code.
+     * @param square      The square index.
+     * @return The offset of the weights in {@link #inputWeights}.
+     */
+    int inputOffset(int perspective, int piece, int square) {
+        final int side = color(piece) == perspective ? 0 : 1;
+        final int relative = perspective == WHITE ? square : square ^ 56;
+        return ((side * 6 + TYPE_INDEX[type(piece)]) * 64 + relative) * hidden;
+    }
+}
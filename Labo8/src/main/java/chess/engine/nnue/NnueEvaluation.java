@@ -0,0 +1,171 @@
+package chess.engine.nnue;
+
+import chess.engine.position.PieceObserver;
+import chess.engine.position.Position;
+import chess.engine.search.Evaluator;
+import chess.engine.search.Search;
+
+import java.util.Arrays;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Neural network evaluation. The hidden layer of each point of view, the accumulator, is the sum of the input weights
+ * of the pieces on the board: instead of being computed for every evaluation, it is updated incrementally when the
+ * position is attached, by subtracting the weights of the pieces removed and adding those of the pieces added by each
+ * move. The accumulators are kept in a stack, so unmaking a move only pops it.
+ * <p>
+ * An instance follows a single position at a time and is not thread-safe.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class NnueEvaluation implements Evaluator, PieceObserver {
+    /**
+     * The initial depth of the accumulator stack.
+     */
+    private static final int INITIAL_DEPTH = 160;
+
+    /**
+     * The bound of the scores, below the mate scores.
+     */
+    private static final int MAX_SCORE = Search.MATE - Search.MAX_PLY - 1;
+
+    /**
+     * The network.
+     */
+    private final Network network;
+
+    /**
+     * The dense operations.
+     */
+    private final Layers layers;
+
+    /**
+     * The accumulator stack, indexed by depth and the color of the point of view.
+     */
+    private short[][][] accumulators;
+
+    /**
+     * The index of the accumulator of the current position, or -1 if no position is attached.
+     */
+    private int top = -1;
+
+    /**
+     * Constructor, with the SIMD inference if available.
+     *
+     * @param network The network.
+     */
+    public NnueEvaluation(Network network) {
+        this(network, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param network The network.
+     * @param simd    Whether to use the SIMD inference if available, or always the scalar one.
+     */
+    public NnueEvaluation(Network network, boolean simd) {
+        this.network = network;
+        this.layers = simd ? Layers.best() : new ScalarLayers();
+        this.accumulators = new short[INITIAL_DEPTH][2][network.hidden];
+    }
+
+    /**
+     * Check whether the inference uses the Vector API.
+     *
+     * @return True if the SIMD implementation is used.
+     */
+    public boolean isSimd() {
+        return !(layers instanceof ScalarLayers);
+    }
+
+    @Override
+    public void attach(Position position) {
+        refresh(position);
+        position.setObserver(this);
+    }
+
+    @Override
+    public void detach(Position position) {
+        position.setObserver(null);
+        top = -1;
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        if (top < 0) {
+            // Not attached: compute the accumulators from scratch.
+            refresh(position);
+            top = -1;
+            return output(accumulators[0], position.sideToMove());
+        }
+        return output(accumulators[top], position.sideToMove());
+    }
+
+    /**
+     * Compute the accumulators of a position from scratch, as the bottom of the stack.
+     *
+     * @param position The position.
+     */
+    public void refresh(Position position) {
+        top = 0;
+        final short[][] accumulator = accumulators[0];
+        for (int perspective = WHITE; perspective <= BLACK; perspective++) {
+            System.arraycopy(network.hiddenBiases, 0, accumulator[perspective], 0, network.hidden);
+        }
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece != EMPTY) {
+                added(square, piece);
+            }
+        }
+    }
+
+    @Override
+    public void push() {
+        if (top + 1 == accumulators.length) {
+            final int depth = accumulators.length;
+            accumulators = Arrays.copyOf(accumulators, depth * 2);
+            for (int i = depth; i < accumulators.length; i++) {
+                accumulators[i] = new short[2][network.hidden];
+            }
+        }
+        final short[][] from = accumulators[top], to = accumulators[++top];
+        System.arraycopy(from[WHITE], 0, to[WHITE], 0, network.hidden);
+        System.arraycopy(from[BLACK], 0, to[BLACK], 0, network.hidden);
+    }
+
+    @Override
+    public void pop() {
+        top--;
+    }
+
+    @Override
+    public void added(int square, int piece) {
+        final short[][] accumulator = accumulators[top];
+        layers.add(accumulator[WHITE], network.inputWeights, network.inputOffset(WHITE, piece, square));
+        layers.add(accumulator[BLACK], network.inputWeights, network.inputOffset(BLACK, piece, square));
+    }
+
+    @Override
+    public void removed(int square, int piece) {
+        final short[][] accumulator = accumulators[top];
+        layers.subtract(accumulator[WHITE], network.inputWeights, network.inputOffset(WHITE, piece, square));
+        layers.subtract(accumulator[BLACK], network.inputWeights, network.inputOffset(BLACK, piece, square));
+    }
+
+    /**
+     * Compute the output of the network.
+     *
+     * @param accumulator The accumulators of the position.
+     * @param side        The side to move.
+     * @return The score in centipawns, from the point of view of the side to move, bounded below the mate scores.
+     */
+    private int output(short[][] accumulator, int side) {
+        final int sum = layers.output(accumulator[side], accumulator[side ^ 1], network.outputWeights);
+        final long score = (long) (sum / Network.QA + network.outputBias) * Network.SCALE / (Network.QA * Network.QB);
+        return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+}
@@ -0,0 +1,46 @@
+package chess.engine.nnue;
+
+/**
+ * Scalar implementation of the dense operations of the network, used when the Vector API is not available.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+final class ScalarLayers implements Layers {
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int output(short[] us, short[] them, short[] weights) {
+        final int hidden = us.length;
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            // The product with the weight is truncated to 16 bits, as in the SIMD implementation.
+            final int u = clamp(us[i]), t = clamp(them[i]);
+            sum += (short) (u * weights[i]) * u;
+            sum += (short) (t * weights[hidden + i]) * t;
+        }
+        return sum;
+    }
+
+    /**
+     * Clip a hidden value to [0, QA].
+     *
+     * @param value The value.
+     * @return The clipped value.
+     */
+    private static int clamp(short value) {
+        return Math.min(Math.max(value, 0), Network.QA);
+    }
+}
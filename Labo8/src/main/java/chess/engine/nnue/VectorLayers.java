@@ -0,0 +1,86 @@
+package chess.engine.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the dense operations of the network with the incubating Vector API. Only loaded through
+ * {@link Layers#best()}, so the rest of the engine works without the {@code jdk.incubator.vector} module.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+final class VectorLayers implements Layers {
+    /**
+     * The widest vector shape of the platform, for 16-bit and 32-bit lanes.
+     */
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = SHORTS.withLanes(int.class);
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        final int bound = SHORTS.loopBound(accumulator.length);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                       .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                       .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        final int bound = SHORTS.loopBound(accumulator.length);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                       .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                       .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int output(short[] us, short[] them, short[] weights) {
+        final int hidden = us.length;
+        final int bound = SHORTS.loopBound(hidden);
+        IntVector sum = IntVector.zero(INTS);
+        for (int i = 0; i < bound; i += SHORTS.length()) {
+            sum = screlu(sum, ShortVector.fromArray(SHORTS, us, i), ShortVector.fromArray(SHORTS, weights, i));
+            sum = screlu(sum, ShortVector.fromArray(SHORTS, them, i),
+                         ShortVector.fromArray(SHORTS, weights, hidden + i));
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (int i = bound; i < hidden; i++) {
+            final int u = Math.min(Math.max(us[i], 0), Network.QA), t = Math.min(Math.max(them[i], 0), Network.QA);
+            result += (short) (u * weights[i]) * u + (short) (t * weights[hidden + i]) * t;
+        }
+        return result;
+    }
+
+    /**
+     * Accumulate the squared clipped ReLU of hidden values multiplied by their weights. The clipped value times the
+     * weight fits 16 bits, so it is computed on the full vector before widening to 32 bits for the second factor.
+     *
+     * @param sum     The sum so far.
+     * @param values  The hidden values.
+     * @param weights The output weights.
+     * @return The new sum.
+     */
+    private static IntVector screlu(IntVector sum, ShortVector values, ShortVector weights) {
+        final ShortVector clipped = values.max((short) 0).min((short) Network.QA);
+        final ShortVector product = clipped.mul(weights);
+        for (int part = 0; part < 2; part++) {
+            final var wide = (IntVector) product.convert(VectorOperators.S2I, part);
+            sum = sum.add(wide.mul((IntVector) clipped.convert(VectorOperators.S2I, part)));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,264 @@
+package chess.engine.perft;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel perft. The subtrees of the root and near-root moves are counted as tasks of a fork/join pool, each on its
+ * own copy of the position, and all the threads share a {@link PerftTable}, so the transpositions found by one thread
+ * are not counted again by the others.
+ * <p>
+ * Usage: {@code ParallelPerft [--fen fen] [--depth 6] [--threads 8] [--hash 256] [--split 2] [--divide] [--compare]
+ * [--suite perftsuite.epd]}
+ * <p>
+ * {@code --compare} also counts the tree on a single thread without the table and prints the speedup. A suite has
+ * one position per line with the expected counts as EPD operations, e.g. {@code <fen> ;D1 20 ;D2 400}; every count
+ * up to {@code --depth} is checked.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class ParallelPerft {
+    /**
+     * The depth under which a subtree is not split further, as its tasks would cost more than they save.
+     */
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    /**
+     * The minimum duration of the warm-up before a comparison, in nanoseconds.
+     */
+    private static final long WARM_UP_NANOS = 2_000_000_000L;
+
+    /**
+     * The pool.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The shared table of the subtrees.
+     */
+    private final PerftTable table;
+
+    /**
+     * The number of plies from the root whose moves are split into tasks.
+     */
+    private final int splitPlies;
+
+    /**
+     * Constructor.
+     *
+     * @param threads    The number of threads.
+     * @param table      The shared table of the subtrees, or null.
+     * @param splitPlies The number of plies from the root whose moves are split into tasks.
+     */
+    public ParallelPerft(int threads, PerftTable table, int splitPlies) {
+        if (threads < 1 || splitPlies < 1) {
+            throw new IllegalArgumentException("The number of threads and of split plies must be positive.");
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.table = table;
+        this.splitPlies = splitPlies;
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     *
+     * @param position The position. It is not modified.
+     * @param depth    The depth.
+     * @return The number of leaf nodes.
+     */
+    public long count(Position position, int depth) {
+        return pool.invoke(new Subtree(new Position(position), depth, 0));
+    }
+
+    /**
+     * Count the leaf nodes of the subtree of each legal move.
+     *
+     * @param position The position. It is not modified.
+     * @param depth    The depth, at least 1.
+     * @return The UCI notation of each move and the count of its subtree, in the order of the generator.
+     */
+    public List<String> divide(Position position, int depth) {
+        final var moves = MoveGenerator.legalMoves(position);
+        final List<Subtree> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            final var child = new Position(position);
+            child.make(moves.get(i));
+            tasks.add(new Subtree(child, depth - 1, 1));
+        }
+        final List<String> lines = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            lines.add(Moves.uci(moves.get(i)) + ": " + pool.invoke(tasks.get(i)));
+        }
+        return lines;
+    }
+
+    /**
+     * Forget the counted subtrees.
+     */
+    public void clear() {
+        if (table != null) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Stop the threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Count of a subtree: split into a task per move near the root, counted sequentially below.
+     */
+    @SuppressWarnings("serial") // The tasks are never serialized.
+    private final class Subtree extends RecursiveTask<Long> {
+        private final Position position;
+        private final int depth, ply;
+
+        private Subtree(Position position, int depth, int ply) {
+            this.position = position;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply >= splitPlies || depth < MIN_SPLIT_DEPTH) {
+                return new Perft(table).count(position, depth);
+            }
+            if (table != null) {
+                final long cached = table.probe(position.hash(), depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            final MoveList moves = MoveGenerator.legalMoves(position);
+            final List<Subtree> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                final var child = new Position(position);
+                child.make(moves.get(i));
+                children.add(new Subtree(child, depth - 1, ply + 1));
+            }
+            long nodes = 0;
+            for (var child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            if (table != null) {
+                table.store(position.hash(), depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Run a perft from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws IOException If the suite cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        String fen = Position.START_FEN;
+        Path suite = null;
+        int depth = 6, threads = Runtime.getRuntime().availableProcessors(), hash = 256, split = 2;
+        boolean divide = false, compare = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen" -> fen = args[++i];
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--split" -> split = Integer.parseInt(args[++i]);
+                case "--divide" -> divide = true;
+                case "--compare" -> compare = true;
+                case "--suite" -> suite = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        final var perft = new ParallelPerft(threads, hash > 0 ? new PerftTable(hash) : null, split);
+        try {
+            if (suite != null) {
+                runSuite(perft, suite, depth);
+                return;
+            }
+            final var position = Position.fromFen(fen);
+            if (divide) {
+                perft.divide(position, depth).forEach(System.out::println);
+            }
+            if (compare) {
+                // Compile the move generator before measuring either side, then forget the warm-up subtrees.
+                final long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+                do {
+                    perft.count(position, Math.min(depth, 5));
+                    new Perft(null).count(position, Math.min(depth, 5));
+                    perft.clear();
+                } while (System.nanoTime() < warmUpEnd);
+            }
+            long start = System.nanoTime();
+            final long nodes = perft.count(position, depth);
+            final long parallel = System.nanoTime() - start;
+            System.out.printf("perft(%d) = %d  %d threads  %.3f s  %.0f nodes/s%n", depth, nodes, threads,
+                              parallel / 1e9, nodes / (parallel / 1e9));
+            if (compare) {
+                start = System.nanoTime();
+                final long single = new Perft(null).count(position, depth);
+                final long elapsed = System.nanoTime() - start;
+                System.out.printf("single thread  %d  %.3f s  %.0f nodes/s  speedup %.2fx%s%n", single, elapsed / 1e9,
+                                  single / (elapsed / 1e9), (double) elapsed / parallel,
+                                  single == nodes ? "" : "  MISMATCH");
+            }
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    /**
+     * Check the counts of a perft suite.
+     *
+     * @param perft    The perft.
+     * @param suite    The path of the suite.
+     * @param maxDepth The maximum depth checked.
+     * @throws IOException If the suite cannot be read.
+     */
+    private static void runSuite(ParallelPerft perft, Path suite, int maxDepth) throws IOException {
+        int positions = 0, failures = 0;
+        long nodes = 0;
+        final long start = System.nanoTime();
+        for (var line : Files.readAllLines(suite)) {
+            final String[] fields = line.split(";");
+            if (line.isBlank() || line.startsWith("#") || fields.length < 2) {
+                continue;
+            }
+            final var position = Position.fromFen(fields[0].trim());
+            positions++;
+            for (int i = 1; i < fields.length; i++) {
+                final String[] operation = fields[i].trim().split("\\s+");
+                final int depth = Integer.parseInt(operation[0].substring(1));
+                if (depth > maxDepth) {
+                    continue;
+                }
+                final long expected = Long.parseLong(operation[1]), count = perft.count(position, depth);
+                nodes += count;
+                if (count != expected) {
+                    failures++;
+                    System.out.printf("FAIL %s depth %d: %d, expected %d%n", fields[0].trim(), depth, count, expected);
+                }
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d positions, %d failures, %d nodes in %.2f s, %.0f nodes/s%n", positions, failures, nodes,
+                          seconds, nodes / seconds);
+    }
+}
@@ -0,0 +1,87 @@
+package chess.engine.perft;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Position;
+
+import java.util.Arrays;
+
+/**
+ * Perft: count of the leaf nodes of the legal move tree of a position up to a given depth, the usual check of a move
+ * generator. The moves are made and unmade on the position, the last level is counted without making its moves, and
+ * the subtrees can be cached in a {@link PerftTable}.
+ * <p>
+ * An instance keeps one move list per depth and is not thread-safe; the table can be shared.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Perft {
+    /**
+     * The move lists, indexed by remaining depth.
+     */
+    private MoveList[] moves = new MoveList[0];
+
+    /**
+     * The table of the subtrees, or null.
+     */
+    private final PerftTable table;
+
+    /**
+     * Constructor.
+     *
+     * @param table The table of the subtrees, or null to count every subtree.
+     */
+    public Perft(PerftTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     *
+     * @param position The position. It is unchanged when the count returns.
+     * @param depth    The depth.
+     * @return The number of leaf nodes.
+     */
+    public long count(Position position, int depth) {
+        if (depth >= moves.length) {
+            final int length = moves.length;
+            moves = Arrays.copyOf(moves, depth + 1);
+            for (int i = length; i <= depth; i++) {
+                moves[i] = new MoveList();
+            }
+        }
+        return depth == 0 ? 1 : walk(position, depth);
+    }
+
+    /**
+     * Count the leaf nodes of a subtree.
+     *
+     * @param position The position.
+     * @param depth    The remaining depth, at least 1.
+     * @return The number of leaf nodes.
+     */
+    private long walk(Position position, int depth) {
+        if (depth > 1 && table != null) {
+            final long cached = table.probe(position.hash(), depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        final MoveList list = moves[depth];
+        MoveGenerator.legalMoves(position, list);
+        if (depth == 1) {
+            return list.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            position.make(list.get(i));
+            nodes += walk(position, depth - 1);
+            position.unmake();
+        }
+        if (table != null) {
+            table.store(position.hash(), depth, nodes);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,104 @@
+package chess.engine.perft;
+
+import java.util.Arrays;
+
+/**
+ * Table of the leaf counts of the subtrees already counted, keyed by the hash of the position and the depth, shared
+ * by the threads of a parallel perft without locks. Each entry is stored as the key xor the data and the data, so an
+ * entry written by two threads at once, or a torn read, fails the key check and is only a miss.
+ * <p>
+ * The slots are grouped by two: the first one keeps the deepest subtree, the second one the most recent.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PerftTable {
+    /**
+     * The bits of the data holding the count, the depth is stored above them.
+     */
+    private static final int COUNT_BITS = 56;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * The keys xor the data and the data of the entries, interleaved, two slots per bucket.
+     */
+    private final long[] entries;
+
+    /**
+     * The mask to apply to a hash to get the index of its bucket.
+     */
+    private final int mask;
+
+    /**
+     * Constructor.
+     *
+     * @param megabytes The size of the table in megabytes. Rounded down to a power of two number of buckets.
+     */
+    public PerftTable(int megabytes) {
+        long buckets = Math.max(1024, (long) megabytes * 1024 * 1024 / 32);
+        int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 26));
+        this.entries = new long[size * 4];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Look up a subtree.
+     *
+     * @param hash  The hash of the position.
+     * @param depth The depth of the subtree.
+     * @return The number of leaf nodes, or -1 if the subtree is not in the table.
+     */
+    public long probe(long hash, int depth) {
+        final long key = key(hash, depth);
+        final int index = ((int) key & mask) << 2;
+        for (int slot = index; slot < index + 4; slot += 2) {
+            final long data = entries[slot + 1];
+            if ((entries[slot] ^ data) == key && data != 0) {
+                return data & COUNT_MASK;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Store the count of a subtree.
+     *
+     * @param hash  The hash of the position.
+     * @param depth The depth of the subtree.
+     * @param count The number of leaf nodes.
+     */
+    public void store(long hash, int depth, long count) {
+        if (count > COUNT_MASK) {
+            return;
+        }
+        final long key = key(hash, depth);
+        final int index = ((int) key & mask) << 2;
+        final long data = count | (long) depth << COUNT_BITS;
+        // Keep the deepest subtree in the first slot, move the one it replaces to the second.
+        final int slot = depth >= entries[index + 1] >>> COUNT_BITS ? index : index + 2;
+        if (slot == index) {
+            entries[index + 2] = entries[index];
+            entries[index + 3] = entries[index + 1];
+        }
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+
+    /**
+     * Clear the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Mix the depth into the hash of the position, so the counts of each depth have their own key.
+     *
+     * @param hash  The hash of the position.
+     * @param depth The depth.
+     * @return The key.
+     */
+    private static long key(long hash, int depth) {
+        return hash ^ depth * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,109 @@
+package chess.engine.position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed attack tables. Computing the target squares once per square avoids re-validating board coordinates
+ * in the move generator and in the attack detection.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Attacks {
+    /**
+     * Number of ray directions. The first four are orthogonal and the last four are diagonal.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * The x and y offsets of the ray directions: N, S, E, W, NE, NW, SE, SW.
+     */
+    private static final int[][] DIRECTION_OFFSETS = {
+            {0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}
+    };
+
+    /**
+     * The squares a knight attacks from each square.
+     */
+    public static final int[][] KNIGHT = new int[64][];
+
+    /**
+     * The squares a king attacks from each square.
+     */
+    public static final int[][] KING = new int[64][];
+
+    /**
+     * The squares a pawn of each color attacks from each square.
+     */
+    public static final int[][][] PAWN = new int[2][64][];
+
+    /**
+     * The rays from each square in each direction, ordered from the nearest square to the edge of the board.
+     */
+    public static final int[][][] RAYS = new int[64][DIRECTIONS][];
+
+    static {
+        final int[][] knightOffsets = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        for (int square = 0; square < 64; square++) {
+            int x = square % 8, y = square / 8;
+            KNIGHT[square] = targets(x, y, knightOffsets);
+            KING[square] = targets(x, y, DIRECTION_OFFSETS);
+            PAWN[Pieces.WHITE][square] = targets(x, y, new int[][]{{-1, 1}, {1, 1}});
+            PAWN[Pieces.BLACK][square] = targets(x, y, new int[][]{{-1, -1}, {1, -1}});
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                List<Integer> ray = new ArrayList<>();
+                int dx = DIRECTION_OFFSETS[direction][0], dy = DIRECTION_OFFSETS[direction][1];
+                for (int tx = x + dx, ty = y + dy; onBoard(tx, ty); tx += dx, ty += dy) {
+                    ray.add(ty * 8 + tx);
+                }
+                RAYS[square][direction] = ray.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Attacks() {
+    }
+
+    /**
+     * Check whether a direction is diagonal.
+     *
+     * @param direction The direction index.
+     * @return True if the direction is diagonal, false if it is orthogonal.
+     */
+    public static boolean isDiagonal(int direction) {
+        return direction >= 4;
+    }
+
+    /**
+     * Compute the valid target squares of a set of offsets.
+     *
+     * @param x       The x coordinate of the origin.
+     * @param y       The y coordinate of the origin.
+     * @param offsets The offsets to apply.
+     * @return The target square indexes.
+     */
+    private static int[] targets(int x, int y, int[][] offsets) {
+        List<Integer> targets = new ArrayList<>();
+        for (var offset : offsets) {
+            if (onBoard(x + offset[0], y + offset[1])) {
+                targets.add((y + offset[1]) * 8 + x + offset[0]);
+            }
+        }
+        return targets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Check whether coordinates are on the board.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the coordinates are on the board.
+     */
+    private static boolean onBoard(int x, int y) {
+        return x >= 0 && x < 8 && y >= 0 && y < 8;
+    }
+}
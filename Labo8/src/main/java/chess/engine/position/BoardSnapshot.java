@@ -0,0 +1,251 @@
+package chess.engine.position;
+
+import chess.engine.board.Board;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Immutable snapshot of a position, safe to share between threads. A move creates a new snapshot and leaves the
+ * original untouched, so many analysis threads can branch from one position without copying it or locking.
+ * <p>
+ * The pieces are stored as one 4-bit code per square, two ranks per long, so a move copies the 32 bytes of the
+ * placement and rewrites only the ranks it changes; the rest of the state is a handful of fields. Each snapshot links
+ * to the snapshot it was played from, which shares the game history between all the branches and gives the
+ * repetitions without copying it. The link is cut by the captures and pawn moves, since no position before them can
+ * repeat.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class BoardSnapshot {
+    /**
+     * The piece codes, square {@code i} in bits {@code 4 * (i % 16)} of the long {@code i / 16}. Never modified.
+     */
+    private final long[] placement;
+
+    /**
+     * The state of the position.
+     */
+    private final int sideToMove, castling, enPassant, halfMoveClock, fullMoveNumber;
+
+    /**
+     * The Zobrist hash, equal to the one of the same position in {@link Position}.
+     */
+    private final long hash;
+
+    /**
+     * The snapshot the move was played from, or null if there is no previous position that can repeat.
+     */
+    private final BoardSnapshot parent;
+
+    /**
+     * Constructor.
+     */
+    private BoardSnapshot(long[] placement, int sideToMove, int castling, int enPassant, int halfMoveClock,
+                          int fullMoveNumber, long hash, BoardSnapshot parent) {
+        this.placement = placement;
+        this.sideToMove = sideToMove;
+        this.castling = castling;
+        this.enPassant = enPassant;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveNumber = fullMoveNumber;
+        this.hash = hash;
+        this.parent = parent;
+    }
+
+    /**
+     * Take a snapshot of a position. The move history of the position is not kept.
+     *
+     * @param position The position.
+     * @return The snapshot.
+     */
+    public static BoardSnapshot of(Position position) {
+        final long[] placement = new long[4];
+        for (int square = 0; square < 64; square++) {
+            placement[square >>> 4] |= (long) position.pieceAt(square) << (square << 2);
+        }
+        return new BoardSnapshot(placement, position.sideToMove(), position.castlingRights(),
+                                 position.enPassantSquare(), position.halfMoveClock(), position.fullMoveNumber(),
+                                 position.hash(), null);
+    }
+
+    /**
+     * Take a snapshot of the board model. The move history of the board is not kept.
+     *
+     * @param board The board.
+     * @return The snapshot.
+     */
+    public static BoardSnapshot of(Board board) {
+        return of(Position.of(board));
+    }
+
+    /**
+     * Play a move, leaving this snapshot unchanged.
+     *
+     * @param move A legal move of the position, as generated by {@link MoveGenerator}.
+     * @return The snapshot of the position after the move.
+     */
+    public BoardSnapshot play(int move) {
+        final int from = Moves.from(move);
+        final int to = Moves.to(move);
+        final int flags = Moves.flags(move);
+        final int piece = pieceAt(from);
+        final int captureSquare = flags == Moves.EN_PASSANT ? to + (sideToMove == WHITE ? -8 : 8) : to;
+        final int captured = pieceAt(captureSquare);
+        final int moved = Moves.isPromotion(move) ? Pieces.of(Moves.promotion(move), sideToMove) : piece;
+
+        final long[] next = placement.clone();
+        long nextHash = hash ^ Zobrist.piece(piece, from) ^ Zobrist.piece(moved, to);
+        set(next, from, EMPTY);
+        if (captured != EMPTY) {
+            nextHash ^= Zobrist.piece(captured, captureSquare);
+            set(next, captureSquare, EMPTY);
+        }
+        set(next, to, moved);
+        if (flags == Moves.KING_CASTLE || flags == Moves.QUEEN_CASTLE) {
+            final int rookFrom = flags == Moves.KING_CASTLE ? to + 1 : to - 2;
+            final int rookTo = flags == Moves.KING_CASTLE ? to - 1 : to + 1;
+            final int rook = Pieces.of(ROOK, sideToMove);
+            nextHash ^= Zobrist.piece(rook, rookFrom) ^ Zobrist.piece(rook, rookTo);
+            set(next, rookFrom, EMPTY);
+            set(next, rookTo, rook);
+        }
+
+        final int nextCastling = castling & Position.CASTLING_MASK[from] & Position.CASTLING_MASK[to];
+        final int nextEnPassant = flags == Moves.DOUBLE_PUSH ? (from + to) / 2 : -1;
+        final boolean irreversible = type(piece) == PAWN || captured != EMPTY;
+        nextHash ^= Zobrist.side() ^ Zobrist.castling(castling) ^ Zobrist.castling(nextCastling)
+                ^ Zobrist.enPassant(enPassant) ^ Zobrist.enPassant(nextEnPassant);
+        return new BoardSnapshot(next, sideToMove ^ 1, nextCastling, nextEnPassant,
+                                 irreversible ? 0 : halfMoveClock + 1,
+                                 sideToMove == BLACK ? fullMoveNumber + 1 : fullMoveNumber, nextHash,
+                                 irreversible ? null : this);
+    }
+
+    /**
+     * Create a mutable position from the snapshot, for a search or a move generation owned by one thread. The
+     * history of the snapshot is not kept.
+     *
+     * @return The new position.
+     */
+    public Position toPosition() {
+        final var position = new Position();
+        position.reset(sideToMove, castling, enPassant, halfMoveClock, fullMoveNumber);
+        for (int square = 0; square < 64; square++) {
+            final int piece = pieceAt(square);
+            if (piece != EMPTY) {
+                position.place(square, piece);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Count how many times the position occurred before, following the snapshots it was played from.
+     *
+     * @return The number of previous occurrences of the position.
+     */
+    public int repetitionCount() {
+        int count = 0;
+        for (var previous = parent; previous != null; previous = previous.parent) {
+            if (previous.hash == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Set the piece of a square in a placement being built.
+     *
+     * @param placement The placement.
+     * @param square    The square index.
+     * @param piece     The piece code, or {@link Pieces#EMPTY}.
+     */
+    private static void set(long[] placement, int square, int piece) {
+        final int shift = square << 2;
+        placement[square >>> 4] = placement[square >>> 4] & ~(0xFL << shift) | (long) piece << shift;
+    }
+
+    /**
+     * Get the piece on a square.
+     *
+     * @param square The square index.
+     * @return The piece code, or {@link Pieces#EMPTY}.
+     */
+    public int pieceAt(int square) {
+        return (int) (placement[square >>> 4] >>> (square << 2)) & 0xF;
+    }
+
+    /**
+     * Get the color to move.
+     *
+     * @return The color to move.
+     */
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Get the castling rights.
+     *
+     * @return The castling rights bits.
+     */
+    public int castlingRights() {
+        return castling;
+    }
+
+    /**
+     * Get the en passant square.
+     *
+     * @return The en passant square, or -1.
+     */
+    public int enPassantSquare() {
+        return enPassant;
+    }
+
+    /**
+     * Get the number of half moves since the last capture or pawn move.
+     *
+     * @return The half move clock.
+     */
+    public int halfMoveClock() {
+        return halfMoveClock;
+    }
+
+    /**
+     * Get the full move number.
+     *
+     * @return The full move number.
+     */
+    public int fullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     * Get the Zobrist hash.
+     *
+     * @return The hash.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Get the snapshot this one was played from.
+     *
+     * @return The previous snapshot, or null if it was taken from a position or after a capture or pawn move.
+     */
+    public BoardSnapshot parent() {
+        return parent;
+    }
+
+    /**
+     * The FEN string of the position.
+     *
+     * @return The FEN string.
+     */
+    public String toFen() {
+        return toPosition().toFen();
+    }
+}
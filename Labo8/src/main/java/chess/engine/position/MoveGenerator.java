@@ -0,0 +1,268 @@
+package chess.engine.position;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Move generator for the search position. Moves are first generated pseudo-legally (without considering whether the
+ * king is left in check) and are then filtered by making them on the position.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class MoveGenerator {
+    /**
+     * The promotion pieces, in the order they are generated.
+     */
+    private static final int[] PROMOTIONS = {QUEEN, KNIGHT, ROOK, BISHOP};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generate the legal moves of a position.
+     *
+     * @param position The position.
+     * @return The legal moves.
+     */
+    public static MoveList legalMoves(Position position) {
+        var moves = new MoveList();
+        legalMoves(position, moves);
+        return moves;
+    }
+
+    /**
+     * Generate the legal moves of a position into a list.
+     *
+     * @param position The position.
+     * @param moves    The list to fill. It is cleared first.
+     */
+    public static void legalMoves(Position position, MoveList moves) {
+        moves.clear();
+        generate(position, moves);
+        int size = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (isLegal(position, moves.get(i))) {
+                moves.set(size++, moves.get(i));
+            }
+        }
+        moves.truncate(size);
+    }
+
+    /**
+     * Check whether a pseudo-legal move leaves the king of the side to move safe.
+     *
+     * @param position The position.
+     * @param move     The pseudo-legal move.
+     * @return True if the move is legal.
+     */
+    public static boolean isLegal(Position position, int move) {
+        final int color = position.sideToMove();
+        position.make(move);
+        final boolean legal = position.king(color) < 0 || !position.isAttacked(position.king(color), color ^ 1);
+        position.unmake();
+        return legal;
+    }
+
+    /**
+     * Generate all the pseudo-legal moves of a position.
+     *
+     * @param position The position.
+     * @param moves    The list to append to.
+     */
+    public static void generate(Position position, MoveList moves) {
+        generateTactical(position, moves);
+        generateQuiet(position, moves);
+    }
+
+    /**
+     * Generate the pseudo-legal captures and promotions of a position.
+     *
+     * @param position The position.
+     * @param moves    The list to append to.
+     */
+    public static void generateTactical(Position position, MoveList moves) {
+        final int us = position.sideToMove();
+        for (int from = 0; from < 64; from++) {
+            final int piece = position.pieceAt(from);
+            if (piece != EMPTY && color(piece) == us) {
+                generatePiece(position, from, piece, true, moves);
+            }
+        }
+    }
+
+    /**
+     * Generate the pseudo-legal quiet moves (neither captures nor promotions) of a position, castling included.
+     *
+     * @param position The position.
+     * @param moves    The list to append to.
+     */
+    public static void generateQuiet(Position position, MoveList moves) {
+        final int us = position.sideToMove();
+        for (int from = 0; from < 64; from++) {
+            final int piece = position.pieceAt(from);
+            if (piece != EMPTY && color(piece) == us) {
+                generatePiece(position, from, piece, false, moves);
+            }
+        }
+    }
+
+    /**
+     * Check whether a move is pseudo-legal in a position, e.g. a move coming from the transposition table or from
+     * another position of the search. Only the moves of the moving piece are generated.
+     *
+     * @param position The position.
+     * @param move     The packed move.
+     * @param scratch  A list to generate the moves of the piece into. It is cleared first.
+     * @return True if the move is pseudo-legal.
+     */
+    public static boolean isPseudoLegal(Position position, int move, MoveList scratch) {
+        if (move == Moves.NONE) {
+            return false;
+        }
+        final int from = Moves.from(move);
+        final int piece = position.pieceAt(from);
+        if (piece == EMPTY || color(piece) != position.sideToMove()) {
+            return false;
+        }
+        scratch.clear();
+        generatePiece(position, from, piece, Moves.isCapture(move) || Moves.isPromotion(move), scratch);
+        return scratch.contains(move);
+    }
+
+    /**
+     * Generate the tactical or the quiet moves of a piece.
+     */
+    private static void generatePiece(Position position, int from, int piece, boolean tactical, MoveList moves) {
+        final int us = color(piece);
+        switch (type(piece)) {
+            case PAWN -> {
+                if (tactical) {
+                    pawnTactical(position, from, us, moves);
+                } else {
+                    pawnQuiet(position, from, us, moves);
+                }
+            }
+            case KNIGHT -> leaper(position, from, Attacks.KNIGHT[from], us, tactical, moves);
+            case KING -> {
+                leaper(position, from, Attacks.KING[from], us, tactical, moves);
+                if (!tactical) {
+                    castling(position, from, us, moves);
+                }
+            }
+            case BISHOP -> slider(position, from, 4, 8, us, tactical, moves);
+            case ROOK -> slider(position, from, 0, 4, us, tactical, moves);
+            case QUEEN -> slider(position, from, 0, 8, us, tactical, moves);
+        }
+    }
+
+    /**
+     * Generate the captures and promotions of a pawn.
+     */
+    private static void pawnTactical(Position position, int from, int us, MoveList moves) {
+        final int forward = us == WHITE ? 8 : -8;
+        if (from + forward < 0 || from + forward > 63) {
+            return;
+        }
+        final boolean promotes = (from + forward) / 8 == (us == WHITE ? 7 : 0);
+        for (int to : Attacks.PAWN[us][from]) {
+            final int target = position.pieceAt(to);
+            if (target != EMPTY && color(target) != us) {
+                if (promotes) {
+                    for (int promotion : PROMOTIONS) {
+                        moves.add(Moves.promotion(from, to, promotion, true));
+                    }
+                } else {
+                    moves.add(Moves.of(from, to, Moves.CAPTURE));
+                }
+            } else if (to == position.enPassantSquare() && target == EMPTY) {
+                moves.add(Moves.of(from, to, Moves.EN_PASSANT));
+            }
+        }
+        if (promotes && position.pieceAt(from + forward) == EMPTY) {
+            for (int promotion : PROMOTIONS) {
+                moves.add(Moves.promotion(from, from + forward, promotion, false));
+            }
+        }
+    }
+
+    /**
+     * Generate the single and double pushes of a pawn, promotions excluded.
+     */
+    private static void pawnQuiet(Position position, int from, int us, MoveList moves) {
+        final int forward = us == WHITE ? 8 : -8;
+        final int to = from + forward;
+        if (to < 0 || to > 63 || to / 8 == (us == WHITE ? 7 : 0) || position.pieceAt(to) != EMPTY) {
+            return;
+        }
+        moves.add(Moves.of(from, to, Moves.QUIET));
+        if (from / 8 == (us == WHITE ? 1 : 6) && position.pieceAt(to + forward) == EMPTY) {
+            moves.add(Moves.of(from, to + forward, Moves.DOUBLE_PUSH));
+        }
+    }
+
+    /**
+     * Generate the moves of a knight or a king.
+     */
+    private static void leaper(Position position, int from, int[] targets, int us, boolean captures,
+                               MoveList moves) {
+        for (int to : targets) {
+            final int target = position.pieceAt(to);
+            if (captures && target != EMPTY && color(target) != us) {
+                moves.add(Moves.of(from, to, Moves.CAPTURE));
+            } else if (!captures && target == EMPTY) {
+                moves.add(Moves.of(from, to, Moves.QUIET));
+            }
+        }
+    }
+
+    /**
+     * Generate the moves of a sliding piece along a range of directions.
+     */
+    private static void slider(Position position, int from, int firstDirection, int lastDirection, int us,
+                               boolean captures, MoveList moves) {
+        for (int direction = firstDirection; direction < lastDirection; direction++) {
+            for (int to : Attacks.RAYS[from][direction]) {
+                final int target = position.pieceAt(to);
+                if (target == EMPTY) {
+                    if (!captures) {
+                        moves.add(Moves.of(from, to, Moves.QUIET));
+                    }
+                    continue;
+                }
+                if (captures && color(target) != us) {
+                    moves.add(Moves.of(from, to, Moves.CAPTURE));
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Generate the castling moves of a king. The king may not castle out of, through or into check; the destination
+     * square is verified by the legality filter.
+     */
+    private static void castling(Position position, int from, int us, MoveList moves) {
+        final int rights = position.castlingRights();
+        final int home = us == WHITE ? 4 : 60;
+        if (from != home || (rights & (us == WHITE ? 3 : 12)) == 0 || position.isAttacked(from, us ^ 1)) {
+            return;
+        }
+        final int kingside = us == WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+        final int queenside = us == WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+        if ((rights & kingside) != 0
+                && position.pieceAt(from + 1) == EMPTY && position.pieceAt(from + 2) == EMPTY
+                && position.pieceAt(from + 3) == Pieces.of(ROOK, us)
+                && !position.isAttacked(from + 1, us ^ 1)) {
+            moves.add(Moves.of(from, from + 2, Moves.KING_CASTLE));
+        }
+        if ((rights & queenside) != 0
+                && position.pieceAt(from - 1) == EMPTY && position.pieceAt(from - 2) == EMPTY
+                && position.pieceAt(from - 3) == EMPTY && position.pieceAt(from - 4) == Pieces.of(ROOK, us)
+                && !position.isAttacked(from - 1, us ^ 1)) {
+            moves.add(Moves.of(from, from - 2, Moves.QUEEN_CASTLE));
+        }
+    }
+}
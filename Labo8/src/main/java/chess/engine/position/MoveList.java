@@ -0,0 +1,130 @@
+package chess.engine.position;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of packed moves backed by a primitive array, so move generation does not box or allocate per move.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MoveList {
+    /**
+     * The packed moves.
+     */
+    private int[] moves;
+
+    /**
+     * The number of moves in the list.
+     */
+    private int size;
+
+    /**
+     * Default constructor. The capacity fits the moves of any legal position.
+     */
+    public MoveList() {
+        this(256);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The initial capacity of the list.
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Add a move at the end of the list.
+     *
+     * @param move The packed move.
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Get a move.
+     *
+     * @param index The index of the move.
+     * @return The packed move.
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replace a move.
+     *
+     * @param index The index of the move.
+     * @param move  The packed move.
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Swap two moves.
+     *
+     * @param i The index of the first move.
+     * @param j The index of the second move.
+     */
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    /**
+     * Check whether the list contains a move.
+     *
+     * @param move The packed move.
+     * @return True if the list contains the move, false otherwise.
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of moves.
+     *
+     * @return The number of moves in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keep only the first moves of the list.
+     *
+     * @param size The number of moves to keep.
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * Remove all the moves, keeping the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy the moves to an array.
+     *
+     * @return An array containing the moves.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+}
@@ -0,0 +1,276 @@
+package chess.engine.position;
+
+import chess.engine.board.Move;
+import chess.engine.board.Square;
+
+/**
+ * Packed move encoding used by the search. A move fits in 16 bits: the origin square in bits 0-5, the destination
+ * square in bits 6-11 and the flags in bits 12-15. Squares use the same indexes as {@link Square#index()}.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Moves {
+    /**
+     * The null move. Never a valid move since its origin and destination are equal.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Move flags.
+     */
+    public static final int QUIET = 0, DOUBLE_PUSH = 1, KING_CASTLE = 2, QUEEN_CASTLE = 3, CAPTURE = 4,
+            EN_PASSANT = 5, PROMOTION = 8;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Moves() {
+    }
+
+    /**
+     * Encode a move.
+     *
+     * @param from  The origin square index.
+     * @param to    The destination square index.
+     * @param flags The move flags.
+     * @return The packed move.
+     */
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * Encode a promotion.
+     *
+     * @param from      The origin square index.
+     * @param to        The destination square index.
+     * @param promotion The promotion piece type.
+     * @param capture   Whether the promotion captures a piece.
+     * @return The packed move.
+     */
+    public static int promotion(int from, int to, int promotion, boolean capture) {
+        return of(from, to, PROMOTION | (capture ? CAPTURE : 0) | promotionIndex(promotion));
+    }
+
+    /**
+     * The origin square of a move.
+     *
+     * @param move The packed move.
+     * @return The origin square index.
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * The destination square of a move.
+     *
+     * @param move The packed move.
+     * @return The destination square index.
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * The flags of a move.
+     *
+     * @param move The packed move.
+     * @return The move flags.
+     */
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    /**
+     * Whether the move captures a piece, including en passant and capturing promotions.
+     *
+     * @param move The packed move.
+     * @return True if the move is a capture.
+     */
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    /**
+     * Whether the move is a promotion.
+     *
+     * @param move The packed move.
+     * @return True if the move is a promotion.
+     */
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    /**
+     * Whether the move is a castling move.
+     *
+     * @param move The packed move.
+     * @return True if the move is a castling move.
+     */
+    public static boolean isCastling(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * Whether the move neither captures nor promotes.
+     *
+     * @param move The packed move.
+     * @return True if the move is quiet.
+     */
+    public static boolean isQuiet(int move) {
+        return (flags(move) & (CAPTURE | PROMOTION)) == 0;
+    }
+
+    /**
+     * The piece type a move promotes to.
+     *
+     * @param move The packed move.
+     * @return The promotion piece type, or {@link Pieces#EMPTY} if the move is not a promotion.
+     */
+    public static int promotion(int move) {
+        if (!isPromotion(move)) {
+            return Pieces.EMPTY;
+        }
+        return switch (flags(move) & 3) {
+            case 0 -> Pieces.KNIGHT;
+            case 1 -> Pieces.BISHOP;
+            case 2 -> Pieces.ROOK;
+            default -> Pieces.QUEEN;
+        };
+    }
+
+    /**
+     * The two bit index of a promotion piece type.
+     *
+     * @param type The promotion piece type.
+     * @return The promotion index.
+     */
+    private static int promotionIndex(int type) {
+        return switch (type) {
+            case Pieces.KNIGHT -> 0;
+            case Pieces.BISHOP -> 1;
+            case Pieces.ROOK -> 2;
+            case Pieces.QUEEN -> 3;
+            default -> throw new IllegalArgumentException("Invalid promotion type: " + type);
+        };
+    }
+
+    /**
+     * Convert a packed move to a board move.
+     *
+     * @param move The packed move.
+     * @return The board move.
+     */
+    public static Move toMove(int move) {
+        return new Move(new Square(from(move)), new Square(to(move)));
+    }
+
+    /**
+     * The long algebraic (UCI) notation of a move, e.g. "e2e4" or "e7e8q".
+     *
+     * @param move The packed move.
+     * @return The UCI string of the move.
+     */
+    public static String uci(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        var sb = new StringBuilder(5).append(squareName(from(move))).append(squareName(to(move)));
+        if (isPromotion(move)) {
+            sb.append(" prnbqk".charAt(promotion(move)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Find the legal move of a position matching a UCI string.
+     *
+     * @param position The position.
+     * @param uci      The UCI string.
+     * @return The packed move, or {@link #NONE} if the move is not legal.
+     */
+    public static int fromUci(Position position, String uci) {
+        var moves = MoveGenerator.legalMoves(position);
+        for (int i = 0; i < moves.size(); i++) {
+            if (uci(moves.get(i)).equals(uci)) {
+                return moves.get(i);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * The standard algebraic notation (SAN) of a legal move, e.g. "Nbd7", "exd5", "O-O" or "e8=Q+".
+     *
+     * @param position The position before the move.
+     * @param move     The packed move.
+     * @return The SAN string of the move.
+     */
+    public static String san(Position position, int move) {
+        final int from = from(move);
+        final int to = to(move);
+        final int type = Pieces.type(position.pieceAt(from));
+        var sb = new StringBuilder(8);
+
+        if (flags(move) == KING_CASTLE) {
+            sb.append("O-O");
+        } else if (flags(move) == QUEEN_CASTLE) {
+            sb.append("O-O-O");
+        } else if (type == Pieces.PAWN) {
+            if (isCapture(move)) {
+                sb.append((char) ('a' + from % 8)).append('x');
+            }
+            sb.append(squareName(to));
+            if (isPromotion(move)) {
+                sb.append('=').append(Character.toUpperCase(" prnbqk".charAt(promotion(move))));
+            }
+        } else {
+            sb.append(Character.toUpperCase(" prnbqk".charAt(type)));
+            // Disambiguate against the other pieces of the same type that can reach the same square.
+            boolean ambiguous = false, sameFile = false, sameRank = false;
+            var moves = MoveGenerator.legalMoves(position);
+            for (int i = 0; i < moves.size(); i++) {
+                int other = moves.get(i);
+                if (other != move && to(other) == to && Pieces.type(position.pieceAt(from(other))) == type) {
+                    ambiguous = true;
+                    sameFile |= from(other) % 8 == from % 8;
+                    sameRank |= from(other) / 8 == from / 8;
+                }
+            }
+            if (ambiguous) {
+                if (!sameFile) {
+                    sb.append((char) ('a' + from % 8));
+                } else if (!sameRank) {
+                    sb.append((char) ('1' + from / 8));
+                } else {
+                    sb.append(squareName(from));
+                }
+            }
+            if (isCapture(move)) {
+                sb.append('x');
+            }
+            sb.append(squareName(to));
+        }
+
+        position.make(move);
+        if (position.inCheck()) {
+            sb.append(MoveGenerator.legalMoves(position).size() == 0 ? '#' : '+');
+        }
+        position.unmake();
+
+        return sb.toString();
+    }
+
+    /**
+     * The lowercase algebraic name of a square index, e.g. "e4".
+     *
+     * @param square The square index.
+     * @return The name of the square.
+     */
+    public static String squareName(int square) {
+        return String.valueOf((char) ('a' + square % 8)) + (char) ('1' + square / 8);
+    }
+}
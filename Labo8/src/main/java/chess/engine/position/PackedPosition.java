@@ -0,0 +1,159 @@
+package chess.engine.position;
+
+import chess.engine.board.Board;
+import chess.engine.util.BoardFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Compact binary encoding of a position in {@value #BYTES} bytes, little-endian:
+ * <ul>
+ *     <li>bytes 0-7: the occupancy bitboard, bit {@code i} set if square {@code i} holds a piece;</li>
+ *     <li>bytes 8-23: the 4-bit code of each piece, in the order of the occupied squares, the first piece in the low
+ *     bits. The code is the piece code, except that a pawn which can be captured en passant has the unused type
+ *     {@value #EN_PASSANT_PAWN}, which gives the en passant square;</li>
+ *     <li>byte 24: the state, the side to move in bit 0 and the castling rights in bits 1-4;</li>
+ *     <li>byte 25: the half move clock, at most 255;</li>
+ *     <li>bytes 26-27: the full move number, at most 65535;</li>
+ *     <li>bytes 28-31: a label free for the datasets, such as a score or a game result.</li>
+ * </ul>
+ * A position has at most 32 pieces. The move history is not encoded.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class PackedPosition {
+    /**
+     * The size of an encoded position.
+     */
+    public static final int BYTES = 32;
+
+    /**
+     * The offset of the label in an encoded position.
+     */
+    public static final int LABEL_OFFSET = 28;
+
+    /**
+     * The type of the pawn that can be captured en passant.
+     */
+    static final int EN_PASSANT_PAWN = 7;
+
+    /**
+     * The maximum number of pieces of an encoded position.
+     */
+    private static final int MAX_PIECES = 32;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PackedPosition() {
+    }
+
+    /**
+     * Encode a position into a buffer.
+     *
+     * @param position The position.
+     * @param label    The label.
+     * @param buffer   The buffer, in little-endian order.
+     * @param offset   The offset of the encoded position in the buffer.
+     * @throws IllegalArgumentException If the position has more than 32 pieces.
+     */
+    public static void encode(Position position, int label, ByteBuffer buffer, int offset) {
+        final int enPassant = position.enPassantSquare();
+        final int enPassantPawn = enPassant < 0 ? -1 : enPassant + (position.sideToMove() == WHITE ? -8 : 8);
+        long occupancy = 0, low = 0, high = 0;
+        int count = 0;
+        for (int square = 0; square < 64; square++) {
+            int piece = position.pieceAt(square);
+            if (piece == EMPTY) {
+                continue;
+            }
+            if (count == MAX_PIECES) {
+                throw new IllegalArgumentException("A packed position has at most " + MAX_PIECES + " pieces.");
+            }
+            if (square == enPassantPawn && type(piece) == PAWN) {
+                piece = of(EN_PASSANT_PAWN, color(piece));
+            }
+            occupancy |= 1L << square;
+            if (count < 16) {
+                low |= (long) piece << (count * 4);
+            } else {
+                high |= (long) piece << ((count - 16) * 4);
+            }
+            count++;
+        }
+        buffer.putLong(offset, occupancy);
+        buffer.putLong(offset + 8, low);
+        buffer.putLong(offset + 16, high);
+        buffer.put(offset + 24, (byte) (position.sideToMove() | position.castlingRights() << 1));
+        buffer.put(offset + 25, (byte) Math.min(position.halfMoveClock(), 255));
+        buffer.putShort(offset + 26, (short) Math.min(position.fullMoveNumber(), 65535));
+        buffer.putInt(offset + LABEL_OFFSET, label);
+    }
+
+    /**
+     * Decode a position from a buffer.
+     *
+     * @param buffer   The buffer, in little-endian order.
+     * @param offset   The offset of the encoded position in the buffer.
+     * @param position The position replaced by the decoded one. Its observer is detached.
+     */
+    public static void decode(ByteBuffer buffer, int offset, Position position) {
+        long occupancy = buffer.getLong(offset);
+        final long low = buffer.getLong(offset + 8), high = buffer.getLong(offset + 16);
+        final int state = buffer.get(offset + 24);
+        position.reset(state & 1, (state >>> 1) & 15, -1, buffer.get(offset + 25) & 0xFF,
+                       buffer.getShort(offset + 26) & 0xFFFF);
+        int enPassant = -1;
+        for (int count = 0; occupancy != 0; count++, occupancy &= occupancy - 1) {
+            final int square = Long.numberOfTrailingZeros(occupancy);
+            int piece = (int) ((count < 16 ? low >>> (count * 4) : high >>> ((count - 16) * 4)) & 15);
+            if (type(piece) == EN_PASSANT_PAWN) {
+                enPassant = square + (color(piece) == WHITE ? -8 : 8);
+                piece = of(PAWN, color(piece));
+            }
+            position.place(square, piece);
+        }
+        if (enPassant >= 0) {
+            position.setEnPassant(enPassant);
+        }
+    }
+
+    /**
+     * Get the label of an encoded position.
+     *
+     * @param buffer The buffer, in little-endian order.
+     * @param offset The offset of the encoded position in the buffer.
+     * @return The label.
+     */
+    public static int label(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + LABEL_OFFSET);
+    }
+
+    /**
+     * Encode a position of the board model.
+     *
+     * @param board The board.
+     * @return The encoded position, with a zero label.
+     */
+    public static byte[] encode(Board board) {
+        final byte[] bytes = new byte[BYTES];
+        encode(Position.of(board), 0, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0);
+        return bytes;
+    }
+
+    /**
+     * Decode a position into the board model.
+     *
+     * @param bytes The encoded position.
+     * @return The board.
+     */
+    public static Board decodeBoard(byte[] bytes) {
+        final var position = new Position();
+        decode(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0, position);
+        return BoardFactory.createFromFen(position.toFen());
+    }
+}
@@ -0,0 +1,38 @@
+package chess.engine.position;
+
+/**
+ * Observer of the changes of the pieces of a {@link Position}, used to update state derived from the pieces
+ * incrementally, e.g. the accumulator of a neural network evaluation. Making a move notifies {@link #push()} first,
+ * then each piece removed and added; unmaking it only notifies {@link #pop()}, so the observer is expected to keep a
+ * stack of its state. Null moves are pushed and popped too, without any piece change.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public interface PieceObserver {
+    /**
+     * Called before the pieces of a move are changed.
+     */
+    void push();
+
+    /**
+     * Called when a move is unmade, to restore the state before it.
+     */
+    void pop();
+
+    /**
+     * Called when a piece is added to a square by a move.
+     *
+     * @param square The square index.
+     * @param piece  The piece code.
+     */
+    void added(int square, int piece);
+
+    /**
+     * Called when a piece is removed from a square by a move.
+     *
+     * @param square The square index.
+     * @param piece  The piece code.
+     */
+    void removed(int square, int piece);
+}
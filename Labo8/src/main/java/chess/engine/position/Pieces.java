@@ -0,0 +1,131 @@
+package chess.engine.position;
+
+import chess.PieceType;
+import chess.PlayerColor;
+
+/**
+ * Compact piece codes used by the search position. A piece code packs the type in the three low bits (in the same
+ * order as {@link PieceType}, starting at 1) and the color in the fourth bit. Zero is an empty square.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Pieces {
+    /**
+     * Empty square.
+     */
+    public static final int EMPTY = 0;
+
+    /**
+     * Piece types.
+     */
+    public static final int PAWN = 1, ROOK = 2, KNIGHT = 3, BISHOP = 4, QUEEN = 5, KING = 6;
+
+    /**
+     * Colors.
+     */
+    public static final int WHITE = 0, BLACK = 1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Pieces() {
+    }
+
+    /**
+     * Create a piece code.
+     *
+     * @param type  The type of the piece.
+     * @param color The color of the piece.
+     * @return The piece code.
+     */
+    public static int of(int type, int color) {
+        return type | (color << 3);
+    }
+
+    /**
+     * Create a piece code from the view types.
+     *
+     * @param type  The type of the piece.
+     * @param color The color of the piece.
+     * @return The piece code.
+     */
+    public static int of(PieceType type, PlayerColor color) {
+        return of(type.ordinal() + 1, color(color));
+    }
+
+    /**
+     * Get the type of a piece code.
+     *
+     * @param piece The piece code.
+     * @return The type of the piece.
+     */
+    public static int type(int piece) {
+        return piece & 7;
+    }
+
+    /**
+     * Get the color of a piece code.
+     *
+     * @param piece The piece code.
+     * @return The color of the piece.
+     */
+    public static int color(int piece) {
+        return piece >>> 3;
+    }
+
+    /**
+     * Convert a player color to a color index.
+     *
+     * @param color The player color.
+     * @return The color index.
+     */
+    public static int color(PlayerColor color) {
+        return color == PlayerColor.WHITE ? WHITE : BLACK;
+    }
+
+    /**
+     * Convert a piece code to a view piece type.
+     *
+     * @param piece The piece code.
+     * @return The piece type.
+     */
+    public static PieceType pieceType(int piece) {
+        return PieceType.values()[type(piece) - 1];
+    }
+
+    /**
+     * Convert a color index to a player color.
+     *
+     * @param color The color index.
+     * @return The player color.
+     */
+    public static PlayerColor playerColor(int color) {
+        return color == WHITE ? PlayerColor.WHITE : PlayerColor.BLACK;
+    }
+
+    /**
+     * The FEN character of a piece code.
+     *
+     * @param piece The piece code.
+     * @return The FEN character, uppercase for white.
+     */
+    public static char fenChar(int piece) {
+        char c = " prnbqk".charAt(type(piece));
+        return color(piece) == WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * The piece code of a FEN character.
+     *
+     * @param c The FEN character.
+     * @return The piece code.
+     */
+    public static int fromFenChar(char c) {
+        int type = " prnbqk".indexOf(Character.toLowerCase(c));
+        if (type <= 0) {
+            throw new IllegalArgumentException("Invalid piece type: " + c);
+        }
+        return of(type, Character.isUpperCase(c) ? WHITE : BLACK);
+    }
+}
@@ -0,0 +1,747 @@
+package chess.engine.position;
+
+import chess.engine.board.Board;
+import chess.engine.board.CastlingType;
+
+import java.util.Arrays;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Mutable position used by the search. Unlike {@link Board}, the pieces are stored in a flat array indexed by square
+ * and moves are made and unmade in place, so exploring a tree of positions does not allocate. The position keeps a
+ * stack of the irreversible state of each move to be able to unmake it, and maintains its Zobrist hash
+ * incrementally.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Position {
+    /**
+     * Castling rights bits.
+     */
+    public static final int WHITE_KINGSIDE = 1, WHITE_QUEENSIDE = 2, BLACK_KINGSIDE = 4, BLACK_QUEENSIDE = 8;
+
+    /**
+     * The FEN string of the initial position.
+     */
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * The castling rights kept when a piece moves from or to each square.
+     */
+    static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    /**
+     * The piece codes of each square.
+     */
+    private final int[] squares = new int[64];
+
+    /**
+     * The square of the king of each color, or -1 if there is no king.
+     */
+    private final int[] kings = {-1, -1};
+
+    /**
+     * The color to move.
+     */
+    private int sideToMove = WHITE;
+
+    /**
+     * The castling rights bits.
+     */
+    private int castling = 0;
+
+    /**
+     * The en passant square, or -1 if there is none.
+     */
+    private int enPassant = -1;
+
+    /**
+     * The number of half moves since the last capture or pawn advance.
+     */
+    private int halfMoveClock = 0;
+
+    /**
+     * The number of the full move, starting at 1.
+     */
+    private int fullMoveNumber = 1;
+
+    /**
+     * The Zobrist hash of the position.
+     */
+    private long hash = 0;
+
+    /**
+     * The number of moves on the undo stack.
+     */
+    private int ply = 0;
+
+    /**
+     * The undo stack: the moves made, the captured pieces and the state before each move.
+     */
+    private int[] undoMoves = new int[256];
+    private int[] undoCaptured = new int[256];
+    private int[] undoCastling = new int[256];
+    private int[] undoEnPassant = new int[256];
+    private int[] undoHalfMoveClock = new int[256];
+    private long[] undoHashes = new long[256];
+
+    /**
+     * The observer notified of the changes of the pieces, or null.
+     */
+    private PieceObserver observer;
+
+    /**
+     * Create an empty position. Use {@link #fromFen(String)} or {@link #of(Board)} to create a populated one.
+     */
+    public Position() {
+    }
+
+    /**
+     * Copy constructor. The undo stack is copied too, so repetitions are still detected in the copy.
+     *
+     * @param other The position to copy.
+     */
+    public Position(Position other) {
+        System.arraycopy(other.squares, 0, squares, 0, 64);
+        kings[WHITE] = other.kings[WHITE];
+        kings[BLACK] = other.kings[BLACK];
+        sideToMove = other.sideToMove;
+        castling = other.castling;
+        enPassant = other.enPassant;
+        halfMoveClock = other.halfMoveClock;
+        fullMoveNumber = other.fullMoveNumber;
+        hash = other.hash;
+        ply = other.ply;
+        undoMoves = other.undoMoves.clone();
+        undoCaptured = other.undoCaptured.clone();
+        undoCastling = other.undoCastling.clone();
+        undoEnPassant = other.undoEnPassant.clone();
+        undoHalfMoveClock = other.undoHalfMoveClock.clone();
+        undoHashes = other.undoHashes.clone();
+    }
+
+    /**
+     * Set the observer notified of the pieces added and removed by the moves made, and of the moves made and unmade.
+     * The observer is not copied with the position and is detached when another position is loaded.
+     *
+     * @param observer The observer, or null to detach the current one.
+     */
+    public void setObserver(PieceObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Create a position from a FEN string.
+     *
+     * @param fen The FEN string.
+     * @return The position.
+     */
+    public static Position fromFen(String fen) {
+        var position = new Position();
+        position.load(fen);
+        return position;
+    }
+
+    /**
+     * Replace the position by the one of a FEN or EPD string. The string is scanned once without splitting it, so a
+     * single position can be reused to read large files quickly. The half move clock and full move number are
+     * optional, as in EPD. The observer of the position is detached.
+     *
+     * @param fen The FEN or EPD string.
+     * @return The index of the first character after the parsed fields, where the EPD operations start.
+     */
+    public int load(CharSequence fen) {
+        observer = null;
+        Arrays.fill(squares, EMPTY);
+        kings[WHITE] = kings[BLACK] = -1;
+        ply = 0;
+        hash = 0;
+
+        int i = skipSpaces(fen, 0);
+        int rank = 7, file = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            final char c = fen.charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else if (rank >= 0 && file < 8) {
+                put(rank * 8 + file, Pieces.fromFenChar(c));
+                file++;
+            }
+        }
+        if (rank != 0) {
+            throw new IllegalArgumentException("Invalid FEN: Piece placement does not contain 8 rows.");
+        }
+
+        i = skipSpaces(fen, i);
+        sideToMove = i < fen.length() && fen.charAt(i) == 'b' ? BLACK : WHITE;
+        i = skipField(fen, i);
+
+        castling = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> castling |= WHITE_KINGSIDE;
+                case 'Q' -> castling |= WHITE_QUEENSIDE;
+                case 'k' -> castling |= BLACK_KINGSIDE;
+                case 'q' -> castling |= BLACK_QUEENSIDE;
+                default -> {
+                }
+            }
+        }
+
+        i = skipSpaces(fen, i);
+        enPassant = -1;
+        if (i + 1 < fen.length() && fen.charAt(i) >= 'a' && fen.charAt(i) <= 'h') {
+            enPassant = (fen.charAt(i) - 'a') + (fen.charAt(i + 1) - '1') * 8;
+        }
+        i = skipField(fen, i);
+
+        halfMoveClock = 0;
+        fullMoveNumber = 1;
+        int next = skipSpaces(fen, i);
+        if (next < fen.length() && Character.isDigit(fen.charAt(next))) {
+            halfMoveClock = 0;
+            for (i = next; i < fen.length() && Character.isDigit(fen.charAt(i)); i++) {
+                halfMoveClock = halfMoveClock * 10 + fen.charAt(i) - '0';
+            }
+            next = skipSpaces(fen, i);
+            if (next < fen.length() && Character.isDigit(fen.charAt(next))) {
+                fullMoveNumber = 0;
+                for (i = next; i < fen.length() && Character.isDigit(fen.charAt(i)); i++) {
+                    fullMoveNumber = fullMoveNumber * 10 + fen.charAt(i) - '0';
+                }
+            }
+        }
+        hash = computeHash();
+        return i;
+    }
+
+    /**
+     * Skip the spaces of a string.
+     *
+     * @param s     The string.
+     * @param index The index to start from.
+     * @return The index of the first non-space character.
+     */
+    private static int skipSpaces(CharSequence s, int index) {
+        while (index < s.length() && s.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Skip a field and the spaces that follow it.
+     *
+     * @param s     The string.
+     * @param index The index of the start of the field.
+     * @return The index of the start of the next field.
+     */
+    private static int skipField(CharSequence s, int index) {
+        while (index < s.length() && s.charAt(index) != ' ') {
+            index++;
+        }
+        return skipSpaces(s, index);
+    }
+
+    /**
+     * Replace the position by an empty board with the given state, to be filled with {@link #place(int, int)}. The
+     * observer of the position is detached.
+     *
+     * @param sideToMove     The color to move.
+     * @param castling       The castling rights bits.
+     * @param enPassant      The en passant square, or -1.
+     * @param halfMoveClock  The half move clock.
+     * @param fullMoveNumber The full move number.
+     */
+    void reset(int sideToMove, int castling, int enPassant, int halfMoveClock, int fullMoveNumber) {
+        observer = null;
+        Arrays.fill(squares, EMPTY);
+        kings[WHITE] = kings[BLACK] = -1;
+        ply = 0;
+        this.sideToMove = sideToMove;
+        this.castling = castling;
+        this.enPassant = enPassant;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveNumber = fullMoveNumber;
+        hash = Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant) ^ (sideToMove == BLACK ? Zobrist.side() : 0);
+    }
+
+    /**
+     * Put a piece on an empty square of a position being built after {@link #reset(int, int, int, int, int)}.
+     *
+     * @param square The square index.
+     * @param piece  The piece code.
+     */
+    void place(int square, int piece) {
+        put(square, piece);
+    }
+
+    /**
+     * Set the en passant square of a position being built after {@link #reset(int, int, int, int, int)}.
+     *
+     * @param square The en passant square, or -1.
+     */
+    void setEnPassant(int square) {
+        hash ^= Zobrist.enPassant(enPassant) ^ Zobrist.enPassant(square);
+        enPassant = square;
+    }
+
+    /**
+     * Create a position from the board model.
+     *
+     * @param board The board.
+     * @return The position.
+     */
+    public static Position of(Board board) {
+        var position = new Position();
+        board.pieces().forEach((square, piece) -> position.put(square.index(), Pieces.of(piece.type(), piece.color())));
+        position.sideToMove = Pieces.color(board.currentPlayer());
+        position.castling = (board.getCastlingRight(CastlingType.WHITE_KINGSIDE) ? WHITE_KINGSIDE : 0)
+                | (board.getCastlingRight(CastlingType.WHITE_QUEENSIDE) ? WHITE_QUEENSIDE : 0)
+                | (board.getCastlingRight(CastlingType.BLACK_KINGSIDE) ? BLACK_KINGSIDE : 0)
+                | (board.getCastlingRight(CastlingType.BLACK_QUEENSIDE) ? BLACK_QUEENSIDE : 0);
+        position.enPassant = board.enPassantSquare() == null ? -1 : board.enPassantSquare().index();
+        position.halfMoveClock = board.halfMoveClock();
+        position.fullMoveNumber = board.fullMoveCount();
+        position.hash = position.computeHash();
+        return position;
+    }
+
+    /**
+     * The FEN string of the position.
+     *
+     * @return The FEN string.
+     */
+    public String toFen() {
+        var sb = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = squares[rank * 8 + file];
+                if (piece == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(Pieces.fenChar(piece));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (rank > 0) {
+                sb.append('/');
+            }
+        }
+        sb.append(sideToMove == WHITE ? " w " : " b ");
+        if (castling == 0) {
+            sb.append('-');
+        } else {
+            if ((castling & WHITE_KINGSIDE) != 0) sb.append('K');
+            if ((castling & WHITE_QUEENSIDE) != 0) sb.append('Q');
+            if ((castling & BLACK_KINGSIDE) != 0) sb.append('k');
+            if ((castling & BLACK_QUEENSIDE) != 0) sb.append('q');
+        }
+        sb.append(' ').append(enPassant < 0 ? "-" : Moves.squareName(enPassant));
+        sb.append(' ').append(halfMoveClock).append(' ').append(fullMoveNumber);
+        return sb.toString();
+    }
+
+    /**
+     * Make a move. The move must be pseudo-legal in this position.
+     *
+     * @param move The packed move.
+     */
+    public void make(int move) {
+        final int from = Moves.from(move);
+        final int to = Moves.to(move);
+        final int flags = Moves.flags(move);
+        final int piece = squares[from];
+        final int captureSquare = flags == Moves.EN_PASSANT ? to + (sideToMove == WHITE ? -8 : 8) : to;
+        final int captured = squares[captureSquare];
+
+        push(move, captured);
+        if (observer != null) {
+            observer.push();
+        }
+        hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+
+        if (captured != EMPTY) {
+            remove(captureSquare);
+        }
+        remove(from);
+        put(to, Moves.isPromotion(move) ? Pieces.of(Moves.promotion(move), sideToMove) : piece);
+        if (flags == Moves.KING_CASTLE) {
+            put(to - 1, remove(to + 1));
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            put(to + 1, remove(to - 2));
+        }
+
+        castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassant = flags == Moves.DOUBLE_PUSH ? (from + to) / 2 : -1;
+        halfMoveClock = type(piece) == PAWN || captured != EMPTY ? 0 : halfMoveClock + 1;
+        if (sideToMove == BLACK) {
+            fullMoveNumber++;
+        }
+        sideToMove ^= 1;
+        hash ^= Zobrist.side() ^ Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+    }
+
+    /**
+     * Unmake the last move made. The hash is restored from the undo stack, so the pieces are moved back without
+     * updating it.
+     */
+    public void unmake() {
+        if (observer != null) {
+            observer.pop();
+        }
+        ply--;
+        final int move = undoMoves[ply];
+        final int from = Moves.from(move);
+        final int to = Moves.to(move);
+        final int flags = Moves.flags(move);
+        sideToMove ^= 1;
+        if (sideToMove == BLACK) {
+            fullMoveNumber--;
+        }
+
+        final int piece = squares[to];
+        restore(to, EMPTY);
+        restore(from, Moves.isPromotion(move) ? Pieces.of(PAWN, sideToMove) : piece);
+        if (flags == Moves.KING_CASTLE) {
+            restore(to + 1, squares[to - 1]);
+            restore(to - 1, EMPTY);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            restore(to - 2, squares[to + 1]);
+            restore(to + 1, EMPTY);
+        }
+        if (undoCaptured[ply] != EMPTY) {
+            restore(flags == Moves.EN_PASSANT ? to + (sideToMove == WHITE ? -8 : 8) : to, undoCaptured[ply]);
+        }
+
+        castling = undoCastling[ply];
+        enPassant = undoEnPassant[ply];
+        halfMoveClock = undoHalfMoveClock[ply];
+        hash = undoHashes[ply];
+    }
+
+    /**
+     * Pass the turn without moving, for the null move pruning of the search. The half move clock is reset so the
+     * repetition detection does not look past the null move.
+     */
+    public void makeNull() {
+        push(Moves.NONE, EMPTY);
+        if (observer != null) {
+            observer.push();
+        }
+        hash ^= Zobrist.enPassant(enPassant) ^ Zobrist.side();
+        enPassant = -1;
+        halfMoveClock = 0;
+        if (sideToMove == BLACK) {
+            fullMoveNumber++;
+        }
+        sideToMove ^= 1;
+    }
+
+    /**
+     * Unmake the null move made last.
+     */
+    public void unmakeNull() {
+        if (observer != null) {
+            observer.pop();
+        }
+        ply--;
+        sideToMove ^= 1;
+        if (sideToMove == BLACK) {
+            fullMoveNumber--;
+        }
+        enPassant = undoEnPassant[ply];
+        halfMoveClock = undoHalfMoveClock[ply];
+        hash = undoHashes[ply];
+    }
+
+    /**
+     * Push the state of the position before a move on the undo stack.
+     *
+     * @param move     The move about to be made.
+     * @param captured The piece captured by the move.
+     */
+    private void push(int move, int captured) {
+        if (ply == undoMoves.length) {
+            int capacity = ply * 2;
+            undoMoves = Arrays.copyOf(undoMoves, capacity);
+            undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+            undoCastling = Arrays.copyOf(undoCastling, capacity);
+            undoEnPassant = Arrays.copyOf(undoEnPassant, capacity);
+            undoHalfMoveClock = Arrays.copyOf(undoHalfMoveClock, capacity);
+            undoHashes = Arrays.copyOf(undoHashes, capacity);
+        }
+        undoMoves[ply] = move;
+        undoCaptured[ply] = captured;
+        undoCastling[ply] = castling;
+        undoEnPassant[ply] = enPassant;
+        undoHalfMoveClock[ply] = halfMoveClock;
+        undoHashes[ply] = hash;
+        ply++;
+    }
+
+    /**
+     * Put a piece on an empty square.
+     *
+     * @param square The square index.
+     * @param piece  The piece code.
+     */
+    private void put(int square, int piece) {
+        squares[square] = piece;
+        hash ^= Zobrist.piece(piece, square);
+        if (type(piece) == KING) {
+            kings[color(piece)] = square;
+        }
+        if (observer != null) {
+            observer.added(square, piece);
+        }
+    }
+
+    /**
+     * Set the piece of a square when unmaking a move, without updating the hash nor notifying the observer.
+     *
+     * @param square The square index.
+     * @param piece  The piece code, or {@link Pieces#EMPTY}.
+     */
+    private void restore(int square, int piece) {
+        squares[square] = piece;
+        if (type(piece) == KING) {
+            kings[color(piece)] = square;
+        }
+    }
+
+    /**
+     * Remove the piece of a square.
+     *
+     * @param square The square index.
+     * @return The removed piece code.
+     */
+    private int remove(int square) {
+        int piece = squares[square];
+        squares[square] = EMPTY;
+        hash ^= Zobrist.piece(piece, square);
+        if (type(piece) == KING && kings[color(piece)] == square) {
+            kings[color(piece)] = -1;
+        }
+        if (observer != null) {
+            observer.removed(square, piece);
+        }
+        return piece;
+    }
+
+    /**
+     * Compute the Zobrist hash of the position from scratch.
+     *
+     * @return The hash.
+     */
+    private long computeHash() {
+        long h = Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+        if (sideToMove == BLACK) {
+            h ^= Zobrist.side();
+        }
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != EMPTY) {
+                h ^= Zobrist.piece(squares[square], square);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Check whether a square is attacked by a color.
+     *
+     * @param square The square index.
+     * @param color  The attacking color.
+     * @return True if a piece of the color attacks the square.
+     */
+    public boolean isAttacked(int square, int color) {
+        // A pawn of the attacking color attacks the square if the square would attack it as a pawn of the other color.
+        for (int from : Attacks.PAWN[color ^ 1][square]) {
+            if (squares[from] == Pieces.of(PAWN, color)) {
+                return true;
+            }
+        }
+        for (int from : Attacks.KNIGHT[square]) {
+            if (squares[from] == Pieces.of(KNIGHT, color)) {
+                return true;
+            }
+        }
+        for (int from : Attacks.KING[square]) {
+            if (squares[from] == Pieces.of(KING, color)) {
+                return true;
+            }
+        }
+        final int[][] rays = Attacks.RAYS[square];
+        for (int direction = 0; direction < Attacks.DIRECTIONS; direction++) {
+            final int slider = Attacks.isDiagonal(direction) ? BISHOP : ROOK;
+            for (int target : rays[direction]) {
+                int piece = squares[target];
+                if (piece != EMPTY) {
+                    if (color(piece) == color && (type(piece) == slider || type(piece) == QUEEN)) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the side to move is in check.
+     *
+     * @return True if the king of the side to move is attacked. Always false without a king.
+     */
+    public boolean inCheck() {
+        return kings[sideToMove] >= 0 && isAttacked(kings[sideToMove], sideToMove ^ 1);
+    }
+
+    /**
+     * Check whether the current position already occurred since the last irreversible move.
+     *
+     * @return True if the position is a repetition.
+     */
+    public boolean isRepetition() {
+        final int stop = Math.max(0, ply - halfMoveClock);
+        for (int i = ply - 4; i >= stop; i -= 2) {
+            if (undoHashes[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the piece on a square.
+     *
+     * @param square The square index.
+     * @return The piece code, or {@link Pieces#EMPTY}.
+     */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Get the square of the king of a color.
+     *
+     * @param color The color.
+     * @return The square index, or -1 if there is no king.
+     */
+    public int king(int color) {
+        return kings[color];
+    }
+
+    /**
+     * Get the color to move.
+     *
+     * @return The color to move.
+     */
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Get the castling rights.
+     *
+     * @return The castling rights bits.
+     */
+    public int castlingRights() {
+        return castling;
+    }
+
+    /**
+     * Get the en passant square.
+     *
+     * @return The en passant square index, or -1 if there is none.
+     */
+    public int enPassantSquare() {
+        return enPassant;
+    }
+
+    /**
+     * Get the number of half moves since the last capture or pawn advance.
+     *
+     * @return The half move clock.
+     */
+    public int halfMoveClock() {
+        return halfMoveClock;
+    }
+
+    /**
+     * Get the number of the full move.
+     *
+     * @return The full move number.
+     */
+    public int fullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     * Get the Zobrist hash of the position.
+     *
+     * @return The hash.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Get the number of moves made since the position was created.
+     *
+     * @return The number of moves on the undo stack.
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * Get the last move made.
+     *
+     * @return The last packed move, or {@link Moves#NONE} if no move was made.
+     */
+    public int lastMove() {
+        return ply == 0 ? Moves.NONE : undoMoves[ply - 1];
+    }
+
+    /**
+     * Get the index of a square from its algebraic name.
+     *
+     * @param name The name of the square, e.g. "e4".
+     * @return The square index.
+     */
+    public static int squareIndex(String name) {
+        return (Character.toLowerCase(name.charAt(0)) - 'a') + (name.charAt(1) - '1') * 8;
+    }
+
+    /**
+     * String representation of the position.
+     *
+     * @return The FEN string of the position.
+     */
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
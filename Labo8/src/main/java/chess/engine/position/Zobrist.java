@@ -0,0 +1,95 @@
+package chess.engine.position;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing keys. A position hash is the XOR of the keys of its pieces, side to move, castling rights and en
+ * passant file, which allows updating it incrementally when a move is made. The keys are generated from a fixed seed
+ * so hashes are stable between runs.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Zobrist {
+    /**
+     * The keys of each piece code on each square.
+     */
+    private static final long[][] PIECE_SQUARE = new long[16][64];
+
+    /**
+     * The keys of each combination of castling rights.
+     */
+    private static final long[] CASTLING = new long[16];
+
+    /**
+     * The keys of each en passant file.
+     */
+    private static final long[] EN_PASSANT = new long[8];
+
+    /**
+     * The key of the black side to move.
+     */
+    private static final long SIDE;
+
+    static {
+        var random = new SplittableRandom(0x5EED_C4E55L);
+        for (var keys : PIECE_SQUARE) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * The key of a piece on a square.
+     *
+     * @param piece  The piece code.
+     * @param square The square index.
+     * @return The key.
+     */
+    public static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * The key of a set of castling rights.
+     *
+     * @param rights The castling rights bits.
+     * @return The key.
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * The key of an en passant square.
+     *
+     * @param square The en passant square index, or -1 if there is none.
+     * @return The key, or 0 if there is no en passant square.
+     */
+    public static long enPassant(int square) {
+        return square < 0 ? 0 : EN_PASSANT[square % 8];
+    }
+
+    /**
+     * The key of the black side to move.
+     *
+     * @return The key.
+     */
+    public static long side() {
+        return SIDE;
+    }
+}
@@ -0,0 +1,235 @@
+package chess.engine.search;
+
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Hand-crafted static evaluation: material and piece-square tables, with the king table tapered between the
+ * middlegame and the endgame according to the remaining material.
+ * <p>
+ * The weights are stored in a single parameter vector so they can be tuned: the material values, indexed by piece
+ * type, then the piece-square tables of each piece type, then the king endgame table. The evaluation is linear in
+ * the parameters, which {@link #gradient} exploits.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Evaluation implements Evaluator {
+    /**
+     * The material value of each piece type, in centipawns, indexed by piece type.
+     */
+    public static final int[] VALUES = {0, 100, 500, 320, 330, 900, 0};
+
+    /**
+     * The game phase weight of each piece type, indexed by piece type.
+     */
+    private static final int[] PHASE = {0, 0, 2, 1, 1, 4, 0};
+
+    /**
+     * The game phase with all the pieces on the board.
+     */
+    private static final int MAX_PHASE = 24;
+
+    /**
+     * The offsets of the parameter groups in the parameter vector.
+     */
+    public static final int MATERIAL = 0, TABLE = 7, KING_ENDGAME_TABLE = TABLE + 7 * 64;
+
+    /**
+     * The number of parameters.
+     */
+    public static final int PARAMETERS = KING_ENDGAME_TABLE + 64;
+
+    /**
+     * The piece-square tables, indexed by piece type. The tables are written from white's point of view with the
+     * eighth rank first, so a white piece on square s reads index s ^ 56.
+     */
+    private static final int[][] TABLES = {
+            {},
+            { // Pawn
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0},
+            { // Rook
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0},
+            { // Knight
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50},
+            { // Bishop
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20},
+            { // Queen
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20},
+            { // King, middlegame
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20},
+    };
+
+    /**
+     * The king piece-square table for the endgame.
+     */
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    /**
+     * The parameters of this evaluation.
+     */
+    private final int[] parameters;
+
+    /**
+     * Default constructor, with the hand-crafted weights.
+     */
+    public Evaluation() {
+        this(defaultParameters());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parameters The parameter vector, see the class documentation. It is not copied.
+     */
+    public Evaluation(int[] parameters) {
+        if (parameters.length != PARAMETERS) {
+            throw new IllegalArgumentException("Expected " + PARAMETERS + " parameters, got " + parameters.length);
+        }
+        this.parameters = parameters;
+    }
+
+    /**
+     * Get the hand-crafted weights.
+     *
+     * @return A new parameter vector.
+     */
+    public static int[] defaultParameters() {
+        final int[] parameters = new int[PARAMETERS];
+        System.arraycopy(VALUES, 0, parameters, MATERIAL, VALUES.length);
+        for (int type = PAWN; type <= KING; type++) {
+            System.arraycopy(TABLES[type], 0, parameters, TABLE + type * 64, 64);
+        }
+        System.arraycopy(KING_ENDGAME, 0, parameters, KING_ENDGAME_TABLE, 64);
+        return parameters;
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        final int score = evaluateWhite(position);
+        return position.sideToMove() == Pieces.WHITE ? score : -score;
+    }
+
+    /**
+     * Evaluate a position from white's point of view.
+     *
+     * @param position The position.
+     * @return The score in centipawns, positive if white is better.
+     */
+    public int evaluateWhite(Position position) {
+        int score = 0, kingMiddlegame = 0, kingEndgame = 0, phase = 0;
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece == EMPTY) {
+                continue;
+            }
+            final int type = type(piece);
+            final int sign = color(piece) == WHITE ? 1 : -1;
+            final int index = color(piece) == WHITE ? square ^ 56 : square;
+            phase += PHASE[type];
+            if (type == KING) {
+                kingMiddlegame += sign * parameters[TABLE + KING * 64 + index];
+                kingEndgame += sign * parameters[KING_ENDGAME_TABLE + index];
+            } else {
+                score += sign * (parameters[MATERIAL + type] + parameters[TABLE + type * 64 + index]);
+            }
+        }
+        phase = Math.min(phase, MAX_PHASE);
+        return score + (kingMiddlegame * phase + kingEndgame * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+
+    /**
+     * Accumulate the gradient of the white evaluation of a position with respect to the parameters. Since the
+     * evaluation is linear, the gradient is the number of times each parameter is counted, white minus black, with
+     * the king tables weighted by the game phase.
+     *
+     * @param position The position.
+     * @param gradient The gradient to add to, indexed like the parameters.
+     * @param scale    The factor to apply to the gradient.
+     */
+    public static void gradient(Position position, double[] gradient, double scale) {
+        final double middlegame = (double) phase(position) / MAX_PHASE;
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece == EMPTY) {
+                continue;
+            }
+            final int type = type(piece);
+            final double sign = color(piece) == WHITE ? scale : -scale;
+            final int index = color(piece) == WHITE ? square ^ 56 : square;
+            if (type == KING) {
+                gradient[TABLE + KING * 64 + index] += sign * middlegame;
+                gradient[KING_ENDGAME_TABLE + index] += sign * (1 - middlegame);
+            } else {
+                gradient[MATERIAL + type] += sign;
+                gradient[TABLE + type * 64 + index] += sign;
+            }
+        }
+    }
+
+    /**
+     * Compute the game phase of a position, from 0 in a pawn endgame to {@link #MAX_PHASE} with all the pieces.
+     *
+     * @param position The position.
+     * @return The game phase.
+     */
+    private static int phase(Position position) {
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            phase += PHASE[type(position.pieceAt(square))];
+        }
+        return Math.min(phase, MAX_PHASE);
+    }
+}
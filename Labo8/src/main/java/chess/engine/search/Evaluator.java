@@ -0,0 +1,36 @@
+package chess.engine.search;
+
+import chess.engine.position.Position;
+
+/**
+ * Static evaluation used by the search. An evaluator keeping state derived from the position, e.g. an accumulator
+ * updated incrementally, is attached to the position for the duration of a search.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public interface Evaluator {
+    /**
+     * Evaluate a position.
+     *
+     * @param position The position.
+     * @return The score in centipawns, from the point of view of the side to move.
+     */
+    int evaluate(Position position);
+
+    /**
+     * Start following the moves made on a position, before a search.
+     *
+     * @param position The position.
+     */
+    default void attach(Position position) {
+    }
+
+    /**
+     * Stop following the moves made on a position, after a search.
+     *
+     * @param position The position.
+     */
+    default void detach(Position position) {
+    }
+}
@@ -0,0 +1,271 @@
+package chess.engine.search;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+
+/**
+ * Staged move picker. Yields the pseudo-legal moves of a position in the order most likely to produce a cutoff: the
+ * transposition table move, the winning and equal captures and promotions by most valuable victim and least valuable
+ * attacker, the killer moves, the counter-move, the quiet moves by history score and finally the captures losing
+ * material according to the static exchange evaluation. Moves are generated lazily, one stage at a time, and picked
+ * by selection so the list is never fully sorted: a cutoff on an early move saves the work of the later stages.
+ * <p>
+ * A picker is reused for every node of a given ply: {@link #init} and {@link #initQuiescence} reset it for a new
+ * position.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MovePicker {
+    /**
+     * The stages of the picker, in order.
+     */
+    private static final int TT_MOVE = 0, GENERATE_TACTICAL = 1, TACTICAL = 2, KILLER_1 = 3, KILLER_2 = 4,
+            COUNTER_MOVE = 5, GENERATE_QUIET = 6, QUIET = 7, BAD_TACTICAL = 8, DONE = 9;
+
+    /**
+     * The score offset of the tactical moves losing material, so they are picked after all the others.
+     */
+    private static final int BAD = -1_000_000;
+
+    /**
+     * The rank of each piece type as an attacker, least valuable first, indexed by piece type.
+     */
+    private static final int[] ATTACKER_RANK = {0, 0, 3, 1, 2, 4, 5};
+
+    /**
+     * The moves of the current stage and their scores.
+     */
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[256];
+
+    /**
+     * The list used to verify the pseudo-legality of the moves not generated in the position.
+     */
+    private final MoveList scratch = new MoveList(32);
+
+    /**
+     * The tactical moves losing material, deferred to the last stage.
+     */
+    private final MoveList badTactical = new MoveList(32);
+
+    /**
+     * The position and the ordering hints of the current node.
+     */
+    private Position position;
+    private int ttMove, killer1, killer2, counterMove;
+    private int[] history;
+
+    /**
+     * Whether only the winning and equal tactical moves are yielded, for the quiescence search.
+     */
+    private boolean quiescence;
+
+    /**
+     * The current stage and the index of the next move of the stage.
+     */
+    private int stage, index;
+
+    /**
+     * Reset the picker for a new node.
+     *
+     * @param position    The position of the node.
+     * @param ttMove      The move of the transposition table, or {@link Moves#NONE}.
+     * @param killer1     The first killer move of the ply, or {@link Moves#NONE}.
+     * @param killer2     The second killer move of the ply, or {@link Moves#NONE}.
+     * @param counterMove The move that last refuted the previous move, or {@link Moves#NONE}.
+     * @param history     The history scores of the side to move, indexed by from * 64 + to.
+     */
+    public void init(Position position, int ttMove, int killer1, int killer2, int counterMove, int[] history) {
+        this.position = position;
+        this.ttMove = ttMove;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.counterMove = counterMove;
+        this.history = history;
+        this.quiescence = false;
+        this.stage = TT_MOVE;
+        this.index = 0;
+    }
+
+    /**
+     * Reset the picker for a quiescence node: only the captures and queen promotions that do not lose material are
+     * yielded.
+     *
+     * @param position The position of the node.
+     */
+    public void initQuiescence(Position position) {
+        init(position, Moves.NONE, Moves.NONE, Moves.NONE, Moves.NONE, null);
+        this.quiescence = true;
+        this.stage = GENERATE_TACTICAL;
+    }
+
+    /**
+     * Get the next move.
+     *
+     * @return The next pseudo-legal move, or {@link Moves#NONE} once all the moves were returned.
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case TT_MOVE -> {
+                    stage = GENERATE_TACTICAL;
+                    if (MoveGenerator.isPseudoLegal(position, ttMove, scratch)) {
+                        return ttMove;
+                    }
+                }
+                case GENERATE_TACTICAL -> {
+                    moves.clear();
+                    badTactical.clear();
+                    MoveGenerator.generateTactical(position, moves);
+                    scoreTactical();
+                    index = 0;
+                    stage = TACTICAL;
+                }
+                case TACTICAL -> {
+                    while (index < moves.size()) {
+                        final int move = pick();
+                        if (scores[index - 1] <= BAD / 2) {
+                            // The moves are picked best first, so all the remaining ones lose material.
+                            for (int i = index - 1; i < moves.size(); i++) {
+                                badTactical.add(moves.get(i));
+                            }
+                            break;
+                        }
+                        if (move != ttMove) {
+                            return move;
+                        }
+                    }
+                    stage = quiescence ? DONE : KILLER_1;
+                }
+                case KILLER_1 -> {
+                    stage = KILLER_2;
+                    if (isQuietCandidate(killer1)) {
+                        return killer1;
+                    }
+                }
+                case KILLER_2 -> {
+                    stage = COUNTER_MOVE;
+                    if (killer2 != killer1 && isQuietCandidate(killer2)) {
+                        return killer2;
+                    }
+                }
+                case COUNTER_MOVE -> {
+                    stage = GENERATE_QUIET;
+                    if (counterMove != killer1 && counterMove != killer2 && isQuietCandidate(counterMove)) {
+                        return counterMove;
+                    }
+                }
+                case GENERATE_QUIET -> {
+                    moves.clear();
+                    MoveGenerator.generateQuiet(position, moves);
+                    scoreQuiet();
+                    index = 0;
+                    stage = QUIET;
+                }
+                case QUIET -> {
+                    while (index < moves.size()) {
+                        final int move = pick();
+                        if (move != ttMove && move != killer1 && move != killer2 && move != counterMove) {
+                            return move;
+                        }
+                    }
+                    index = 0;
+                    stage = BAD_TACTICAL;
+                }
+                case BAD_TACTICAL -> {
+                    while (index < badTactical.size()) {
+                        final int move = badTactical.get(index++);
+                        if (move != ttMove) {
+                            return move;
+                        }
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return Moves.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a killer or counter move can be played here: a quiet move, different from the transposition
+     * table move, that is pseudo-legal in the position.
+     *
+     * @param move The move.
+     * @return True if the move should be returned.
+     */
+    private boolean isQuietCandidate(int move) {
+        return move != Moves.NONE && move != ttMove && !Moves.isCapture(move) && !Moves.isPromotion(move)
+                && MoveGenerator.isPseudoLegal(position, move, scratch);
+    }
+
+    /**
+     * Score the captures and promotions: most valuable victim first, then least valuable attacker. Queen promotions
+     * count as winning a queen. Under-promotions and the captures losing material are scored below {@link #BAD}.
+     */
+    private void scoreTactical() {
+        ensureCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            int score = 0;
+            if (Moves.isCapture(move)) {
+                final int victim = Moves.flags(move) == Moves.EN_PASSANT ? Pieces.PAWN
+                        : Pieces.type(position.pieceAt(Moves.to(move)));
+                final int attacker = Pieces.type(position.pieceAt(Moves.from(move)));
+                score = Evaluation.VALUES[victim] * 8 - ATTACKER_RANK[attacker];
+                // Only a capture of a less valuable piece can lose material.
+                if (Evaluation.VALUES[victim] < Evaluation.VALUES[attacker] && StaticExchange.see(position, move) < 0) {
+                    score += BAD;
+                }
+            }
+            if (Moves.isPromotion(move)) {
+                score += Moves.promotion(move) == Pieces.QUEEN ? Evaluation.VALUES[Pieces.QUEEN] : BAD;
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Score the quiet moves by their history.
+     */
+    private void scoreQuiet() {
+        ensureCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            scores[i] = history[Moves.from(move) * 64 + Moves.to(move)];
+        }
+    }
+
+    /**
+     * Grow the score array to the size of the move list.
+     */
+    private void ensureCapacity() {
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+
+    /**
+     * Select the best remaining move of the stage and swap it at the current index.
+     *
+     * @return The best remaining move.
+     */
+    private int pick() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        moves.swap(index, best);
+        final int tmp = scores[index];
+        scores[index] = scores[best];
+        scores[best] = tmp;
+        return moves.get(index++);
+    }
+}
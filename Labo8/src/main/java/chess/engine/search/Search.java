@@ -0,0 +1,784 @@
+package chess.engine.search;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Alpha-beta search with iterative deepening and a transposition table. A search instance keeps its table between
+ * searches and is meant to play a whole game; it is not thread-safe, except for {@link #stop()}.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Search {
+    /**
+     * The maximum depth of the search, in plies.
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * The score of a mate at the root. Mates further away score lower.
+     */
+    public static final int MATE = 32000;
+
+    /**
+     * A score greater than any reachable score.
+     */
+    public static final int INFINITY = 32001;
+
+    /**
+     * The number of nodes between two checks of the time limit.
+     */
+    private static final int CHECK_INTERVAL = 2048;
+
+    /**
+     * The bound of the history scores.
+     */
+    private static final int HISTORY_MAX = 16384;
+
+    /**
+     * The minimum depth and the depth from which null move cutoffs are verified by a reduced normal search, to
+     * avoid trusting them in zugzwang positions.
+     */
+    private static final int NULL_MOVE_DEPTH = 3, NULL_MOVE_VERIFICATION_DEPTH = 8;
+
+    /**
+     * The maximum depth and the margin per depth of reverse futility pruning.
+     */
+    private static final int REVERSE_FUTILITY_DEPTH = 6, REVERSE_FUTILITY_MARGIN = 80;
+
+    /**
+     * The futility margins of the quiet moves, indexed by the remaining depth.
+     */
+    private static final int[] FUTILITY_MARGINS = {0, 150, 300, 450};
+
+    /**
+     * The minimum depth and the number of moves searched at full depth before late moves are reduced.
+     */
+    private static final int REDUCTION_DEPTH = 3, FULL_DEPTH_MOVES = 3;
+
+    /**
+     * The initial half width of the aspiration window and the depth from which it is used.
+     */
+    private static final int ASPIRATION_WINDOW = 25, ASPIRATION_DEPTH = 4;
+
+    /**
+     * The late move reductions, indexed by the remaining depth and the number of the move.
+     */
+    private static final int[][] REDUCTIONS = new int[MAX_PLY + 1][64];
+
+    static {
+        for (int depth = 1; depth <= MAX_PLY; depth++) {
+            for (int moves = 1; moves < 64; moves++) {
+                REDUCTIONS[depth][moves] = (int) (0.75 + Math.log(depth) * Math.log(moves) / 2.25);
+            }
+        }
+    }
+
+    /**
+     * The transposition table.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The static evaluation.
+     */
+    private final Evaluator evaluation;
+
+    /**
+     * The move pickers of each ply, allocated once.
+     */
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+
+    /**
+     * The quiet moves searched at each ply before the current one, to penalize them on a cutoff.
+     */
+    private final int[][] quietsSearched = new int[MAX_PLY + 1][256];
+
+    /**
+     * The two killer moves of each ply: quiet moves that recently caused a cutoff at the same distance to the root.
+     */
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+
+    /**
+     * The history scores of the quiet moves, indexed by color and from * 64 + to.
+     */
+    private final int[][] history = new int[2][64 * 64];
+
+    /**
+     * The quiet move that last refuted each move, indexed by the piece and the destination of the refuted move.
+     */
+    private final int[][] counterMoves = new int[16][64];
+
+    /**
+     * The triangular principal variation table.
+     */
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    /**
+     * Whether a stop was requested from another thread. Cleared by {@link #prepare()} only, so a stop requested
+     * before the search starts is not lost.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Whether the current search was aborted because a limit was reached.
+     */
+    private boolean aborted;
+
+    /**
+     * The counters of the current search.
+     */
+    private final SearchMetrics metrics = new SearchMetrics();
+
+    /**
+     * The limits of the current search.
+     */
+    private long nodeLimit;
+    private long deadline;
+
+    /**
+     * The selective search techniques enabled.
+     */
+    private final SearchOptions options;
+
+    /**
+     * The root moves of the lines already found at the current depth, skipped by the root search.
+     */
+    private final int[] excluded = new int[256];
+    private int excludedCount = 0;
+
+    /**
+     * The listener of the completed iterations, or null.
+     */
+    private Consumer<List<SearchResult>> listener;
+
+    /**
+     * Default constructor, with a 16 MB transposition table and all the search techniques enabled.
+     */
+    public Search() {
+        this(16);
+    }
+
+    /**
+     * Constructor, with all the search techniques enabled.
+     *
+     * @param hashMegabytes The size of the transposition table in megabytes.
+     */
+    public Search(int hashMegabytes) {
+        this(hashMegabytes, SearchOptions.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param hashMegabytes The size of the transposition table in megabytes.
+     * @param options       The selective search techniques to enable.
+     */
+    public Search(int hashMegabytes, SearchOptions options) {
+        this(hashMegabytes, options, new Evaluation());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param hashMegabytes The size of the transposition table in megabytes.
+     * @param options       The selective search techniques to enable.
+     * @param evaluation    The static evaluation.
+     */
+    public Search(int hashMegabytes, SearchOptions options, Evaluator evaluation) {
+        this.table = new TranspositionTable(hashMegabytes);
+        this.options = options;
+        this.evaluation = evaluation;
+        for (int i = 0; i < pickers.length; i++) {
+            pickers[i] = new MovePicker();
+        }
+    }
+
+    /**
+     * Search a position for the best move. The position is restored before the method returns.
+     *
+     * @param position The position to search.
+     * @param limits   The limits of the search.
+     * @return The result of the deepest completed iteration.
+     */
+    public SearchResult search(Position position, SearchLimits limits) {
+        return search(position, limits, 1).get(0);
+    }
+
+    /**
+     * Search a position for its best root moves (multi-PV). At each iteration, the root is searched once per line,
+     * excluding the moves of the lines already found at this depth, so the lines share the transposition table and
+     * the ordering statistics. The position is restored before the method returns.
+     *
+     * @param position The position to search.
+     * @param limits   The limits of the search.
+     * @param lines    The number of lines, at least 1. Fewer lines are returned if there are fewer legal moves.
+     * @return The lines of the deepest completed iteration, best first. A single line with {@link Moves#NONE} is
+     *         returned if there is no legal move.
+     */
+    public List<SearchResult> search(Position position, SearchLimits limits, int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("Invalid number of lines: " + lines + ".");
+        }
+        final long start = System.currentTimeMillis();
+        aborted = false;
+        metrics.reset();
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Moves.NONE);
+        }
+        for (int[] colorHistory : history) {
+            for (int i = 0; i < colorHistory.length; i++) {
+                colorHistory[i] /= 2; // Age the history so the scores of previous searches fade out.
+            }
+        }
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.millis() > 0 ? start + limits.millis() : Long.MAX_VALUE;
+
+        var legal = MoveGenerator.legalMoves(position);
+        if (legal.size() == 0) {
+            metrics.complete();
+            return List.of(new SearchResult(Moves.NONE, 0, 0, 0, 0, new int[0]));
+        }
+        lines = Math.min(lines, legal.size());
+        List<SearchResult> results = new ArrayList<>();
+        for (int line = 0; line < lines; line++) {
+            results.add(new SearchResult(legal.get(line), 0, 0, 0, 0, new int[0]));
+        }
+
+        evaluation.attach(position);
+        try {
+            for (int depth = 1; depth <= limits.depth(); depth++) {
+                List<SearchResult> iteration = new ArrayList<>(lines);
+                excludedCount = 0;
+                for (int line = 0; line < lines && !aborted; line++) {
+                    final int score = searchRoot(position, depth, results.get(line).score());
+                    if (aborted) {
+                        break;
+                    }
+                    final int[] pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                    final int move = pv.length > 0 ? pv[0] : results.get(line).move();
+                    iteration.add(new SearchResult(move, score, depth, metrics.nodes,
+                                                   System.currentTimeMillis() - start, pv));
+                    excluded[excludedCount++] = move;
+                }
+                if (aborted) {
+                    break;
+                }
+                // A later line may score higher when an earlier one failed low in its aspiration window.
+                iteration.sort(Comparator.comparingInt(SearchResult::score).reversed());
+                results = iteration;
+                metrics.completeIteration(depth);
+                emitIteration(results.get(0));
+                if (listener != null) {
+                    listener.accept(List.copyOf(results));
+                }
+                final var best = results.get(0);
+                if (lines == 1 && best.isMate() && best.mateIn() > 0 && best.mateIn() * 2 - 1 <= depth) {
+                    break; // No need to search deeper once the shortest mate was found.
+                }
+            }
+        } finally {
+            excludedCount = 0;
+            evaluation.detach(position);
+        }
+
+        metrics.complete();
+        final long millis = System.currentTimeMillis() - start;
+        return results.stream()
+                      .map(r -> new SearchResult(r.move(), r.score(), r.depth(), metrics.nodes, millis, r.pv()))
+                      .toList();
+    }
+
+    /**
+     * Set the listener notified of the lines found at the end of each iteration, e.g. to report the progress of an
+     * analysis. It is called on the thread of the search.
+     *
+     * @param listener The listener, or null.
+     */
+    public void setListener(Consumer<List<SearchResult>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Request the current search to stop as soon as possible. Safe to call from another thread. The request holds
+     * until {@link #prepare()} is called, so it also stops a search submitted and not started yet.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clear the stop requested by {@link #stop()}. Call it before submitting a search to another thread, once the
+     * previous search is over, rather than from the thread of the search, where it could clear a stop meant for it.
+     */
+    public void prepare() {
+        stopRequested = false;
+    }
+
+    /**
+     * Get the counters of the last search. Only meaningful once the search returned.
+     *
+     * @return The metrics of the last search.
+     */
+    public SearchMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Forget everything learnt from previous searches, e.g. before a new game.
+     */
+    public void clear() {
+        table.clear();
+        for (int[] colorHistory : history) {
+            Arrays.fill(colorHistory, 0);
+        }
+        for (int[] pieceCounterMoves : counterMoves) {
+            Arrays.fill(pieceCounterMoves, Moves.NONE);
+        }
+    }
+
+    /**
+     * Search the root at a given depth. With aspiration windows, the search starts with a narrow window around the
+     * score of the previous iteration and widens it each time the score falls outside.
+     *
+     * @param position      The position.
+     * @param depth         The depth.
+     * @param previousScore The score of the previous iteration.
+     * @return The score of the position.
+     */
+    private int searchRoot(Position position, int depth, int previousScore) {
+        if (!options.aspiration() || depth < ASPIRATION_DEPTH || Math.abs(previousScore) >= MATE - MAX_PLY) {
+            return negamax(position, depth, -INFINITY, INFINITY, 0, true);
+        }
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - delta, -INFINITY);
+        int beta = Math.min(previousScore + delta, INFINITY);
+        while (true) {
+            final int score = negamax(position, depth, alpha, beta, 0, true);
+            if (aborted || score > alpha && score < beta) {
+                return score;
+            }
+            delta *= 2;
+            if (score <= alpha) {
+                alpha = delta > 1000 ? -INFINITY : Math.max(score - delta, -INFINITY);
+            } else {
+                beta = delta > 1000 ? INFINITY : Math.min(score + delta, INFINITY);
+            }
+        }
+    }
+
+    /**
+     * Negamax alpha-beta search with principal variation search: the moves after the first are searched with a null
+     * window and only re-searched with the full window if they may improve alpha.
+     *
+     * @param position   The position.
+     * @param depth      The remaining depth.
+     * @param alpha      The lower bound.
+     * @param beta       The upper bound.
+     * @param ply        The distance to the root.
+     * @param nullMoveOk Whether a null move may be tried at this node.
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int negamax(Position position, int depth, int alpha, int beta, int ply, boolean nullMoveOk) {
+        pvLength[ply] = 0;
+        if (ply > 0 && (position.halfMoveClock() >= 100 || position.isRepetition())) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluation.evaluate(position);
+        }
+
+        final boolean inCheck = position.inCheck();
+        if (inCheck) {
+            depth++; // Check extension.
+        }
+        if (depth <= 0) {
+            return quiescence(position, alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        final long entry = table.probe(position.hash());
+        metrics.ttProbes++;
+        if (entry != 0) {
+            metrics.ttHits++;
+        }
+        final int ttMove = TranspositionTable.move(entry);
+        if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            final int score = fromTable(TranspositionTable.score(entry), ply);
+            final int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER && score >= beta
+                    || bound == TranspositionTable.UPPER && score <= alpha) {
+                return score;
+            }
+        }
+
+        final int us = position.sideToMove();
+        final boolean pvNode = beta - alpha > 1;
+        final int staticEval = inCheck || pvNode ? -INFINITY : evaluation.evaluate(position);
+        final boolean mateBounds = Math.abs(beta) >= MATE - MAX_PLY;
+
+        // Reverse futility: the position is so good that a quiet move will not bring the score below beta.
+        if (options.reverseFutility() && !pvNode && !inCheck && !mateBounds && depth <= REVERSE_FUTILITY_DEPTH
+                && staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+            return staticEval;
+        }
+
+        // Null move: if passing the turn still fails high, a real move will too. Not tried without pieces, where
+        // passing may be the best move (zugzwang).
+        if (options.nullMove() && nullMoveOk && !pvNode && !inCheck && !mateBounds && ply > 0
+                && depth >= NULL_MOVE_DEPTH && staticEval >= beta && hasPieces(position, us)) {
+            final int reduction = depth > 6 ? 3 : 2;
+            position.makeNull();
+            int score = -negamax(position, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            position.unmakeNull();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta && depth >= NULL_MOVE_VERIFICATION_DEPTH) {
+                score = negamax(position, depth - 1 - reduction, beta - 1, beta, ply, false);
+                pvLength[ply] = 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+
+        final boolean futile = options.futility() && !pvNode && !inCheck && depth < FUTILITY_MARGINS.length
+                && Math.abs(alpha) < MATE - MAX_PLY && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+
+        final int previous = position.lastMove();
+        final int counterMove = previous == Moves.NONE ? Moves.NONE
+                : counterMoves[position.pieceAt(Moves.to(previous))][Moves.to(previous)];
+        final MovePicker picker = pickers[ply];
+        picker.init(position, ttMove, killers[ply][0], killers[ply][1], counterMove, history[us]);
+
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        int legalMoves = 0;
+        int quiets = 0;
+
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            if (ply == 0 && isExcluded(move)) {
+                continue;
+            }
+            position.make(move);
+            if (position.king(us) >= 0 && position.isAttacked(position.king(us), us ^ 1)) {
+                position.unmake();
+                continue;
+            }
+            legalMoves++;
+            final boolean quiet = isQuiet(move);
+            final boolean givesCheck = position.inCheck();
+
+            // Futility: near the horizon, a quiet move will not raise a position far below alpha.
+            if (futile && quiet && !givesCheck && legalMoves > 1) {
+                position.unmake();
+                continue;
+            }
+
+            int score;
+            if (legalMoves == 1) {
+                score = -negamax(position, depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // Late move reductions: the moves ordered last are unlikely to be best, search them shallower.
+                int reduction = 0;
+                if (options.lateMoveReduction() && quiet && !inCheck && !givesCheck && depth >= REDUCTION_DEPTH
+                        && legalMoves > FULL_DEPTH_MOVES) {
+                    reduction = REDUCTIONS[Math.min(depth, MAX_PLY)][Math.min(legalMoves, 63)];
+                    reduction -= history[us][Moves.from(move) * 64 + Moves.to(move)] / (HISTORY_MAX / 2);
+                    reduction += pvNode ? -1 : 0;
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                score = -negamax(position, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(position, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(position, depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            position.unmake();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        metrics.cutoffs++;
+                        if (legalMoves == 1) {
+                            metrics.firstMoveCutoffs++;
+                        }
+                        if (isQuiet(move)) {
+                            updateQuietStatistics(position, move, previous, depth, ply, quiets);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet && quiets < quietsSearched[ply].length) {
+                quietsSearched[ply][quiets++] = move;
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        // The root of a later line is not the true root: its best move is only the best of the remaining moves.
+        if (ply > 0 || excludedCount == 0) {
+            final int bound = bestScore >= beta ? TranspositionTable.LOWER
+                    : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(position.hash(), bestMove, toTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Quiescence search: search the captures and queen promotions until the position is quiet, so the static
+     * evaluation is never taken in the middle of an exchange. The side to move may stand pat on the static evaluation
+     * instead of capturing, and captures losing material according to the static exchange evaluation are skipped.
+     * In check, all the evasions are searched.
+     *
+     * @param position The position.
+     * @param alpha    The lower bound.
+     * @param beta     The upper bound.
+     * @param ply      The distance to the root.
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int quiescence(Position position, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+        metrics.qnodes++;
+        if (ply >= MAX_PLY) {
+            return evaluation.evaluate(position);
+        }
+
+        final boolean inCheck = position.inCheck();
+        final int us = position.sideToMove();
+        final MovePicker picker = pickers[ply];
+        int bestScore;
+        if (inCheck) {
+            bestScore = -INFINITY;
+            picker.init(position, Moves.NONE, Moves.NONE, Moves.NONE, Moves.NONE, history[us]);
+        } else {
+            bestScore = evaluation.evaluate(position);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+            picker.initQuiescence(position);
+        }
+
+        int legalMoves = 0;
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            position.make(move);
+            if (position.king(us) >= 0 && position.isAttacked(position.king(us), us ^ 1)) {
+                position.unmake();
+                continue;
+            }
+            legalMoves++;
+            final int score = -quiescence(position, -beta, -alpha, ply + 1);
+            position.unmake();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (inCheck && legalMoves == 0) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Check whether a color has pieces other than pawns and the king.
+     *
+     * @param position The position.
+     * @param color    The color.
+     * @return True if the color has a knight, a bishop, a rook or a queen.
+     */
+    private static boolean hasPieces(Position position, int color) {
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece != Pieces.EMPTY && Pieces.color(piece) == color && Pieces.type(piece) != Pieces.PAWN
+                    && Pieces.type(piece) != Pieces.KING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count a node and periodically check the limits of the search.
+     *
+     * @return True if the search was aborted.
+     */
+    private boolean countNode() {
+        if (++metrics.nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        return aborted;
+    }
+
+    /**
+     * Check whether a move is quiet for the ordering heuristics: neither a capture nor a promotion.
+     *
+     * @param move The move.
+     * @return True if the move is quiet.
+     */
+    private static boolean isQuiet(int move) {
+        return !Moves.isCapture(move) && !Moves.isPromotion(move);
+    }
+
+    /**
+     * Update the killers, the counter-move and the history after a quiet move caused a cutoff. The quiet moves
+     * searched before it are penalized.
+     *
+     * @param position The position, with the cutoff move unmade.
+     * @param move     The move that caused the cutoff.
+     * @param previous The move that led to the position, or {@link Moves#NONE}.
+     * @param depth    The remaining depth.
+     * @param ply      The distance to the root.
+     * @param quiets   The number of quiet moves searched before the cutoff move.
+     */
+    private void updateQuietStatistics(Position position, int move, int previous, int depth, int ply, int quiets) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (previous != Moves.NONE) {
+            counterMoves[position.pieceAt(Moves.to(previous))][Moves.to(previous)] = move;
+        }
+        final int[] scores = history[position.sideToMove()];
+        final int bonus = Math.min(depth * depth, HISTORY_MAX / 4);
+        addHistory(scores, move, bonus);
+        for (int i = 0; i < quiets; i++) {
+            addHistory(scores, quietsSearched[ply][i], -bonus);
+        }
+    }
+
+    /**
+     * Add a bonus to the history score of a move. The score is scaled down as it approaches the maximum, so it
+     * stays bounded and recent results weigh more than old ones.
+     *
+     * @param scores The history scores of the side to move.
+     * @param move   The move.
+     * @param bonus  The bonus, negative for a penalty.
+     */
+    private static void addHistory(int[] scores, int move, int bonus) {
+        final int index = Moves.from(move) * 64 + Moves.to(move);
+        scores[index] += bonus - scores[index] * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    /**
+     * Prepend a move to the principal variation of the next ply.
+     *
+     * @param ply  The ply of the move.
+     * @param move The move.
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Abort the search if a limit was reached or a stop was requested.
+     */
+    private void checkLimits() {
+        if (stopRequested || metrics.nodes >= nodeLimit || System.currentTimeMillis() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * Commit a Flight Recorder event for a completed iteration, if the event is enabled.
+     *
+     * @param result The result of the iteration.
+     */
+    private void emitIteration(SearchResult result) {
+        final var event = new SearchIterationEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.depth = result.depth();
+        event.score = result.score();
+        event.bestMove = Moves.uci(result.move());
+        event.nodes = metrics.nodes;
+        event.qnodes = metrics.qnodes;
+        event.ttProbes = metrics.ttProbes;
+        event.ttHitRate = metrics.ttHitRate();
+        event.firstMoveCutoffRate = metrics.firstMoveCutoffRate();
+        event.effectiveBranchingFactor = metrics.effectiveBranchingFactor();
+        event.commit();
+    }
+
+    /**
+     * Check whether a root move belongs to a line already found at the current depth.
+     *
+     * @param move The move.
+     * @return True if the move must be skipped.
+     */
+    private boolean isExcluded(int move) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (excluded[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert a mate score relative to the root to a score relative to the current node, for storage.
+     *
+     * @param score The score.
+     * @param ply   The distance to the root.
+     * @return The score to store.
+     */
+    private static int toTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    /**
+     * Convert a stored mate score back to a score relative to the root.
+     *
+     * @param score The stored score.
+     * @param ply   The distance to the root.
+     * @return The score.
+     */
+    private static int fromTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+}
@@ -0,0 +1,52 @@
+package chess.engine.search;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event committed at the end of each iteration of the search, so profiles show the progress and the
+ * efficiency of the search. Enable with {@code -XX:StartFlightRecording} and look for "chess.SearchIteration".
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+@Name("chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@Description("An iteration of the iterative deepening search")
+@StackTrace(false)
+class SearchIterationEvent extends Event {
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    int score;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Quiescence Nodes")
+    long qnodes;
+
+    @Label("TT Probes")
+    long ttProbes;
+
+    @Label("TT Hit Rate")
+    @Percentage
+    double ttHitRate;
+
+    @Label("First Move Cutoff Rate")
+    @Percentage
+    double firstMoveCutoffRate;
+
+    @Label("Effective Branching Factor")
+    double effectiveBranchingFactor;
+}
@@ -0,0 +1,68 @@
+package chess.engine.search;
+
+/**
+ * Limits of a search. A search stops as soon as one of its limits is reached; a zero node or time limit means no
+ * limit.
+ *
+ * @param depth  The maximum depth, in plies.
+ * @param nodes  The maximum number of nodes.
+ * @param millis The maximum time, in milliseconds.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+    /**
+     * Canonical constructor.
+     *
+     * @param depth  The maximum depth, in plies.
+     * @param nodes  The maximum number of nodes.
+     * @param millis The maximum time, in milliseconds.
+     */
+    public SearchLimits {
+        if (depth < 1 || depth > Search.MAX_PLY) {
+            throw new IllegalArgumentException("Invalid search depth: " + depth + ".");
+        }
+        if (nodes < 0 || millis < 0) {
+            throw new IllegalArgumentException("Search limits cannot be negative.");
+        }
+    }
+
+    /**
+     * Limit the search to a depth.
+     *
+     * @param depth The maximum depth, in plies.
+     * @return The limits.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * Limit the search to a number of nodes.
+     *
+     * @param nodes The maximum number of nodes.
+     * @return The limits.
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY, nodes, 0);
+    }
+
+    /**
+     * Limit the search to a duration.
+     *
+     * @param millis The maximum time, in milliseconds.
+     * @return The limits.
+     */
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(Search.MAX_PLY, 0, millis);
+    }
+
+    /**
+     * No limit: the search runs until it is stopped.
+     *
+     * @return The limits.
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(Search.MAX_PLY, 0, 0);
+    }
+}
@@ -0,0 +1,174 @@
+package chess.engine.search;
+
+import java.util.Arrays;
+
+/**
+ * Counters of a search: nodes, quiescence nodes, transposition table probes and
+ * hits, beta cutoffs and how many of them happened on the first move searched. The counters are reset at the start
+ * of each search and updated by the search thread only.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class SearchMetrics {
+    /**
+     * The counters.
+     */
+    long nodes, qnodes, ttProbes, ttHits, cutoffs, firstMoveCutoffs;
+
+    /**
+     * The total number of nodes at the end of each completed iteration, indexed by depth.
+     */
+    private final long[] iterationNodes = new long[Search.MAX_PLY + 1];
+
+    /**
+     * The deepest completed iteration.
+     */
+    private int depth;
+
+    /**
+     * The start time of the search, in nanoseconds.
+     */
+    private long startNanos;
+
+    /**
+     * The time spent by the search, in nanoseconds. Updated at the end of each iteration.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Reset the counters before a new search.
+     */
+    void reset() {
+        nodes = qnodes = ttProbes = ttHits = cutoffs = firstMoveCutoffs = 0;
+        Arrays.fill(iterationNodes, 0);
+        depth = 0;
+        startNanos = System.nanoTime();
+        elapsedNanos = 0;
+    }
+
+    /**
+     * Record the end of an iteration.
+     *
+     * @param depth The depth of the iteration.
+     */
+    void completeIteration(int depth) {
+        this.depth = depth;
+        iterationNodes[depth] = nodes;
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Record the end of the search.
+     */
+    void complete() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Get the number of nodes searched, quiescence nodes included.
+     *
+     * @return The number of nodes.
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the number of nodes searched by the quiescence search.
+     *
+     * @return The number of quiescence nodes.
+     */
+    public long qnodes() {
+        return qnodes;
+    }
+
+    /**
+     * Get the number of transposition table probes.
+     *
+     * @return The number of probes.
+     */
+    public long ttProbes() {
+        return ttProbes;
+    }
+
+    /**
+     * Get the number of transposition table probes that found the position.
+     *
+     * @return The number of hits.
+     */
+    public long ttHits() {
+        return ttHits;
+    }
+
+    /**
+     * Get the ratio of transposition table probes that found the position.
+     *
+     * @return The hit rate, between 0 and 1.
+     */
+    public double ttHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    /**
+     * Get the number of beta cutoffs.
+     *
+     * @return The number of cutoffs.
+     */
+    public long cutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Get the ratio of beta cutoffs produced by the first move searched. A measure of the move ordering quality.
+     *
+     * @return The first move cutoff rate, between 0 and 1.
+     */
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Get the effective branching factor: the growth of the tree between the last two completed iterations.
+     *
+     * @return The effective branching factor, or 0 if less than two iterations were completed.
+     */
+    public double effectiveBranchingFactor() {
+        if (depth < 2 || iterationNodes[depth - 1] == 0) {
+            return 0;
+        }
+        final long previous = iterationNodes[depth - 1] - iterationNodes[depth - 2];
+        final long last = iterationNodes[depth] - iterationNodes[depth - 1];
+        return previous == 0 ? 0 : (double) last / previous;
+    }
+
+    /**
+     * Get the search speed.
+     *
+     * @return The number of nodes per second.
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * Get the time spent by the search.
+     *
+     * @return The time, in milliseconds.
+     */
+    public long millis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * String representation of the metrics.
+     *
+     * @return The counters and ratios of the search.
+     */
+    @Override
+    public String toString() {
+        return String.format("nodes %d (q %d), %d nps, tt %d/%d (%.1f%%), cutoffs %d (first move %.1f%%), ebf %.2f",
+                             nodes, qnodes, nodesPerSecond(), ttHits, ttProbes, ttHitRate() * 100, cutoffs,
+                             firstMoveCutoffRate() * 100, effectiveBranchingFactor());
+    }
+}
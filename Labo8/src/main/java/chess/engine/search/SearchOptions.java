@@ -0,0 +1,43 @@
+package chess.engine.search;
+
+/**
+ * Switches of the selective search techniques, so the gain of each one can be measured separately.
+ *
+ * @param nullMove          Whether null move pruning is enabled.
+ * @param lateMoveReduction Whether late move reductions are enabled.
+ * @param futility          Whether futility pruning of quiet moves near the horizon is enabled.
+ * @param reverseFutility   Whether reverse futility (static null move) pruning is enabled.
+ * @param aspiration        Whether aspiration windows are used at the root.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record SearchOptions(boolean nullMove, boolean lateMoveReduction, boolean futility, boolean reverseFutility,
+                            boolean aspiration) {
+    /**
+     * All the techniques enabled.
+     */
+    public static final SearchOptions DEFAULT = new SearchOptions(true, true, true, true, true);
+
+    /**
+     * All the techniques disabled: a plain alpha-beta search.
+     */
+    public static final SearchOptions NONE = new SearchOptions(false, false, false, false, false);
+
+    /**
+     * Copy the options with one technique switched.
+     *
+     * @param option  The name of the technique: nmp, lmr, futility, rfp or aspiration.
+     * @param enabled Whether the technique is enabled.
+     * @return The new options.
+     */
+    public SearchOptions with(String option, boolean enabled) {
+        return switch (option) {
+            case "nmp" -> new SearchOptions(enabled, lateMoveReduction, futility, reverseFutility, aspiration);
+            case "lmr" -> new SearchOptions(nullMove, enabled, futility, reverseFutility, aspiration);
+            case "futility" -> new SearchOptions(nullMove, lateMoveReduction, enabled, reverseFutility, aspiration);
+            case "rfp" -> new SearchOptions(nullMove, lateMoveReduction, futility, enabled, aspiration);
+            case "aspiration" -> new SearchOptions(nullMove, lateMoveReduction, futility, reverseFutility, enabled);
+            default -> throw new IllegalArgumentException("Unknown search option: " + option);
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package chess.engine.search;
+
+import chess.engine.position.Moves;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Result of a search.
+ *
+ * @param move   The best move, or {@link Moves#NONE} if the position has no legal move.
+ * @param score  The score of the best move, in centipawns from the point of view of the side to move.
+ * @param depth  The depth of the last completed iteration.
+ * @param nodes  The number of nodes searched.
+ * @param millis The time spent, in milliseconds.
+ * @param pv     The principal variation, starting with the best move.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long millis, int[] pv) {
+    /**
+     * Whether the score is a mate score.
+     *
+     * @return True if the score announces a mate.
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * The number of moves until mate, negative if the side to move is mated.
+     *
+     * @return The number of full moves until mate.
+     */
+    public int mateIn() {
+        return score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2;
+    }
+
+    /**
+     * The principal variation in UCI notation.
+     *
+     * @return The moves of the principal variation separated by spaces.
+     */
+    public String pvString() {
+        return Arrays.stream(pv).mapToObj(Moves::uci).collect(Collectors.joining(" "));
+    }
+
+    /**
+     * String representation of the result.
+     *
+     * @return The best move, score and statistics of the search.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s (%s, depth %d, %d nodes, %d ms)", Moves.uci(move),
+                             isMate() ? "mate " + mateIn() : score + " cp", depth, nodes, millis);
+    }
+}
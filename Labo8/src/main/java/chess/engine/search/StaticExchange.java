@@ -0,0 +1,138 @@
+package chess.engine.search;
+
+import chess.engine.position.Attacks;
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+
+import static chess.engine.position.Pieces.*;
+
+/**
+ * Static exchange evaluation (SEE). Computes the material balance of the sequence of captures on the destination
+ * square of a move, each side recapturing with its least valuable attacker and being free to stop when continuing
+ * would lose material. Pieces removed from the square's lines reveal the sliders behind them (x-rays).
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class StaticExchange {
+    /**
+     * The value of each piece type in an exchange, indexed by piece type. The king cannot be captured, so any
+     * exchange ending with its capture is never chosen.
+     */
+    private static final int[] VALUES = {0, 100, 500, 320, 330, 900, 20_000};
+
+    /**
+     * The piece types in the order attackers are chosen, least valuable first.
+     */
+    private static final int[] ATTACKER_ORDER = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+
+    /**
+     * The maximum number of captures in an exchange: every piece of the board.
+     */
+    private static final int MAX_CAPTURES = 32;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StaticExchange() {
+    }
+
+    /**
+     * Evaluate the exchange started by a move.
+     *
+     * @param position The position, before the move.
+     * @param move     The move, usually a capture.
+     * @return The material won by the side to move, in centipawns. Negative if the move loses material.
+     */
+    public static int see(Position position, int move) {
+        final int from = Moves.from(move);
+        final int to = Moves.to(move);
+        final int us = position.sideToMove();
+        final int[] gain = new int[MAX_CAPTURES];
+
+        long occupied = 0;
+        for (int square = 0; square < 64; square++) {
+            if (position.pieceAt(square) != EMPTY) {
+                occupied |= 1L << square;
+            }
+        }
+
+        int attacker = from;
+        int attackerValue = VALUES[type(position.pieceAt(from))];
+        if (Moves.flags(move) == Moves.EN_PASSANT) {
+            gain[0] = VALUES[PAWN];
+            occupied &= ~(1L << (us == WHITE ? to - 8 : to + 8));
+        } else {
+            gain[0] = VALUES[type(position.pieceAt(to))];
+        }
+        if (Moves.isPromotion(move)) {
+            gain[0] += VALUES[Moves.promotion(move)] - VALUES[PAWN];
+            attackerValue = VALUES[Moves.promotion(move)];
+        }
+
+        int depth = 0;
+        int side = us;
+        do {
+            depth++;
+            // The balance if the piece that just captured is captured in turn.
+            gain[depth] = attackerValue - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break; // Neither side can gain by continuing.
+            }
+            occupied &= ~(1L << attacker);
+            side ^= 1;
+            attacker = leastValuableAttacker(position, to, side, occupied);
+            if (attacker >= 0) {
+                attackerValue = VALUES[type(position.pieceAt(attacker))];
+            }
+        } while (attacker >= 0 && depth + 1 < MAX_CAPTURES);
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * Find the least valuable piece of a color attacking a square, considering only the pieces still on the board.
+     *
+     * @param position The position.
+     * @param square   The attacked square.
+     * @param color    The attacking color.
+     * @param occupied The squares still occupied, as a bit set.
+     * @return The square of the attacker, or -1 if there is none.
+     */
+    private static int leastValuableAttacker(Position position, int square, int color, long occupied) {
+        for (int type : ATTACKER_ORDER) {
+            final int piece = of(type, color);
+            final int[] sources = switch (type) {
+                case PAWN -> Attacks.PAWN[color ^ 1][square];
+                case KNIGHT -> Attacks.KNIGHT[square];
+                case KING -> Attacks.KING[square];
+                default -> null;
+            };
+            if (sources != null) {
+                for (int from : sources) {
+                    if ((occupied & (1L << from)) != 0 && position.pieceAt(from) == piece) {
+                        return from;
+                    }
+                }
+                continue;
+            }
+            for (int direction = 0; direction < Attacks.DIRECTIONS; direction++) {
+                final boolean diagonal = Attacks.isDiagonal(direction);
+                if (type == BISHOP && !diagonal || type == ROOK && diagonal) {
+                    continue;
+                }
+                for (int from : Attacks.RAYS[square][direction]) {
+                    if ((occupied & (1L << from)) != 0) {
+                        if (position.pieceAt(from) == piece) {
+                            return from;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,119 @@
+package chess.engine.search;
+
+import chess.engine.position.Moves;
+
+import java.util.Arrays;
+
+/**
+ * Transposition table. Stores the result of the search of a position, keyed by its Zobrist hash, so positions
+ * reached through different move orders are only searched once. Each entry is packed in two longs (the key and the
+ * data) and always replaces the previous entry of its slot.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class TranspositionTable {
+    /**
+     * Bound types of a stored score.
+     */
+    public static final int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    /**
+     * The keys and data of the entries, interleaved.
+     */
+    private final long[] entries;
+
+    /**
+     * The mask to apply to a hash to get the index of its slot.
+     */
+    private final int mask;
+
+    /**
+     * Constructor.
+     *
+     * @param megabytes The size of the table in megabytes. Rounded down to a power of two number of entries.
+     */
+    public TranspositionTable(int megabytes) {
+        long slots = Math.max(1024, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 28));
+        this.entries = new long[size * 2];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @param hash The hash of the position.
+     * @return The packed data of the entry, or 0 if the position is not in the table.
+     */
+    public long probe(long hash) {
+        final int index = ((int) hash & mask) << 1;
+        return entries[index] == hash ? entries[index + 1] : 0;
+    }
+
+    /**
+     * Store the result of a search.
+     *
+     * @param hash  The hash of the position.
+     * @param move  The best move found, or {@link Moves#NONE}.
+     * @param score The score of the position.
+     * @param depth The depth of the search.
+     * @param bound The bound type of the score.
+     */
+    public void store(long hash, int move, int score, int depth, int bound) {
+        final int index = ((int) hash & mask) << 1;
+        entries[index] = hash;
+        entries[index + 1] = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | (1L << 42); // Marks the entry as used, so an empty data is never a valid entry.
+    }
+
+    /**
+     * Clear the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * The move of an entry.
+     *
+     * @param data The packed data.
+     * @return The packed move.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * The score of an entry.
+     *
+     * @param data The packed data.
+     * @return The score.
+     */
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    /**
+     * The depth of an entry.
+     *
+     * @param data The packed data.
+     * @return The depth.
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    /**
+     * The bound type of an entry.
+     *
+     * @param data The packed data.
+     * @return The bound type.
+     */
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+}
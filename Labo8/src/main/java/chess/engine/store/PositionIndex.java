@@ -0,0 +1,279 @@
+package chess.engine.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Off-heap set of 64-bit keys, such as the Zobrist hashes of positions, with a 64-bit value per key. The keys are
+ * stored by open addressing with linear probing in direct buffers, so billions of keys use 16 bytes each and no
+ * heap object. A table larger than a buffer of 1 GiB is split in stripes, each in its own buffer, selected by the high
+ * bits of the key.
+ * <p>
+ * Inserts are lock-free and may run concurrently: a slot is claimed by a compare-and-set of its key, then its value is
+ * published. The capacity is fixed when the index is created; inserting beyond it throws an exception.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PositionIndex {
+    /**
+     * The value returned when a key is absent. It cannot be stored.
+     */
+    public static final long ABSENT = -1;
+
+    /**
+     * The maximum load factor of a stripe.
+     */
+    private static final double MAX_LOAD = 0.75;
+
+    /**
+     * The maximum number of slots of a stripe, so it fits a buffer.
+     */
+    private static final int MAX_STRIPE_SLOTS = 1 << 26;
+
+    /**
+     * The access to the longs of the buffers, with the memory ordering and atomic operations.
+     */
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+                                                                                  ByteOrder.nativeOrder());
+
+    /**
+     * The stripes. Each slot is the key and the complement of the value, so a zero value is a value not published yet.
+     * The empty key is 0; the key 0 itself is kept apart.
+     */
+    private final ByteBuffer[] stripes;
+
+    /**
+     * The number of keys of each stripe, and the maximum.
+     */
+    private final AtomicIntegerArray stripeSizes;
+    private final int maxStripeSize;
+
+    /**
+     * The number of stripe bits, and the mask of the slot index in a stripe.
+     */
+    private final int stripeShift;
+    private final int slotMask;
+
+    /**
+     * The value of the key 0, or {@link #ABSENT}.
+     */
+    private final AtomicLong zeroValue = new AtomicLong(ABSENT);
+
+    /**
+     * The metrics of the probes.
+     */
+    private final LongAdder inserts = new LongAdder(), probes = new LongAdder();
+    private final AtomicLong maxProbe = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The number of keys the index must hold.
+     */
+    public PositionIndex(long capacity) {
+        int stripeCount = 1;
+        while (stripeKeys(capacity, stripeCount) / MAX_LOAD > MAX_STRIPE_SLOTS) {
+            stripeCount *= 2;
+        }
+        final int stripeSlots = (int) Long.highestOneBit(
+                Math.max(64, (long) Math.ceil(stripeKeys(capacity, stripeCount) / MAX_LOAD)) * 2 - 1);
+        this.stripes = new ByteBuffer[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = ByteBuffer.allocateDirect(stripeSlots * 16 + 8).alignedSlice(8).order(ByteOrder.nativeOrder());
+        }
+        this.stripeSizes = new AtomicIntegerArray(stripeCount);
+        this.maxStripeSize = (int) (stripeSlots * MAX_LOAD);
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+        this.slotMask = stripeSlots - 1;
+    }
+
+    /**
+     * Get the number of keys a stripe must hold so the index holds its capacity. The keys do not spread evenly over
+     * several stripes, so each one has room for eight standard deviations above the average.
+     *
+     * @param capacity    The number of keys of the index.
+     * @param stripeCount The number of stripes.
+     * @return The number of keys of a stripe.
+     */
+    private static double stripeKeys(long capacity, int stripeCount) {
+        final double average = (double) capacity / stripeCount;
+        return stripeCount == 1 ? average : average + 8 * Math.sqrt(average) + 64;
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param key The key.
+     * @return True if the key was not in the index.
+     */
+    public boolean add(long key) {
+        return putIfAbsent(key, 0) == ABSENT;
+    }
+
+    /**
+     * Add a key with a value, unless the key is already in the index.
+     *
+     * @param key   The key.
+     * @param value The value, any but {@link #ABSENT}.
+     * @return The value of the key if it was already in the index, {@link #ABSENT} otherwise.
+     */
+    public long putIfAbsent(long key, long value) {
+        if (value == ABSENT) {
+            throw new IllegalArgumentException("The value " + ABSENT + " cannot be stored.");
+        }
+        if (key == 0) {
+            return zeroValue.compareAndExchange(ABSENT, value);
+        }
+        final long mixed = mix(key);
+        final int stripe = stripeShift == 64 ? 0 : (int) (mixed >>> stripeShift);
+        final ByteBuffer buffer = stripes[stripe];
+        int slot = (int) mixed & slotMask;
+        for (int probe = 1; ; probe++, slot = (slot + 1) & slotMask) {
+            final int offset = slot * 16;
+            long current = (long) LONGS.getAcquire(buffer, offset);
+            if (current == 0) {
+                if (stripeSizes.get(stripe) >= maxStripeSize) {
+                    throw new IllegalStateException("The position index is full.");
+                }
+                current = (long) LONGS.compareAndExchange(buffer, offset, 0L, key);
+                if (current == 0) {
+                    LONGS.setRelease(buffer, offset + 8, ~value);
+                    stripeSizes.incrementAndGet(stripe);
+                    record(probe);
+                    return ABSENT;
+                }
+            }
+            if (current == key) {
+                return value(buffer, offset);
+            }
+            if (probe > slotMask) {
+                throw new IllegalStateException("The position index is full.");
+            }
+        }
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or {@link #ABSENT} if the key is not in the index.
+     */
+    public long get(long key) {
+        if (key == 0) {
+            return zeroValue.get();
+        }
+        final long mixed = mix(key);
+        final ByteBuffer buffer = stripes[stripeShift == 64 ? 0 : (int) (mixed >>> stripeShift)];
+        int slot = (int) mixed & slotMask;
+        for (int probe = 0; probe <= slotMask; probe++, slot = (slot + 1) & slotMask) {
+            final long current = (long) LONGS.getAcquire(buffer, slot * 16);
+            if (current == 0) {
+                return ABSENT;
+            } else if (current == key) {
+                return value(buffer, slot * 16);
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Check whether a key is in the index.
+     *
+     * @param key The key.
+     * @return True if the key is in the index.
+     */
+    public boolean contains(long key) {
+        return get(key) != ABSENT;
+    }
+
+    /**
+     * Get the number of keys.
+     *
+     * @return The number of keys.
+     */
+    public long size() {
+        long size = zeroValue.get() == ABSENT ? 0 : 1;
+        for (int i = 0; i < stripeSizes.length(); i++) {
+            size += stripeSizes.get(i);
+        }
+        return size;
+    }
+
+    /**
+     * Get the metrics of the index.
+     *
+     * @return The metrics.
+     */
+    public Metrics metrics() {
+        final long capacity = (long) stripes.length * (slotMask + 1);
+        final long count = inserts.sum();
+        return new Metrics(size(), capacity, (double) size() / capacity,
+                           count == 0 ? 0 : (double) probes.sum() / count, maxProbe.get(),
+                           capacity * 16 / (1024 * 1024));
+    }
+
+    /**
+     * Wait for the value of a claimed slot to be published, and read it.
+     *
+     * @param buffer The stripe.
+     * @param offset The offset of the slot.
+     * @return The value.
+     */
+    private static long value(ByteBuffer buffer, int offset) {
+        long stored;
+        while ((stored = (long) LONGS.getAcquire(buffer, offset + 8)) == 0) {
+            Thread.onSpinWait();
+        }
+        return ~stored;
+    }
+
+    /**
+     * Account for the probe length of an insert.
+     *
+     * @param probe The number of slots probed.
+     */
+    private void record(int probe) {
+        inserts.increment();
+        probes.add(probe);
+        if (probe > maxProbe.get()) {
+            maxProbe.accumulateAndGet(probe, Math::max);
+        }
+    }
+
+    /**
+     * Mix the bits of a key, so keys that are not uniformly distributed still spread over the stripes and slots.
+     *
+     * @param key The key.
+     * @return The mixed key.
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Metrics of the index.
+     *
+     * @param size               The number of keys.
+     * @param capacity           The number of slots.
+     * @param loadFactor         The ratio of used slots.
+     * @param averageProbeLength The average number of slots probed by the inserts.
+     * @param maxProbeLength     The largest number of slots probed by an insert.
+     * @param megabytes          The off-heap memory used.
+     */
+    public record Metrics(long size, long capacity, double loadFactor, double averageProbeLength, long maxProbeLength,
+                          long megabytes) {
+        @Override
+        public String toString() {
+            return String.format("%d keys, %d slots (%d MB), load %.2f, probes avg %.2f max %d", size, capacity,
+                                 megabytes, loadFactor, averageProbeLength, maxProbeLength);
+        }
+    }
+}
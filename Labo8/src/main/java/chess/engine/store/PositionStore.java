@@ -0,0 +1,326 @@
+package chess.engine.store;
+
+import chess.engine.position.PackedPosition;
+import chess.engine.position.Position;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of positions in the {@link PackedPosition} format, with random access by index. The file is a
+ * {@value #HEADER_BYTES}-byte header followed by the records, so the number of positions is given by the size of the
+ * file and an append never rewrites anything. The appended positions are buffered and written in large blocks; the
+ * file is read through memory mappings of up to 1 GiB each, so billions of positions can be stored and scanned
+ * without copying them to the heap.
+ * <p>
+ * A store is not thread-safe.
+ * <p>
+ * Usage: {@code PositionStore pack positions.epd positions.bin [--unique]}, {@code PositionStore scan positions.bin}
+ * or {@code PositionStore get positions.bin index}. With {@code --unique}, the positions whose Zobrist hash is already
+ * in the store are skipped, using a {@link PositionIndex}.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PositionStore implements Closeable {
+    /**
+     * The size of the header, a record long so the records stay aligned.
+     */
+    public static final int HEADER_BYTES = PackedPosition.BYTES;
+
+    /**
+     * The magic number of the header, "CHESSPOS", and the version of the format.
+     */
+    private static final long MAGIC = 0x534F505353454843L;
+    private static final int VERSION = 1;
+
+    /**
+     * The number of records per memory mapping.
+     */
+    private static final int SEGMENT_RECORDS = 1 << 25;
+
+    /**
+     * The number of records buffered before they are written.
+     */
+    private static final int BUFFER_RECORDS = 4096;
+
+    /**
+     * The file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The records appended and not written yet.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * PackedPosition.BYTES)
+                                                .order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The number of records written to the file.
+     */
+    private long written;
+
+    /**
+     * The memory mappings of the written records, and the number of records they cover.
+     */
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private long mapped = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param channel The file, with a valid header.
+     * @param written The number of records of the file.
+     */
+    private PositionStore(FileChannel channel, long written) {
+        this.channel = channel;
+        this.written = written;
+    }
+
+    /**
+     * Open a store, creating it if the file does not exist. A partial record at the end of the file, left by an
+     * interrupted append, is ignored and overwritten by the next append.
+     *
+     * @param path The path of the file.
+     * @return The store.
+     * @throws IOException If the file cannot be opened or is not a position store.
+     */
+    public static PositionStore open(Path path) throws IOException {
+        final var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                             StandardOpenOption.WRITE);
+        try {
+            final var header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() == 0) {
+                header.putLong(MAGIC).putInt(VERSION).putInt(PackedPosition.BYTES).clear();
+                channel.write(header, 0);
+            } else {
+                channel.read(header, 0);
+                if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION
+                        || header.getInt(12) != PackedPosition.BYTES) {
+                    throw new IOException("Not a position store: " + path);
+                }
+            }
+            return new PositionStore(channel, (channel.size() - HEADER_BYTES) / PackedPosition.BYTES);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of positions of the store, including the ones not written yet.
+     *
+     * @return The number of positions.
+     */
+    public long size() {
+        return written + buffer.position() / PackedPosition.BYTES;
+    }
+
+    /**
+     * Append a position.
+     *
+     * @param position The position.
+     * @param label    The label of the position.
+     * @return The index of the position.
+     * @throws IOException If the buffered positions cannot be written.
+     */
+    public long append(Position position, int label) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        PackedPosition.encode(position, label, buffer, buffer.position());
+        buffer.position(buffer.position() + PackedPosition.BYTES);
+        return size() - 1;
+    }
+
+    /**
+     * Write the buffered positions to the file.
+     *
+     * @throws IOException If they cannot be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        long offset = HEADER_BYTES + written * PackedPosition.BYTES;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        written = (offset - HEADER_BYTES) / PackedPosition.BYTES;
+        buffer.clear();
+    }
+
+    /**
+     * Read a position.
+     *
+     * @param index    The index of the position.
+     * @param position The position replaced by the read one.
+     * @return The label of the position.
+     * @throws IOException If the positions cannot be written or mapped.
+     */
+    public int read(long index, Position position) throws IOException {
+        final var segment = segment(index);
+        final int offset = offset(index);
+        PackedPosition.decode(segment, offset, position);
+        return PackedPosition.label(segment, offset);
+    }
+
+    /**
+     * Read the label of a position without decoding it.
+     *
+     * @param index The index of the position.
+     * @return The label.
+     * @throws IOException If the positions cannot be written or mapped.
+     */
+    public int label(long index) throws IOException {
+        return PackedPosition.label(segment(index), offset(index));
+    }
+
+    /**
+     * Decode a range of positions in order, into a single reused position.
+     *
+     * @param from   The index of the first position.
+     * @param to     The index after the last position.
+     * @param action The action called with each position. The position must not be kept.
+     * @throws IOException If the positions cannot be written or mapped.
+     */
+    public void scan(long from, long to, Consumer<Position> action) throws IOException {
+        final var position = new Position();
+        for (long index = from; index < to; index++) {
+            PackedPosition.decode(segment(index), offset(index), position);
+            action.accept(position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            segments = new MappedByteBuffer[0];
+            channel.close();
+        }
+    }
+
+    /**
+     * Get the mapping of a position, writing and mapping the new positions if needed.
+     *
+     * @param index The index of the position.
+     * @return The mapping.
+     * @throws IOException If the positions cannot be written or mapped.
+     */
+    private ByteBuffer segment(long index) throws IOException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Position " + index + " out of " + size());
+        }
+        if (index >= mapped) {
+            flush();
+            map();
+        }
+        return segments[(int) (index / SEGMENT_RECORDS)];
+    }
+
+    /**
+     * Get the offset of a position in its mapping.
+     *
+     * @param index The index of the position.
+     * @return The offset.
+     */
+    private static int offset(long index) {
+        return (int) (index % SEGMENT_RECORDS) * PackedPosition.BYTES;
+    }
+
+    /**
+     * Map the written positions. The last mapping, which may be partial, and the new ones are remapped.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void map() throws IOException {
+        final int count = (int) ((written + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+        final int first = (int) (mapped / SEGMENT_RECORDS);
+        segments = Arrays.copyOf(segments, count);
+        for (int i = first; i < count; i++) {
+            final long start = (long) i * SEGMENT_RECORDS;
+            final long records = Math.min(SEGMENT_RECORDS, written - start);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start * PackedPosition.BYTES,
+                                      records * PackedPosition.BYTES);
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        mapped = written;
+    }
+
+    /**
+     * Run a command of the store from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: PositionStore pack|scan|get <file> ...");
+        }
+        switch (args[0]) {
+            case "pack" -> {
+                try (BufferedReader in = Files.newBufferedReader(Path.of(args[1]));
+                     var store = open(Path.of(args[2]))) {
+                    final var position = new Position();
+                    final long start = System.nanoTime(), before = store.size();
+                    PositionIndex index = null;
+                    if (args.length > 3 && args[3].equals("--unique")) {
+                        // A position takes at least 16 bytes of text, which bounds the number of new keys.
+                        index = new PositionIndex(before + Files.size(Path.of(args[1])) / 16 + 1);
+                        final var known = index;
+                        store.scan(0, before, stored -> known.add(stored.hash()));
+                    }
+                    long duplicates = 0;
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            position.load(line);
+                            if (index == null || index.add(position.hash())) {
+                                store.append(position, 0);
+                            } else {
+                                duplicates++;
+                            }
+                        }
+                    }
+                    store.flush();
+                    System.out.printf("%d positions packed in %.2f s, %d duplicates skipped, %d in the store%n",
+                                      store.size() - before, (System.nanoTime() - start) / 1e9, duplicates,
+                                      store.size());
+                    if (index != null) {
+                        System.out.println("Index: " + index.metrics());
+                    }
+                }
+            }
+            case "scan" -> {
+                try (var store = open(Path.of(args[1]))) {
+                    final long[] checksum = {0};
+                    final long start = System.nanoTime();
+                    store.scan(0, store.size(), position -> checksum[0] += position.hash() & 1);
+                    final double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%d positions in %.2f s, %.0f positions/s, %.0f MB/s (checksum %d)%n",
+                                      store.size(), seconds, store.size() / seconds,
+                                      store.size() * PackedPosition.BYTES / seconds / 1e6, checksum[0]);
+                }
+            }
+            case "get" -> {
+                try (var store = open(Path.of(args[1]))) {
+                    final var position = new Position();
+                    final int label = store.read(Long.parseLong(args[2]), position);
+                    System.out.println(position.toFen() + " label " + label);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package chess.engine.tournament;
+
+import chess.engine.position.Position;
+import chess.engine.search.SearchResult;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-depth benchmark of engine configurations. Each engine searches the same positions with a fresh table and
+ * the total number of nodes and the speed are reported, so the node-count impact of each search technique can be
+ * compared, e.g. {@code --engine name=all,depth=8 --engine name=no-lmr,depth=8,lmr=off}.
+ * <p>
+ * Usage: {@code Bench --engine name=a,depth=8 [--engine ...] [--positions positions.epd]}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Bench {
+    /**
+     * The default positions: the opening, middlegames with tactics and endgames.
+     */
+    public static final List<String> POSITIONS = List.of(
+            Position.START_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "2r3k1/p4p2/3Rp2p/1p2P1pK/8/1P4P1/P3Q2P/1q6 b - - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/k7/3p4/p2P1p2/P2P1P2/8/8/K7 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Bench() {
+    }
+
+    /**
+     * Run the benchmark from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws Exception If the positions cannot be read.
+     */
+    public static void main(String[] args) throws Exception {
+        List<EngineConfig> engines = new ArrayList<>();
+        List<String> positions = POSITIONS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--engine" -> engines.add(EngineConfig.parse(args[++i]));
+                case "--positions" -> positions = Openings.load(Path.of(args[++i]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one --engine option is required.");
+        }
+
+        for (var engine : engines) {
+            long nodes = 0, millis = 0;
+            for (var fen : positions) {
+                final SearchResult result = engine.newSearch().search(Position.fromFen(fen), engine.limits());
+                nodes += result.nodes();
+                millis += result.millis();
+            }
+            System.out.printf("%-16s nodes %12d  time %8d ms  nps %10d%n", engine.name(), nodes, millis,
+                              nodes * 1000 / Math.max(millis, 1));
+        }
+    }
+}
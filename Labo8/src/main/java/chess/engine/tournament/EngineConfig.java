@@ -0,0 +1,101 @@
+package chess.engine.tournament;
+
+import chess.engine.nnue.Network;
+import chess.engine.nnue.NnueEvaluation;
+import chess.engine.search.Evaluation;
+import chess.engine.search.Search;
+import chess.engine.search.SearchLimits;
+import chess.engine.search.SearchOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration of an engine taking part in a match.
+ *
+ * @param name          The name of the engine, used in the PGN and the summary.
+ * @param limits        The search limits of each move.
+ * @param hashMegabytes The size of the transposition table in megabytes.
+ * @param options       The selective search techniques enabled.
+ * @param network       The network of the evaluation, or null for the hand-crafted evaluation.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record EngineConfig(String name, SearchLimits limits, int hashMegabytes, SearchOptions options,
+                           Network network) {
+    /**
+     * Parse a configuration from a comma separated list of options, e.g. "name=base,depth=4,nodes=20000,hash=16".
+     * Supported options are name, depth, nodes, movetime (milliseconds) and hash (megabytes). The search techniques
+     * nmp, lmr, futility, rfp and aspiration are enabled by default and can be switched with "on" or "off", e.g.
+     * "lmr=off". The option nnue gives the file of a network to evaluate with, e.g. "nnue=net.bin".
+     *
+     * @param spec The configuration string.
+     * @return The configuration.
+     */
+    public static EngineConfig parse(String spec) {
+        String name = spec;
+        int depth = Search.MAX_PLY, hash = 16;
+        long nodes = 0, millis = 0;
+        var options = SearchOptions.DEFAULT;
+        Network network = null;
+        for (var option : spec.split(",")) {
+            var keyValue = option.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid engine option: " + option);
+            }
+            switch (keyValue[0].trim()) {
+                case "name" -> name = keyValue[1].trim();
+                case "depth" -> depth = Integer.parseInt(keyValue[1].trim());
+                case "nodes" -> nodes = Long.parseLong(keyValue[1].trim());
+                case "movetime" -> millis = Long.parseLong(keyValue[1].trim());
+                case "hash" -> hash = Integer.parseInt(keyValue[1].trim());
+                case "nnue" -> network = loadNetwork(keyValue[1].trim());
+                case "nmp", "lmr", "futility", "rfp", "aspiration" ->
+                        options = options.with(keyValue[0].trim(), parseSwitch(keyValue[1].trim()));
+                default -> throw new IllegalArgumentException("Unknown engine option: " + keyValue[0]);
+            }
+        }
+        if (depth == Search.MAX_PLY && nodes == 0 && millis == 0) {
+            throw new IllegalArgumentException("Engine " + name + " needs a depth, nodes or movetime limit.");
+        }
+        return new EngineConfig(name, new SearchLimits(depth, nodes, millis), hash, options, network);
+    }
+
+    /**
+     * Load the network of the nnue option.
+     *
+     * @param file The network file.
+     * @return The network.
+     */
+    private static Network loadNetwork(String file) {
+        try {
+            return Network.load(Path.of(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load the network " + file, e);
+        }
+    }
+
+    /**
+     * Parse the value of an on/off option.
+     *
+     * @param value The value: on, off, true or false.
+     * @return True if the option is enabled.
+     */
+    private static boolean parseSwitch(String value) {
+        return switch (value) {
+            case "on", "true" -> true;
+            case "off", "false" -> false;
+            default -> throw new IllegalArgumentException("Invalid switch value: " + value);
+        };
+    }
+
+    /**
+     * Create a search for this engine. A new search is created for each game, so games do not share state.
+     *
+     * @return The search.
+     */
+    public Search newSearch() {
+        return new Search(hashMegabytes, options, network == null ? new Evaluation() : new NnueEvaluation(network));
+    }
+}
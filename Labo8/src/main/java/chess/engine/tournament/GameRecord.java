@@ -0,0 +1,53 @@
+package chess.engine.tournament;
+
+import java.util.List;
+
+/**
+ * Record of a finished game.
+ *
+ * @param fen         The FEN string of the starting position.
+ * @param white       The name of the white engine.
+ * @param black       The name of the black engine.
+ * @param result      The result of the game.
+ * @param termination The reason the game ended.
+ * @param moves       The moves of the game in standard algebraic notation.
+ * @param comment     Details on the termination, e.g. the position of an error, or an empty string.
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public record GameRecord(String fen, String white, String black, Result result, String termination,
+                         List<String> moves, String comment) {
+    /**
+     * Result of a game.
+     */
+    public enum Result {
+        WHITE_WINS("1-0"), BLACK_WINS("0-1"), DRAW("1/2-1/2"),
+        /**
+         * The game could not be finished, e.g. because the controller rejected a move. Not scored.
+         */
+        ERROR("*");
+
+        /**
+         * The PGN notation of the result.
+         */
+        private final String pgn;
+
+        /**
+         * Constructor.
+         *
+         * @param pgn The PGN notation of the result.
+         */
+        Result(String pgn) {
+            this.pgn = pgn;
+        }
+
+        /**
+         * Get the PGN notation of the result.
+         *
+         * @return The PGN notation.
+         */
+        public String pgn() {
+            return pgn;
+        }
+    }
+}
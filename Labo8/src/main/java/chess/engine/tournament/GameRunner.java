@@ -0,0 +1,104 @@
+package chess.engine.tournament;
+
+import chess.engine.Controller;
+import chess.engine.board.GameState;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+import chess.engine.search.Search;
+import chess.engine.util.BoardFactory;
+import chess.engine.util.PromotionChoice;
+import chess.views.headless.HeadlessView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plays a game between two engines. The moves chosen by the engines are played through the {@link Controller}, so
+ * the game is adjudicated by the board model ({@link chess.engine.board.Board#isCheckmate()} and
+ * {@link chess.engine.board.Board#isDraw()}), exactly as a game played in the GUI.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class GameRunner {
+    /**
+     * The maximum number of plies of a game before it is adjudicated as a draw.
+     */
+    private final int maxPlies;
+
+    /**
+     * Constructor.
+     *
+     * @param maxPlies The maximum number of plies of a game before it is adjudicated as a draw.
+     */
+    public GameRunner(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Play a game.
+     *
+     * @param fen   The FEN string of the starting position.
+     * @param white The white engine.
+     * @param black The black engine.
+     * @return The record of the game, or null if the thread was interrupted before the end of the game.
+     */
+    public GameRecord play(String fen, EngineConfig white, EngineConfig black) {
+        final var view = new HeadlessView();
+        final var controller = new Controller();
+        controller.setView(view);
+        controller.setBoard(BoardFactory.createFromFen(fen));
+        controller.updateGameState();
+
+        final var position = Position.fromFen(fen);
+        final EngineConfig[] engines = {white, black};
+        final Search[] searches = {white.newSearch(), black.newSearch()};
+        final List<String> moves = new ArrayList<>();
+
+        while (true) {
+            final var state = controller.board().gameState();
+            if (state == GameState.CHECKMATE) {
+                return record(fen, white, black, position.sideToMove() == Pieces.WHITE
+                        ? GameRecord.Result.BLACK_WINS : GameRecord.Result.WHITE_WINS, "checkmate", moves, "");
+            } else if (state == GameState.DRAW) {
+                return record(fen, white, black, GameRecord.Result.DRAW, "draw", moves, "");
+            } else if (moves.size() >= maxPlies) {
+                return record(fen, white, black, GameRecord.Result.DRAW, "move limit", moves, "");
+            } else if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            final int side = position.sideToMove();
+            final int move = searches[side].search(position, engines[side].limits()).move();
+            if (move == Moves.NONE) {
+                // The board did not detect the end of the game.
+                return record(fen, white, black, GameRecord.Result.ERROR, "no legal move", moves,
+                              "No legal move in " + position.toFen());
+            }
+            if (Moves.isPromotion(move)) {
+                view.preselect(Arrays.stream(PromotionChoice.PROMOTION_CHOICES)
+                                     .filter(c -> c.getPieceType() == Pieces.pieceType(Moves.promotion(move)))
+                                     .findFirst().orElse(null));
+            }
+
+            final String san = Moves.san(position, move);
+            final int from = Moves.from(move), to = Moves.to(move);
+            if (!controller.move(from % 8, from / 8, to % 8, to / 8)) {
+                return record(fen, white, black, GameRecord.Result.ERROR, "rejected move", moves,
+                              "Controller rejected " + Moves.uci(move) + " in " + position.toFen());
+            }
+            position.make(move);
+            moves.add(san);
+        }
+    }
+
+    /**
+     * Create the record of a finished game.
+     */
+    private static GameRecord record(String fen, EngineConfig white, EngineConfig black, GameRecord.Result result,
+                                     String termination, List<String> moves, String comment) {
+        return new GameRecord(fen, white.name(), black.name(), result, termination, List.copyOf(moves), comment);
+    }
+}
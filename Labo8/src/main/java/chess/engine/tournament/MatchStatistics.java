@@ -0,0 +1,200 @@
+package chess.engine.tournament;
+
+/**
+ * Running statistics of a match between two engines, from the point of view of the first engine. Provides the Elo
+ * difference with its 95% confidence interval and the log-likelihood ratio of a sequential probability ratio test
+ * (SPRT) between two Elo hypotheses. Thread-safe.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MatchStatistics {
+    /**
+     * The quantile of the normal distribution for a 95% confidence interval.
+     */
+    private static final double Z_95 = 1.959964;
+
+    /**
+     * The number of wins, draws and losses of the first engine, and the number of unscored games.
+     */
+    private int wins, draws, losses, errors;
+
+    /**
+     * Add the result of a game.
+     *
+     * @param result      The result of the game.
+     * @param firstIsWhite Whether the first engine played white.
+     */
+    public synchronized void add(GameRecord.Result result, boolean firstIsWhite) {
+        switch (result) {
+            case WHITE_WINS -> {
+                if (firstIsWhite) wins++;
+                else losses++;
+            }
+            case BLACK_WINS -> {
+                if (firstIsWhite) losses++;
+                else wins++;
+            }
+            case DRAW -> draws++;
+            case ERROR -> errors++;
+        }
+    }
+
+    /**
+     * Get the number of scored games.
+     *
+     * @return The number of wins, draws and losses.
+     */
+    public synchronized int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Get the number of wins of the first engine.
+     *
+     * @return The number of wins.
+     */
+    public synchronized int wins() {
+        return wins;
+    }
+
+    /**
+     * Get the number of draws.
+     *
+     * @return The number of draws.
+     */
+    public synchronized int draws() {
+        return draws;
+    }
+
+    /**
+     * Get the number of losses of the first engine.
+     *
+     * @return The number of losses.
+     */
+    public synchronized int losses() {
+        return losses;
+    }
+
+    /**
+     * Get the number of games that could not be scored.
+     *
+     * @return The number of errors.
+     */
+    public synchronized int errors() {
+        return errors;
+    }
+
+    /**
+     * Get the mean score of the first engine.
+     *
+     * @return The score, between 0 and 1.
+     */
+    public synchronized double score() {
+        return games() == 0 ? 0.5 : (wins + draws * 0.5) / games();
+    }
+
+    /**
+     * Get the Elo difference between the first and the second engine.
+     *
+     * @return The Elo difference.
+     */
+    public synchronized double elo() {
+        return eloOf(score());
+    }
+
+    /**
+     * Get the half-width of the 95% confidence interval of the Elo difference.
+     *
+     * @return The Elo error margin.
+     */
+    public synchronized double eloError() {
+        if (games() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double deviation = Z_95 * Math.sqrt(variance() / games());
+        return (eloOf(score() + deviation) - eloOf(score() - deviation)) / 2;
+    }
+
+    /**
+     * Get the log-likelihood ratio of the hypothesis elo1 against the hypothesis elo0, using the normal
+     * approximation of the trinomial model.
+     *
+     * @param elo0 The Elo difference of the null hypothesis.
+     * @param elo1 The Elo difference of the alternative hypothesis.
+     * @return The log-likelihood ratio.
+     */
+    public synchronized double llr(double elo0, double elo1) {
+        final double variance = variance();
+        if (games() == 0 || variance == 0) {
+            return 0;
+        }
+        final double s0 = scoreOf(elo0), s1 = scoreOf(elo1);
+        return games() * (s1 - s0) * (2 * score() - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Get the lower bound of the SPRT: the null hypothesis is accepted below it.
+     *
+     * @param alpha The probability of a false positive.
+     * @param beta  The probability of a false negative.
+     * @return The lower bound of the log-likelihood ratio.
+     */
+    public static double lowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    /**
+     * Get the upper bound of the SPRT: the alternative hypothesis is accepted above it.
+     *
+     * @param alpha The probability of a false positive.
+     * @param beta  The probability of a false negative.
+     * @return The upper bound of the log-likelihood ratio.
+     */
+    public static double upperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * The variance of the score of a single game.
+     *
+     * @return The variance.
+     */
+    private double variance() {
+        final double s = score();
+        final int n = games();
+        return n == 0 ? 0 : (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+    }
+
+    /**
+     * Convert a score to an Elo difference with the logistic model.
+     *
+     * @param score The score, between 0 and 1.
+     * @return The Elo difference.
+     */
+    private static double eloOf(double score) {
+        final double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    /**
+     * Convert an Elo difference to an expected score with the logistic model.
+     *
+     * @param elo The Elo difference.
+     * @return The expected score.
+     */
+    private static double scoreOf(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * String representation of the statistics.
+     *
+     * @return The results and the Elo difference.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("+%d =%d -%d (%d errors), score %.1f%%, Elo %+.1f +/- %.1f", wins, draws, losses,
+                             errors, score() * 100, elo(), eloError());
+    }
+}
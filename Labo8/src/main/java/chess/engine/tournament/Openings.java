@@ -0,0 +1,67 @@
+package chess.engine.tournament;
+
+import chess.engine.position.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opening book loader. Reads one position per line in EPD or FEN format; empty lines and lines starting with '#'
+ * are ignored. EPD operations after the four position fields are dropped.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class Openings {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Openings() {
+    }
+
+    /**
+     * Load the openings of a file.
+     *
+     * @param path The path of the EPD file.
+     * @return The FEN strings of the openings.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<String> load(Path path) throws IOException {
+        List<String> openings = new ArrayList<>();
+        for (var line : Files.readAllLines(path)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                openings.add(toFen(line));
+            }
+        }
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No opening found in " + path);
+        }
+        return openings;
+    }
+
+    /**
+     * Convert an EPD or FEN line to a FEN string.
+     *
+     * @param line The EPD or FEN line.
+     * @return The FEN string.
+     */
+    public static String toFen(String line) {
+        var fields = line.split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Invalid EPD: " + line);
+        }
+        var fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]);
+        // A FEN line carries the move counters in the fifth and sixth fields, an EPD line carries operations.
+        if (fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+;?")) {
+            fen += " " + fields[4] + " " + fields[5].replace(";", "");
+        } else {
+            fen += " 0 1";
+        }
+        Position.fromFen(fen); // Fail early on invalid positions.
+        return fen;
+    }
+}
@@ -0,0 +1,145 @@
+package chess.engine.tournament;
+
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes finished games to a PGN file. Thread-safe: games finishing concurrently are written one after the other.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PgnWriter implements Closeable {
+    /**
+     * The maximum length of a line of moves.
+     */
+    private static final int LINE_WIDTH = 80;
+
+    /**
+     * The output.
+     */
+    private final Writer writer;
+
+    /**
+     * The name of the event.
+     */
+    private final String event;
+
+    /**
+     * Constructor.
+     *
+     * @param path  The path of the PGN file. Overwritten if it exists.
+     * @param event The name of the event.
+     * @throws IOException If the file cannot be opened.
+     */
+    public PgnWriter(Path path, String event) throws IOException {
+        this.writer = Files.newBufferedWriter(path);
+        this.event = event;
+    }
+
+    /**
+     * Write a game.
+     *
+     * @param game  The game.
+     * @param round The round number of the game.
+     * @throws IOException If the game cannot be written.
+     */
+    public synchronized void write(GameRecord game, int round) throws IOException {
+        writer.write(format(game, round, event));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Format a game in PGN.
+     *
+     * @param game  The game.
+     * @param round The round number of the game.
+     * @param event The name of the event.
+     * @return The PGN of the game.
+     */
+    public static String format(GameRecord game, int round, String event) {
+        var sb = new StringBuilder(1024);
+        tag(sb, "Event", event);
+        tag(sb, "Site", "?");
+        tag(sb, "Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        tag(sb, "Round", String.valueOf(round));
+        tag(sb, "White", game.white());
+        tag(sb, "Black", game.black());
+        tag(sb, "Result", game.result().pgn());
+        if (!game.fen().equals(Position.START_FEN)) {
+            tag(sb, "SetUp", "1");
+            tag(sb, "FEN", game.fen());
+        }
+        tag(sb, "Termination", game.termination());
+        tag(sb, "PlyCount", String.valueOf(game.moves().size()));
+        sb.append('\n');
+
+        var start = Position.fromFen(game.fen());
+        int moveNumber = start.fullMoveNumber();
+        boolean white = start.sideToMove() == Pieces.WHITE;
+        int lineLength = 0;
+        for (int i = 0; i < game.moves().size(); i++) {
+            String token = "";
+            if (white) {
+                token = moveNumber + ". ";
+            } else if (i == 0) {
+                token = moveNumber + "... ";
+            }
+            token += game.moves().get(i);
+            lineLength = append(sb, token, lineLength);
+            if (!white) {
+                moveNumber++;
+            }
+            white = !white;
+        }
+        if (!game.comment().isEmpty()) {
+            lineLength = append(sb, "{" + game.comment().replace("}", ")") + "}", lineLength);
+        }
+        append(sb, game.result().pgn(), lineLength);
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Append a tag pair.
+     */
+    private static void tag(StringBuilder sb, String name, String value) {
+        sb.append('[').append(name).append(" \"").append(value.replace("\"", "'")).append("\"]\n");
+    }
+
+    /**
+     * Append a token to the move text, wrapping lines.
+     *
+     * @return The length of the current line after appending.
+     */
+    private static int append(StringBuilder sb, String token, int lineLength) {
+        if (lineLength > 0 && lineLength + 1 + token.length() > LINE_WIDTH) {
+            sb.append('\n');
+            lineLength = 0;
+        } else if (lineLength > 0) {
+            sb.append(' ');
+            lineLength++;
+        }
+        sb.append(token);
+        return lineLength + token.length();
+    }
+
+    /**
+     * Close the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
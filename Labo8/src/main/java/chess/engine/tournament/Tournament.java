@@ -0,0 +1,301 @@
+package chess.engine.tournament;
+
+import chess.engine.position.Position;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Self-play tournament between two engine configurations. Each opening is played twice with swapped colors, and
+ * games are distributed over a pool of threads. Results are reported live as an Elo difference and an SPRT
+ * log-likelihood ratio; the match stops early once the SPRT accepts a hypothesis.
+ * <p>
+ * Usage: {@code Tournament --engine name=new,depth=5 --engine name=base,depth=4 [--openings book.epd]
+ * [--games 1000] [--threads N] [--max-plies 400] [--sprt 0,5] [--alpha 0.05] [--beta 0.05] [--pgn games.pgn]
+ * [--summary summary.txt]}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class Tournament {
+    /**
+     * The two engines. Statistics are given from the point of view of the first one.
+     */
+    private final EngineConfig first, second;
+
+    /**
+     * The FEN strings of the openings.
+     */
+    private final List<String> openings;
+
+    /**
+     * The number of games to play.
+     */
+    private final int games;
+
+    /**
+     * The number of games played in parallel.
+     */
+    private final int threads;
+
+    /**
+     * The game runner.
+     */
+    private final GameRunner runner;
+
+    /**
+     * The SPRT hypotheses and error probabilities.
+     */
+    private double elo0 = 0, elo1 = 5, alpha = 0.05, beta = 0.05;
+
+    /**
+     * The statistics of the match.
+     */
+    private final MatchStatistics statistics = new MatchStatistics();
+
+    /**
+     * The number of games per termination reason.
+     */
+    private final Map<String, Integer> terminations = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param first    The first engine.
+     * @param second   The second engine.
+     * @param openings The FEN strings of the openings.
+     * @param games    The number of games to play.
+     * @param threads  The number of games played in parallel.
+     * @param maxPlies The maximum number of plies of a game before it is adjudicated as a draw.
+     */
+    public Tournament(EngineConfig first, EngineConfig second, List<String> openings, int games, int threads,
+                      int maxPlies) {
+        this.first = first;
+        this.second = second;
+        this.openings = List.copyOf(openings);
+        this.games = games;
+        this.threads = threads;
+        this.runner = new GameRunner(maxPlies);
+    }
+
+    /**
+     * Set the SPRT parameters.
+     *
+     * @param elo0  The Elo difference of the null hypothesis.
+     * @param elo1  The Elo difference of the alternative hypothesis.
+     * @param alpha The probability of a false positive.
+     * @param beta  The probability of a false negative.
+     */
+    public void setSprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * Play the match.
+     *
+     * @param pgn The PGN writer to write the games to, or null.
+     * @return The statistics of the match.
+     * @throws InterruptedException If the thread is interrupted while waiting for the games.
+     */
+    public MatchStatistics run(PgnWriter pgn) throws InterruptedException {
+        final long start = System.nanoTime();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger remaining = new AtomicInteger(games);
+        final AtomicBoolean concluded = new AtomicBoolean();
+        // Released when the SPRT concludes or the last game ends. The futures are only used by this thread.
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < games && !concluded.get(); i++) {
+            final int round = i + 1;
+            final String fen = openings.get((i / 2) % openings.size());
+            final boolean firstIsWhite = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                try {
+                    play(pgn, round, fen, firstIsWhite, start, finished, concluded, done);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        done.countDown();
+                    }
+                }
+            }));
+        }
+        if (futures.isEmpty()) {
+            done.countDown();
+        }
+
+        done.await();
+        if (concluded.get()) {
+            futures.forEach(future -> future.cancel(true));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        for (var future : futures) {
+            if (!future.isCancelled()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw new IllegalStateException("A game failed.", e.getCause());
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Play a game of the match on a thread of the pool, and record it unless the match is concluded.
+     *
+     * @param pgn          The PGN writer, or null.
+     * @param round        The round of the game.
+     * @param fen          The opening position.
+     * @param firstIsWhite Whether the first engine plays white.
+     * @param start        The start time of the match, in nanoseconds.
+     * @param finished     The number of finished games.
+     * @param concluded    Whether the SPRT concluded.
+     * @param done         The latch released when the SPRT concludes.
+     */
+    private void play(PgnWriter pgn, int round, String fen, boolean firstIsWhite, long start,
+                      AtomicInteger finished, AtomicBoolean concluded, CountDownLatch done) {
+        final var game = firstIsWhite ? runner.play(fen, first, second) : runner.play(fen, second, first);
+        if (game == null || concluded.get()) {
+            return;
+        }
+        statistics.add(game.result(), firstIsWhite);
+        terminations.merge(game.termination(), 1, Integer::sum);
+        if (pgn != null) {
+            try {
+                pgn.write(game, round);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        report(finished.incrementAndGet(), start);
+        final double llr = statistics.llr(elo0, elo1);
+        if (llr <= MatchStatistics.lowerBound(alpha, beta) || llr >= MatchStatistics.upperBound(alpha, beta)) {
+            if (concluded.compareAndSet(false, true)) {
+                done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Print the live statistics of the match.
+     *
+     * @param finished The number of finished games.
+     * @param start    The start time of the match, in nanoseconds.
+     */
+    private void report(int finished, long start) {
+        System.out.printf("%s vs %s: %d/%d games, %s, LLR %.2f (%.2f, %.2f), %.2f games/s%n", first.name(),
+                          second.name(), finished, games, statistics, statistics.llr(elo0, elo1),
+                          MatchStatistics.lowerBound(alpha, beta), MatchStatistics.upperBound(alpha, beta),
+                          gamesPerSecond(finished, start));
+    }
+
+    /**
+     * Compute the throughput of the match.
+     *
+     * @param finished The number of finished games.
+     * @param start    The start time of the match, in nanoseconds.
+     * @return The number of games per second.
+     */
+    private static double gamesPerSecond(int finished, long start) {
+        return finished / Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Summary of the match.
+     *
+     * @param seconds The duration of the match, in seconds.
+     * @return The summary text.
+     */
+    public String summary(double seconds) {
+        final double llr = statistics.llr(elo0, elo1);
+        final String verdict = llr >= MatchStatistics.upperBound(alpha, beta) ? "H1 accepted"
+                : llr <= MatchStatistics.lowerBound(alpha, beta) ? "H0 accepted" : "inconclusive";
+        return String.join("\n",
+                           "Engines:    " + first + " vs " + second,
+                           "Openings:   " + openings.size(),
+                           "Threads:    " + threads,
+                           "Games:      " + statistics.games() + " scored, " + statistics.errors() + " errors",
+                           "Result:     " + statistics,
+                           "Endings:    " + new TreeMap<>(terminations),
+                           String.format("SPRT:       elo0=%.1f elo1=%.1f alpha=%.3f beta=%.3f, LLR %.2f (%.2f, %.2f), %s",
+                                         elo0, elo1, alpha, beta, llr, MatchStatistics.lowerBound(alpha, beta),
+                                         MatchStatistics.upperBound(alpha, beta), verdict),
+                           String.format("Throughput: %.2f games/s over %.1f s",
+                                         (statistics.games() + statistics.errors()) / Math.max(seconds, 1e-9), seconds),
+                           "");
+    }
+
+    /**
+     * Run a tournament from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws Exception If the openings cannot be read or the output cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        List<EngineConfig> engines = new ArrayList<>();
+        List<String> openings = List.of(Position.START_FEN);
+        int games = 100, threads = Runtime.getRuntime().availableProcessors(), maxPlies = 400;
+        double elo0 = 0, elo1 = 5, alpha = 0.05, beta = 0.05;
+        Path pgnPath = null, summaryPath = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--engine" -> engines.add(EngineConfig.parse(args[++i]));
+                case "--openings" -> openings = Openings.load(Path.of(args[++i]));
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--max-plies" -> maxPlies = Integer.parseInt(args[++i]);
+                case "--sprt" -> {
+                    var bounds = args[++i].split(",");
+                    elo0 = Double.parseDouble(bounds[0]);
+                    elo1 = Double.parseDouble(bounds[1]);
+                }
+                case "--alpha" -> alpha = Double.parseDouble(args[++i]);
+                case "--beta" -> beta = Double.parseDouble(args[++i]);
+                case "--pgn" -> pgnPath = Path.of(args[++i]);
+                case "--summary" -> summaryPath = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (engines.size() != 2) {
+            throw new IllegalArgumentException("Exactly two --engine options are required.");
+        }
+
+        var tournament = new Tournament(engines.get(0), engines.get(1), openings, games, threads, maxPlies);
+        tournament.setSprt(elo0, elo1, alpha, beta);
+        final long start = System.nanoTime();
+        try (var pgn = pgnPath == null ? null : new PgnWriter(pgnPath, "Self-play " + engines.get(0).name()
+                + " vs " + engines.get(1).name())) {
+            tournament.run(pgn);
+        }
+        var summary = tournament.summary((System.nanoTime() - start) / 1e9);
+        System.out.print(summary);
+        if (summaryPath != null) {
+            Files.writeString(summaryPath, summary);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package chess.engine.tuning;
+
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+import chess.engine.search.Evaluation;
+import chess.engine.search.MovePicker;
+
+/**
+ * Resolves a position to a quiet one for tuning: a quiescence search over the captures finds the principal
+ * variation, which is then played on the position so the evaluation and its gradient are taken where no capture is
+ * pending. Each tuning thread owns a resolver.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+class QuietResolver {
+    /**
+     * The maximum length of a capture sequence.
+     */
+    private static final int MAX_PLY = 32;
+
+    /**
+     * The move pickers and the triangular principal variation table of each ply.
+     */
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    /**
+     * Constructor.
+     */
+    QuietResolver() {
+        for (int i = 0; i < pickers.length; i++) {
+            pickers[i] = new MovePicker();
+        }
+    }
+
+    /**
+     * Play the principal variation of the quiescence search on the position. Undo it with {@link Position#unmake()}
+     * as many times as the returned number of moves.
+     *
+     * @param position   The position.
+     * @param evaluation The evaluation used to choose the variation.
+     * @return The number of moves played.
+     */
+    int resolve(Position position, Evaluation evaluation) {
+        quiescence(position, evaluation, -Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+        for (int i = 0; i < pvLength[0]; i++) {
+            position.make(pvTable[0][i]);
+        }
+        return pvLength[0];
+    }
+
+    /**
+     * Quiescence search with stand pat, without transposition table.
+     *
+     * @param position   The position.
+     * @param evaluation The evaluation.
+     * @param alpha      The lower bound.
+     * @param beta       The upper bound.
+     * @param ply        The distance to the root.
+     * @return The score from the point of view of the side to move.
+     */
+    private int quiescence(Position position, Evaluation evaluation, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        int best = evaluation.evaluate(position);
+        if (best >= beta || ply >= MAX_PLY) {
+            return best;
+        }
+        alpha = Math.max(alpha, best);
+
+        final int us = position.sideToMove();
+        final MovePicker picker = pickers[ply];
+        picker.initQuiescence(position);
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            position.make(move);
+            if (position.king(us) >= 0 && position.isAttacked(position.king(us), us ^ 1)) {
+                position.unmake();
+                continue;
+            }
+            final int score = -quiescence(position, evaluation, -beta, -alpha, ply + 1);
+            position.unmake();
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    pvTable[ply][0] = move;
+                    System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+                    pvLength[ply] = pvLength[ply + 1] + 1;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
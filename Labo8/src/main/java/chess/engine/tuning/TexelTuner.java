@@ -0,0 +1,442 @@
+package chess.engine.tuning;
+
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+import chess.engine.search.Evaluation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Texel tuner of the evaluation weights. The evaluation of each position of a labelled dataset is mapped to an
+ * expected score with a sigmoid, and the weights are adjusted to minimise the mean squared error against the game
+ * results. The evaluation is taken on the quiet position at the end of the quiescence search.
+ * <p>
+ * The dataset is streamed: lines are read in batches, each batch is split among the threads, which parse the
+ * positions into a reused {@link Position} and accumulate the error and its gradient, and the weights are updated
+ * with Adam after each batch. Only one batch of lines is in memory at a time, so datasets of tens of millions of
+ * positions can be used.
+ * <p>
+ * Each line holds a FEN or EPD position and its result, either as a game result ("1-0", "0-1", "1/2-1/2", with or
+ * without quotes) or as a white score in brackets ("[1.0]", "[0.5]", "[0.0]"). Lines without a result are skipped.
+ * <p>
+ * Usage: {@code TexelTuner --data positions.epd [--epochs 20] [--batch 16384] [--threads N] [--rate 1.0]
+ * [--k auto|1.13] [--init weights.txt] [--out weights.txt]}
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class TexelTuner {
+    /**
+     * The scaling constants tried when fitting K.
+     */
+    private static final double K_MIN = 0.2, K_MAX = 3.0, K_STEP = 0.05;
+
+    /**
+     * The Adam hyper-parameters.
+     */
+    private static final double BETA1 = 0.9, BETA2 = 0.999, EPSILON = 1e-8;
+
+    /**
+     * The dataset.
+     */
+    private final Path data;
+
+    /**
+     * The number of threads and the number of positions per weight update.
+     */
+    private final int threads, batchSize;
+
+    /**
+     * The thread pool evaluating the batches.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The quiescence resolver of each thread.
+     */
+    private final ThreadLocal<QuietResolver> resolvers = ThreadLocal.withInitial(QuietResolver::new);
+
+    /**
+     * The weights being tuned, as real numbers, and the rounded weights used by the evaluation.
+     */
+    private final double[] weights;
+    private final int[] parameters;
+
+    /**
+     * The Adam moment estimates and step counter.
+     */
+    private final double[] firstMoment = new double[Evaluation.PARAMETERS];
+    private final double[] secondMoment = new double[Evaluation.PARAMETERS];
+    private long steps = 0;
+
+    /**
+     * The sigmoid scaling constant.
+     */
+    private double k = 1.0;
+
+    /**
+     * Constructor.
+     *
+     * @param data       The dataset.
+     * @param parameters The initial weights.
+     * @param threads    The number of threads.
+     * @param batchSize  The number of positions per weight update.
+     */
+    public TexelTuner(Path data, int[] parameters, int threads, int batchSize) {
+        this.data = data;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.parameters = parameters.clone();
+        this.weights = Arrays.stream(parameters).asDoubleStream().toArray();
+    }
+
+    /**
+     * The result of the evaluation of a part of a batch.
+     *
+     * @param count    The number of positions evaluated.
+     * @param error    The sum of the squared errors.
+     * @param gradient The sum of the gradients of the squared errors, without the constant factors.
+     * @param kErrors  The sum of the squared errors for each K candidate, or null.
+     */
+    private record Partial(long count, double error, double[] gradient, double[] kErrors) {
+    }
+
+    /**
+     * Fit the sigmoid scaling constant to the initial weights, in a single pass over the dataset.
+     *
+     * @return The constant minimising the error.
+     * @throws IOException If the dataset cannot be read.
+     */
+    public double fitK() throws IOException {
+        final int candidates = (int) Math.round((K_MAX - K_MIN) / K_STEP) + 1;
+        final double[] errors = new double[candidates];
+        stream(batch -> {
+            for (var partial : evaluate(batch, false, true)) {
+                for (int i = 0; i < candidates; i++) {
+                    errors[i] += partial.kErrors()[i];
+                }
+            }
+        });
+        int best = 0;
+        for (int i = 1; i < candidates; i++) {
+            if (errors[i] < errors[best]) {
+                best = i;
+            }
+        }
+        k = K_MIN + best * K_STEP;
+        return k;
+    }
+
+    /**
+     * Run one pass over the dataset, updating the weights after each batch.
+     *
+     * @param rate The learning rate, in centipawns per step.
+     * @return The mean squared error over the pass.
+     * @throws IOException If the dataset cannot be read.
+     */
+    public double epoch(double rate) throws IOException {
+        final double[] totals = new double[2];
+        stream(batch -> {
+            final double[] gradient = new double[Evaluation.PARAMETERS];
+            long count = 0;
+            for (var partial : evaluate(batch, true, false)) {
+                count += partial.count();
+                totals[0] += partial.error();
+                for (int i = 0; i < gradient.length; i++) {
+                    gradient[i] += partial.gradient()[i];
+                }
+            }
+            totals[1] += count;
+            if (count > 0) {
+                update(gradient, count, rate);
+            }
+        });
+        return totals[1] == 0 ? 0 : totals[0] / totals[1];
+    }
+
+    /**
+     * Get the current weights.
+     *
+     * @return A copy of the parameter vector.
+     */
+    public int[] parameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * Stop the threads of the tuner.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A consumer of a batch of lines that may fail.
+     */
+    private interface BatchConsumer {
+        void accept(List<String> batch) throws IOException;
+    }
+
+    /**
+     * Stream the dataset in batches.
+     *
+     * @param consumer The consumer of each batch.
+     * @throws IOException If the dataset cannot be read.
+     */
+    private void stream(BatchConsumer consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(data)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        }
+    }
+
+    /**
+     * Evaluate a batch in parallel.
+     *
+     * @param batch    The lines of the batch.
+     * @param gradient Whether to compute the gradient.
+     * @param kErrors  Whether to compute the errors of the K candidates.
+     * @return The partial results of each thread.
+     * @throws IOException If a thread failed.
+     */
+    private List<Partial> evaluate(List<String> batch, boolean gradient, boolean kErrors) throws IOException {
+        final var evaluation = new Evaluation(parameters.clone());
+        final int chunk = (batch.size() + threads - 1) / threads;
+        List<Callable<Partial>> tasks = new ArrayList<>();
+        for (int start = 0; start < batch.size(); start += chunk) {
+            final var lines = batch.subList(start, Math.min(start + chunk, batch.size()));
+            tasks.add(() -> evaluate(lines, evaluation, gradient, kErrors));
+        }
+        List<Partial> partials = new ArrayList<>();
+        try {
+            for (Future<Partial> future : executor.invokeAll(tasks)) {
+                partials.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Tuning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Evaluation failed", e.getCause());
+        }
+        return partials;
+    }
+
+    /**
+     * Evaluate lines of the dataset on the current thread.
+     *
+     * @param lines      The lines.
+     * @param evaluation The evaluation with the current weights.
+     * @param gradient   Whether to compute the gradient.
+     * @param kErrors    Whether to compute the errors of the K candidates.
+     * @return The partial result.
+     */
+    private Partial evaluate(List<String> lines, Evaluation evaluation, boolean gradient, boolean kErrors) {
+        final var resolver = resolvers.get();
+        final var position = new Position();
+        final double[] gradients = gradient ? new double[Evaluation.PARAMETERS] : null;
+        final double[] errors = kErrors ? new double[(int) Math.round((K_MAX - K_MIN) / K_STEP) + 1] : null;
+        long count = 0;
+        double error = 0;
+        for (var line : lines) {
+            final double result;
+            try {
+                result = result(line, position.load(line));
+            } catch (RuntimeException e) {
+                continue; // Malformed line.
+            }
+            if (Double.isNaN(result)) {
+                continue;
+            }
+            final int moves = resolver.resolve(position, evaluation);
+            final int score = evaluation.evaluateWhite(position);
+            final double expected = sigmoid(score, k);
+            error += (result - expected) * (result - expected);
+            if (gradient) {
+                // d(r - s)^2/ds times ds/de, the constant factors are applied in update.
+                Evaluation.gradient(position, gradients, (expected - result) * expected * (1 - expected));
+            }
+            if (kErrors) {
+                for (int i = 0; i < errors.length; i++) {
+                    final double candidate = sigmoid(score, K_MIN + i * K_STEP);
+                    errors[i] += (result - candidate) * (result - candidate);
+                }
+            }
+            for (int i = 0; i < moves; i++) {
+                position.unmake();
+            }
+            count++;
+        }
+        return new Partial(count, error, gradients, errors);
+    }
+
+    /**
+     * Apply an Adam step. The pawn value is kept fixed so the scale of the weights stays in centipawns.
+     *
+     * @param gradient The summed gradient of the batch.
+     * @param count    The number of positions of the batch.
+     * @param rate     The learning rate.
+     */
+    private void update(double[] gradient, long count, double rate) {
+        steps++;
+        final double factor = 2 * k * Math.log(10) / 400 / count;
+        for (int i = 0; i < weights.length; i++) {
+            if (i == Evaluation.MATERIAL + Pieces.PAWN) {
+                continue;
+            }
+            final double g = gradient[i] * factor;
+            firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * g;
+            secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * g * g;
+            final double m = firstMoment[i] / (1 - Math.pow(BETA1, steps));
+            final double v = secondMoment[i] / (1 - Math.pow(BETA2, steps));
+            weights[i] -= rate * m / (Math.sqrt(v) + EPSILON);
+            parameters[i] = (int) Math.round(weights[i]);
+        }
+    }
+
+    /**
+     * The expected score of white for an evaluation.
+     *
+     * @param score The evaluation in centipawns, from white's point of view.
+     * @param k     The scaling constant.
+     * @return The expected score, between 0 and 1.
+     */
+    static double sigmoid(int score, double k) {
+        return 1 / (1 + Math.pow(10, -k * score / 400));
+    }
+
+    /**
+     * Parse the result of a dataset line.
+     *
+     * @param line  The line.
+     * @param start The index of the first character after the position.
+     * @return The score of white, or NaN if the line has no result.
+     */
+    static double result(String line, int start) {
+        final String rest = line.substring(start);
+        if (rest.contains("1/2-1/2")) {
+            return 0.5;
+        } else if (rest.contains("1-0")) {
+            return 1;
+        } else if (rest.contains("0-1")) {
+            return 0;
+        }
+        final int open = rest.indexOf('[');
+        final int close = rest.indexOf(']', open + 1);
+        if (open >= 0 && close > open) {
+            return Double.parseDouble(rest.substring(open + 1, close).trim());
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Read weights written by {@link #write(Path, int[])}.
+     *
+     * @param path The file.
+     * @return The parameter vector.
+     * @throws IOException If the file cannot be read.
+     */
+    public static int[] read(Path path) throws IOException {
+        final int[] parameters;
+        try (var lines = Files.lines(path)) {
+            parameters = lines.filter(line -> !line.isBlank() && !line.startsWith("#"))
+                              .flatMap(line -> Arrays.stream(line.trim().split("[\\s,]+")))
+                              .mapToInt(Integer::parseInt)
+                              .toArray();
+        }
+        if (parameters.length != Evaluation.PARAMETERS) {
+            throw new IOException("Expected " + Evaluation.PARAMETERS + " weights in " + path);
+        }
+        return parameters;
+    }
+
+    /**
+     * Write weights, eight per line with a comment before each group.
+     *
+     * @param path       The file.
+     * @param parameters The parameter vector.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, int[] parameters) throws IOException {
+        final String[] types = {"", "pawn", "rook", "knight", "bishop", "queen", "king"};
+        var sb = new StringBuilder("# Material by piece type\n");
+        for (int i = 0; i < 7; i++) {
+            sb.append(parameters[Evaluation.MATERIAL + i]).append(i < 6 ? ", " : "\n");
+        }
+        for (int type = 0; type <= 7; type++) {
+            final int offset = type < 7 ? Evaluation.TABLE + type * 64 : Evaluation.KING_ENDGAME_TABLE;
+            sb.append("# Table: ").append(type == 0 ? "unused" : type < 7 ? types[type] : "king endgame").append('\n');
+            for (int i = 0; i < 64; i++) {
+                sb.append(String.format("%4d", parameters[offset + i])).append(i % 8 == 7 ? "\n" : ", ");
+            }
+        }
+        Files.writeString(path, sb.toString());
+    }
+
+    /**
+     * Run the tuner from the command line.
+     *
+     * @param args The command line arguments, see the class documentation.
+     * @throws Exception If the dataset or the weights cannot be read or written.
+     */
+    public static void main(String[] args) throws Exception {
+        Path data = null, init = null, out = Path.of("weights.txt");
+        int epochs = 20, batch = 16384, threads = Runtime.getRuntime().availableProcessors();
+        double rate = 1.0;
+        String k = "auto";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data" -> data = Path.of(args[++i]);
+                case "--epochs" -> epochs = Integer.parseInt(args[++i]);
+                case "--batch" -> batch = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--rate" -> rate = Double.parseDouble(args[++i]);
+                case "--k" -> k = args[++i];
+                case "--init" -> init = Path.of(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("The --data option is required.");
+        }
+
+        var tuner = new TexelTuner(data, init == null ? Evaluation.defaultParameters() : read(init), threads, batch);
+        try {
+            if (k.equals("auto")) {
+                System.out.printf("Fitted K = %.2f%n", tuner.fitK());
+            } else {
+                tuner.k = Double.parseDouble(k);
+            }
+            for (int epoch = 1; epoch <= epochs; epoch++) {
+                final long start = System.nanoTime();
+                final double error = tuner.epoch(rate);
+                write(out, tuner.parameters());
+                System.out.printf("Epoch %d: error %.6f (%.1f s)%n", epoch, error, (System.nanoTime() - start) / 1e9);
+            }
+        } finally {
+            tuner.shutdown();
+        }
+    }
+}
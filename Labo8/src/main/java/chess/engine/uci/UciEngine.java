@@ -0,0 +1,366 @@
+package chess.engine.uci;
+
+import chess.engine.nnue.Network;
+import chess.engine.nnue.NnueEvaluation;
+import chess.engine.position.Moves;
+import chess.engine.position.Pieces;
+import chess.engine.position.Position;
+import chess.engine.search.Evaluation;
+import chess.engine.search.Evaluator;
+import chess.engine.search.Search;
+import chess.engine.search.SearchLimits;
+import chess.engine.search.SearchOptions;
+import chess.engine.search.SearchResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Minimal implementation of the Universal Chess Interface (UCI) protocol, so the engine can be used by chess GUIs
+ * and analysis tools. Supported commands: uci, isready, setoption, ucinewgame, position, go (depth, nodes, movetime,
+ * wtime, btime, winc, binc, movestogo, infinite), stop and quit. Supported options: Hash, MultiPV and EvalFile (a
+ * network file, empty for the hand-crafted evaluation).
+ * <p>
+ * The search runs on a separate thread, so stop is handled while searching. One info line per principal variation
+ * is printed at the end of each iteration. After "go infinite", the best move is only printed once stop or quit is
+ * received, even if the search ends before.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class UciEngine {
+    /**
+     * The bounds of the options.
+     */
+    private static final int MAX_HASH = 1024, MAX_MULTI_PV = 64;
+
+    /**
+     * The time kept in reserve when playing with a clock, in milliseconds.
+     */
+    private static final long MOVE_OVERHEAD = 50;
+
+    /**
+     * The number of moves the remaining time is divided by when the GUI gives no moves to go.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * The output of the engine.
+     */
+    private final PrintStream out;
+
+    /**
+     * The thread of the search.
+     */
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The current position, with the moves played to reach it so repetitions are detected.
+     */
+    private Position position = Position.fromFen(Position.START_FEN);
+
+    /**
+     * The options.
+     */
+    private int hashMegabytes = 16, multiPv = 1;
+    private String evalFile = "";
+
+    /**
+     * The search, created on first use and recreated when an option it depends on changes.
+     */
+    private Search search;
+
+    /**
+     * The running search, or null.
+     */
+    private Future<?> running;
+
+    /**
+     * Released by stop, so the running search prints its best move. Awaited only by an infinite search.
+     */
+    private CountDownLatch stopped;
+
+    /**
+     * Constructor.
+     *
+     * @param out The output of the engine.
+     */
+    public UciEngine(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Run the engine on the standard input and output.
+     *
+     * @param args Unused.
+     * @throws IOException If the standard input cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        new UciEngine(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    /**
+     * Read and execute commands until quit or the end of the input.
+     *
+     * @param in The input of the engine.
+     * @throws IOException If the input cannot be read.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!execute(line.trim())) {
+                break;
+            }
+        }
+        stop();
+        searchThread.shutdownNow();
+    }
+
+    /**
+     * Execute a command.
+     *
+     * @param command The command line.
+     * @return False if the engine must quit.
+     */
+    public boolean execute(String command) {
+        final String[] tokens = command.split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                out.println("id name StudentChess");
+                out.println("id author Rafael Dousse, Aubry Mangold");
+                out.println("option name Hash type spin default 16 min 1 max " + MAX_HASH);
+                out.println("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+                out.println("option name EvalFile type string default <empty>");
+                out.println("uciok");
+            }
+            case "isready" -> {
+                search();
+                out.println("readyok");
+            }
+            case "setoption" -> setOption(command);
+            case "ucinewgame" -> {
+                stop();
+                search().clear();
+            }
+            case "position" -> setPosition(tokens);
+            case "go" -> go(tokens);
+            case "stop" -> stop();
+            case "quit" -> {
+                return false;
+            }
+            default -> {
+                // Unknown commands are ignored, as the protocol requires.
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handle "setoption name [name] value [value]".
+     *
+     * @param command The command line.
+     */
+    private void setOption(String command) {
+        final int name = command.indexOf("name ");
+        final int value = command.indexOf(" value ");
+        if (name < 0) {
+            return;
+        }
+        final String option = (value < 0 ? command.substring(name + 5) : command.substring(name + 5, value)).trim();
+        final String argument = value < 0 ? "" : command.substring(value + 7).trim();
+        stop();
+        try {
+            switch (option.toLowerCase()) {
+                case "hash" -> {
+                    hashMegabytes = Math.max(1, Math.min(MAX_HASH, Integer.parseInt(argument)));
+                    search = null;
+                }
+                case "multipv" -> multiPv = Math.max(1, Math.min(MAX_MULTI_PV, Integer.parseInt(argument)));
+                case "evalfile" -> {
+                    evalFile = argument.equals("<empty>") ? "" : argument;
+                    search = null;
+                }
+                default -> out.println("info string Unknown option " + option);
+            }
+        } catch (NumberFormatException e) {
+            out.println("info string Invalid value for " + option + ": " + argument);
+        }
+    }
+
+    /**
+     * Handle "position [startpos | fen [fen]] [moves [moves]]".
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void setPosition(String[] tokens) {
+        stop();
+        int i = 1;
+        Position next;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            var fen = new StringBuilder();
+            for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                fen.append(tokens[i]).append(' ');
+            }
+            try {
+                next = Position.fromFen(fen.toString().trim());
+            } catch (IllegalArgumentException e) {
+                out.println("info string " + e.getMessage());
+                return;
+            }
+        } else {
+            next = Position.fromFen(Position.START_FEN);
+            i = 2;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                final int move = Moves.fromUci(next, tokens[i]);
+                if (move == Moves.NONE) {
+                    out.println("info string Illegal move " + tokens[i]);
+                    break;
+                }
+                next.make(move);
+            }
+        }
+        position = next;
+    }
+
+    /**
+     * Handle "go", starting the search on the search thread.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void go(String[] tokens) {
+        stop();
+        int depth = Search.MAX_PLY;
+        long nodes = 0, movetime = 0, time = 0, increment = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        final boolean white = position.sideToMove() == Pieces.WHITE;
+        final boolean infinite = List.of(tokens).contains("infinite");
+        try {
+            for (int i = 1; i + 1 < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Math.max(1, Math.min(Search.MAX_PLY, Integer.parseInt(tokens[++i])));
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "movetime" -> movetime = Long.parseLong(tokens[++i]);
+                    case "wtime" -> time = white ? Long.parseLong(tokens[++i]) : time;
+                    case "btime" -> time = white ? time : Long.parseLong(tokens[++i]);
+                    case "winc" -> increment = white ? Long.parseLong(tokens[++i]) : increment;
+                    case "binc" -> increment = white ? increment : Long.parseLong(tokens[++i]);
+                    case "movestogo" -> movesToGo = Math.max(1, Integer.parseInt(tokens[++i]));
+                    default -> {
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            out.println("info string Invalid go command");
+            return;
+        }
+        if (infinite) {
+            depth = Search.MAX_PLY;
+            nodes = movetime = 0;
+        } else if (movetime == 0 && time > 0) {
+            movetime = Math.max(1, Math.min(time - MOVE_OVERHEAD, time / movesToGo + increment * 3 / 4));
+        }
+        final var limits = new SearchLimits(depth, Math.max(0, nodes), Math.max(0, movetime));
+        final var searched = new Position(position);
+        final var engine = search();
+        final int lines = multiPv;
+        engine.setListener(results -> printInfo(results, engine));
+        engine.prepare(); // Here rather than in the search, so a stop sent right after go is not lost.
+        final var release = new CountDownLatch(1);
+        stopped = release;
+        running = searchThread.submit(() -> {
+            final List<SearchResult> results = engine.search(searched, limits, lines);
+            if (infinite) {
+                // The protocol forbids the best move of an infinite search before stop.
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            final var best = results.get(0);
+            out.println("bestmove " + (best.move() == Moves.NONE ? "0000" : Moves.uci(best.move()))
+                                + (best.pv().length > 1 ? " ponder " + Moves.uci(best.pv()[1]) : ""));
+        });
+    }
+
+    /**
+     * Stop the running search, if any, and wait for its best move to be printed.
+     */
+    private void stop() {
+        if (running == null) {
+            return;
+        }
+        search.stop();
+        stopped.countDown();
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            out.println("info string Search failed: " + e.getCause());
+        }
+        running = null;
+    }
+
+    /**
+     * Print the lines of a completed iteration.
+     *
+     * @param results The lines, best first.
+     * @param engine  The search.
+     */
+    private void printInfo(List<SearchResult> results, Search engine) {
+        final long nodes = engine.metrics().nodes();
+        final long millis = results.get(0).millis();
+        for (int line = 0; line < results.size(); line++) {
+            final var result = results.get(line);
+            out.println("info depth " + result.depth() + " multipv " + (line + 1) + " score "
+                                + (result.isMate() ? "mate " + result.mateIn() : "cp " + result.score())
+                                + " nodes " + nodes + " nps " + nodes * 1000 / Math.max(millis, 1)
+                                + " time " + millis + " pv " + result.pvString());
+        }
+    }
+
+    /**
+     * Get the search, creating it with the current options if needed.
+     *
+     * @return The search.
+     */
+    private Search search() {
+        if (search == null) {
+            search = new Search(hashMegabytes, SearchOptions.DEFAULT, evaluation());
+        }
+        return search;
+    }
+
+    /**
+     * Create the evaluation of the EvalFile option.
+     *
+     * @return The network evaluation if a network file is set and can be read, the hand-crafted one otherwise.
+     */
+    private Evaluator evaluation() {
+        if (!evalFile.isEmpty()) {
+            try {
+                return new NnueEvaluation(Network.load(Path.of(evalFile)));
+            } catch (IOException e) {
+                out.println("info string Cannot load " + evalFile + ", using the hand-crafted evaluation");
+            }
+        }
+        return new Evaluation();
+    }
+}
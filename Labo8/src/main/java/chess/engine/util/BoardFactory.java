@@ -86,6 +86,7 @@ public class BoardFactory {
         Board board = new Board();
         parsePiecePlacement(board, fen.split(" ")[0]);
         parseGameStatus(board, fen.substring(fen.indexOf(" ") + 1));
+        board.resetHistory();
         return board;
     }
 
@@ -108,7 +109,7 @@ public class BoardFactory {
                 if (Character.isDigit(c)) {
                     col += Character.getNumericValue(c);
                 } else {
-                    board.pieces().put(new Square(col, i), createPiece(board, getPieceType(c), getPieceColor(c)));
+                    board.putPiece(new Square(col, i), createPiece(board, getPieceType(c), getPieceColor(c)));
                     col++;
                 }
             }
@@ -36,6 +36,7 @@ public class ConsoleView extends BaseView<String> {
 
   private String checkMessage = "";
   private String[][] buffer;
+  private final TerminalRenderer renderer = new TerminalRenderer(System.out);
 
   public ConsoleView(ChessController controller) {
     super(controller);
@@ -64,15 +65,18 @@ public class ConsoleView extends BaseView<String> {
     buffer[x][y] = loadResourceFor(type, color, UNKNOWN_CELL);
   }
 
+  // The message is shown below the board by the next frame, so it is not erased by it
   @Override
   public void displayMessage(String msg) {
-    System.out.println(msg);
+    checkMessage = msg;
   }
 
   @Override
   public <T extends UserChoice> T askUser(String title, String question, T... possibilities) {
     T result = possibilities.length > 0 ? possibilities[0] : null;
     if (possibilities.length > 1) {
+      // The choices and the errors may scroll the board, so the next frame redraws it entirely
+      renderer.invalidate();
       int i = 0;
       for (T choice : possibilities) {
         System.out.println(i + ". " + choice.textValue());
@@ -118,16 +122,7 @@ public class ConsoleView extends BaseView<String> {
 
 
   private void printBoard() {
-    for (int y = 7; y >= 0; --y) {
-      System.out.print(y + 1 + " |");
-      for (int x = 0; x < 8; ++x) {
-        System.out.print(buffer[x][y]);
-        System.out.print(" ");
-      }
-      System.out.print("\n");
-    }
-    System.out.println("-------------------");
-    System.out.println("   A B C D E F G H ");
+    renderer.render(buffer, checkMessage);
   }
 
   private static int charCoordinateToIndex(char c) {
@@ -135,12 +130,15 @@ public class ConsoleView extends BaseView<String> {
     return c - 'a';
   }
 
-  private static String askPattern(Pattern pattern, String text) {
+  private String askPattern(Pattern pattern, String text) {
     String in = null;
     while (in == null) {
       System.out.println(text);
       in = scanner.findInLine(pattern);
       scanner.nextLine();//clean buffer
+      if (in == null) {
+        renderer.invalidate(); // the repeated prompts may scroll the board
+      }
     }
     return in;
 
@@ -160,8 +158,8 @@ public class ConsoleView extends BaseView<String> {
           charCoordinateToIndex(in.charAt(2)), intCoordinateToIndex(in.charAt(3)));
 
       if (!ok) {
-        System.out.println("Invalid move");
         printBoard();
+        System.out.println("Invalid move");
       }
     }
   }
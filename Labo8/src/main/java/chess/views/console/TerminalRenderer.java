@@ -0,0 +1,73 @@
+package chess.views.console;
+
+import java.io.PrintStream;
+
+/**
+ * Draws the board on an ANSI terminal. The first frame clears the screen and draws the whole board; the following
+ * ones only move the cursor to the cells that changed since the previous frame and redraw them. Each frame is built
+ * in a single buffer and written with one flush, then the cursor is moved below the board, the rest of the screen is
+ * erased and the message of the frame is written, so the prompts always start at the same place.
+ */
+class TerminalRenderer {
+  private static final String CSI = "\u001B[";
+  private static final String SEPARATOR = "-------------------";
+  private static final String COLUMNS = "   A B C D E F G H ";
+
+  // Terminal row of the first line below the board (rows and columns start at 1)
+  private static final int BOTTOM_ROW = 11;
+
+  private final PrintStream out;
+  private final String[][] drawn = new String[8][8];
+  private final StringBuilder frame = new StringBuilder(1024);
+  private boolean fullRedraw = true;
+
+  TerminalRenderer(PrintStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Forces the next frame to redraw the whole screen, e.g. when other output may have scrolled the board.
+   */
+  void invalidate() {
+    fullRedraw = true;
+  }
+
+  /**
+   * Draws a frame.
+   * @param cells the content of each cell, indexed by x then y.
+   * @param message the message shown below the board, may be empty.
+   */
+  void render(String[][] cells, String message) {
+    frame.setLength(0);
+    if (fullRedraw) {
+      frame.append(CSI).append("2J").append(CSI).append('H');
+      for (int y = 7; y >= 0; --y) {
+        frame.append(y + 1).append(" |");
+        for (int x = 0; x < 8; ++x) {
+          frame.append(cells[x][y]).append(' ');
+          drawn[x][y] = cells[x][y];
+        }
+        frame.append('\n');
+      }
+      frame.append(SEPARATOR).append('\n').append(COLUMNS).append('\n');
+      fullRedraw = false;
+    }
+    else {
+      for (int y = 0; y < 8; ++y) {
+        for (int x = 0; x < 8; ++x) {
+          if (!cells[x][y].equals(drawn[x][y])) {
+            // "8 |" takes the first three columns, then each cell is followed by a space
+            frame.append(CSI).append(8 - y).append(';').append(4 + 2 * x).append('H').append(cells[x][y]);
+            drawn[x][y] = cells[x][y];
+          }
+        }
+      }
+    }
+    frame.append(CSI).append(BOTTOM_ROW).append(";1H").append(CSI).append('J');
+    if (!message.isEmpty()) {
+      frame.append(message).append('\n');
+    }
+    out.print(frame);
+    out.flush();
+  }
+}
@@ -25,6 +25,10 @@ class ChessSquare extends JButton {
     this.setBorder(new LineBorder(Color.GREEN, 5));
   }
 
+  void highlight() {
+    this.setBorder(new LineBorder(Color.ORANGE, 3));
+  }
+
   void deselect() {
     this.setBorder(null);
   }
@@ -1,5 +1,6 @@
 package chess.views.gui;
 
+import chess.BoardDiff;
 import chess.ChessController;
 import chess.PieceType;
 import chess.PlayerColor;
@@ -13,8 +14,11 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class GUIView extends BaseView<ImageIcon> {
 
@@ -42,10 +46,25 @@ public class GUIView extends BaseView<ImageIcon> {
   private final JLabel headerLabel = new JLabel("Welcome to the HEIG-VD Chess game!");
   private static final String COLS = "ABCDEFGH";
   private final JLabel messageLabel = new JLabel("");
+  private final JLabel analysisLabel = new JLabel(" ");
+
+  // Latest analysis not yet shown, so the updates arriving faster than the EDT draws them are coalesced
+  private final AtomicReference<String> pendingAnalysis = new AtomicReference<>();
 
   private ChessSquare lastPressed = null;
 
-  private final static ImageIcon EMPTY_ICON = new ImageIcon(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB));
+  // Pieces to display, written by putPiece/removePiece from any thread and guarded by this
+  private final PieceType[] pendingTypes = new PieceType[64];
+  private final PlayerColor[] pendingColors = new PlayerColor[64];
+  private long dirtySquares = 0;
+  private boolean flushScheduled = false;
+
+  // Pieces displayed and icons, only used on the EDT
+  private final PieceType[] shownTypes = new PieceType[64];
+  private final PlayerColor[] shownColors = new PlayerColor[64];
+  private final IconCache iconCache = new IconCache();
+  private int iconSize = 64;
+
   private final static ImageIcon UNKNOWN_ICON;
 
   static { // Damier pour absence de texture au cas où
@@ -114,12 +133,69 @@ public class GUIView extends BaseView<ImageIcon> {
 
   @Override
   public void removePiece(int x, int y) {
-    chessBoardSquares[x][y].setIcon(EMPTY_ICON);
+    update(x, y, null, null);
   }
 
   @Override
   public void putPiece(PieceType type, PlayerColor color, int x, int y) {
-    chessBoardSquares[x][y].setIcon(loadResourceFor(type, color, UNKNOWN_ICON));
+    update(x, y, type, color);
+  }
+
+  // All the squares of a move are recorded at once, so a flush never shows half a move
+  @Override
+  public synchronized void update(BoardDiff diff) {
+    for (BoardDiff.Change change : diff.changes()) {
+      update(change.x(), change.y(), change.type(), change.color());
+    }
+  }
+
+  // Records the new content of a square and schedules a single flush for all the updates that follow until the EDT
+  // runs it, so the squares changed by a move are painted together and a fast replay never queues a backlog of frames
+  private synchronized void update(int x, int y, PieceType type, PlayerColor color) {
+    int square = y * 8 + x;
+    pendingTypes[square] = type;
+    pendingColors[square] = color;
+    dirtySquares |= 1L << square;
+    if (!flushScheduled) {
+      flushScheduled = true;
+      SwingUtilities.invokeLater(this::flush);
+    }
+  }
+
+  private void flush() {
+    long dirty;
+    synchronized (this) {
+      dirty = dirtySquares;
+      dirtySquares = 0;
+      flushScheduled = false;
+      for (long bits = dirty; bits != 0; bits &= bits - 1) {
+        int square = Long.numberOfTrailingZeros(bits);
+        shownTypes[square] = pendingTypes[square];
+        shownColors[square] = pendingColors[square];
+      }
+    }
+    for (long bits = dirty; bits != 0; bits &= bits - 1) {
+      showSquare(Long.numberOfTrailingZeros(bits));
+    }
+  }
+
+  private void showSquare(int square) {
+    ImageIcon icon = shownTypes[square] == null ? iconCache.empty(iconSize)
+        : iconCache.scaled(loadResourceFor(shownTypes[square], shownColors[square], UNKNOWN_ICON), iconSize);
+    chessBoardSquares[square % 8][square / 8].setIcon(icon);
+  }
+
+  // Scales the icons to the squares when the board is resized
+  private void resizeIcons(ChessSquare square) {
+    Insets insets = square.getInsets();
+    int size = Math.min(square.getWidth() - insets.left - insets.right,
+        square.getHeight() - insets.top - insets.bottom);
+    if (size > 0 && size != iconSize) {
+      iconSize = size;
+      for (int i = 0; i < 64; i++) {
+        showSquare(i);
+      }
+    }
   }
 
   @Override
@@ -127,6 +203,15 @@ public class GUIView extends BaseView<ImageIcon> {
     messageLabel.setText(msg);
   }
 
+  @Override
+  public void displayAnalysis(String evaluation, String line) {
+    // Called from the analysis thread: only schedule a repaint if none is pending
+    String text = evaluation.isEmpty() ? " " : evaluation + "   " + line;
+    if (pendingAnalysis.getAndSet(text) == null) {
+      SwingUtilities.invokeLater(() -> analysisLabel.setText(pendingAnalysis.getAndSet(null)));
+    }
+  }
+
   @Override
   public <T extends UserChoice> T askUser(String title, String question, T... possibilities) {
     T result = possibilities.length > 0 ? possibilities[0] : null;
@@ -158,15 +243,31 @@ public class GUIView extends BaseView<ImageIcon> {
     if (lastPressed == null) {
       lastPressed = b;
       b.select();
+      highlightDestinations(controller.legalDestinations(b.x, b.y));
     }
     //Smth was already selected
     else {
+      highlightDestinations(0);
       move(lastPressed, b);
       lastPressed.deselect();
       lastPressed = null;
     }
   }
 
+  // Mark the squares of a bitboard, square y * 8 + x, and clear the other marks
+  private void highlightDestinations(long destinations) {
+    for (int x = 0; x < chessBoardSquares.length; ++x) {
+      for (int y = 0; y < chessBoardSquares[x].length; ++y) {
+        ChessSquare square = chessBoardSquares[x][y];
+        if ((destinations >>> (y * 8 + x) & 1) != 0) {
+          square.highlight();
+        } else if (square != lastPressed) {
+          square.deselect();
+        }
+      }
+    }
+  }
+
   private void initializeGui() {
     // set up the main GUI
     gui.setBorder(new EmptyBorder(5, 5, 5, 5));
@@ -181,6 +282,9 @@ public class GUIView extends BaseView<ImageIcon> {
       }
     };
     tools.add(newGameAction);
+    JToggleButton analysisButton = new JToggleButton("Analysis");
+    analysisButton.addActionListener(e -> controller.setAnalysis(analysisButton.isSelected()));
+    tools.add(analysisButton);
     tools.addSeparator();
     tools.add(headerLabel);
     tools.addSeparator();
@@ -221,6 +325,8 @@ public class GUIView extends BaseView<ImageIcon> {
     JPanel boardConstrain = new JPanel(new GridBagLayout());
     boardConstrain.add(chessBoard);
     gui.add(boardConstrain);
+    analysisLabel.setBorder(new EmptyBorder(0, 8, 0, 8));
+    gui.add(analysisLabel, BorderLayout.PAGE_END);
 
     // create the chess board squares
     for (int i = 0; i < chessBoardSquares.length; i++) {
@@ -231,6 +337,13 @@ public class GUIView extends BaseView<ImageIcon> {
         chessBoardSquares[i][j] = b;
       }
     }
+    // all the squares have the same size
+    chessBoardSquares[0][0].addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(ComponentEvent e) {
+        resizeIcons(chessBoardSquares[0][0]);
+      }
+    });
 
     /*
      * fill the chess board
@@ -0,0 +1,55 @@
+package chess.views.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the piece icons scaled to the size of the squares. Each icon is scaled once per size, and only the most
+ * recently used sizes are kept. To be used on the EDT only.
+ */
+class IconCache {
+  private static final int MAX_SIZES = 4;
+
+  // Scaled icons by size, then by source image
+  private final Map<Integer, Map<Image, ImageIcon>> icons = new LinkedHashMap<>(8, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, Map<Image, ImageIcon>> eldest) {
+      return size() > MAX_SIZES;
+    }
+  };
+
+  /**
+   * Returns the icon scaled to the given size.
+   * @param source the icon to scale.
+   * @param size the width and height of the scaled icon.
+   */
+  ImageIcon scaled(ImageIcon source, int size) {
+    return icons.computeIfAbsent(size, s -> new IdentityHashMap<>())
+        .computeIfAbsent(source.getImage(), image -> new ImageIcon(scale(image, size)));
+  }
+
+  /**
+   * Returns a transparent icon of the given size, so empty squares keep the size of the occupied ones and changing
+   * a piece never triggers a new layout.
+   * @param size the width and height of the icon.
+   */
+  ImageIcon empty(int size) {
+    return icons.computeIfAbsent(size, s -> new IdentityHashMap<>())
+        .computeIfAbsent(null, image -> new ImageIcon(new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)));
+  }
+
+  private static BufferedImage scale(Image image, int size) {
+    BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = scaled.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.drawImage(image, 0, 0, size, size, null);
+    g.dispose();
+    return scaled;
+  }
+}
@@ -0,0 +1,48 @@
+package chess.views.headless;
+
+import chess.ChessView;
+import chess.PieceType;
+import chess.PlayerColor;
+
+/**
+ * View without any output, used to drive the controller from code (engine matches, batch tools). Choices asked to
+ * the user are answered with the choice selected beforehand with {@link #preselect(UserChoice)}.
+ */
+public class HeadlessView implements ChessView {
+
+  private UserChoice preselected = null;
+
+  /**
+   * Select the answer of the next question asked to the user.
+   * @param choice the choice to answer with, or null to answer with the first possibility.
+   */
+  public void preselect(UserChoice choice) {
+    preselected = choice;
+  }
+
+  @Override
+  public void startView() {
+  }
+
+  @Override
+  public void removePiece(int x, int y) {
+  }
+
+  @Override
+  public void putPiece(PieceType type, PlayerColor color, int x, int y) {
+  }
+
+  @Override
+  public void displayMessage(String msg) {
+  }
+
+  @Override
+  public <T extends UserChoice> T askUser(String title, String question, T... possibilities) {
+    for (T possibility : possibilities) {
+      if (possibility.equals(preselected)) {
+        return possibility;
+      }
+    }
+    return possibilities.length > 0 ? possibilities[0] : null;
+  }
+}
@@ -0,0 +1,57 @@
+package chess.engine;
+
+import chess.engine.util.BoardFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the Flight Recorder events of the controller.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class ControllerCallEventTest {
+    @Test
+    public void callsAreRecordedWithTheirMoveAndResult() throws IOException {
+        final var controller = new Controller();
+        controller.setView(MockView.getInstance());
+        controller.setBoard(BoardFactory.createInitialBoard());
+
+        final List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.enable("chess.ControllerCall").withThreshold(Duration.ZERO);
+            recording.start();
+            controller.updateGameState();
+            controller.move(4, 1, 4, 3);
+            controller.move(4, 1, 4, 3);
+            recording.stop();
+            final var file = Files.createTempFile("controller", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        // The valid move updates the game state as well.
+        final var updates = events.stream().filter(e -> e.getString("operation").equals("updateGameState")).toList();
+        assertEquals(2, updates.size());
+        updates.forEach(e -> assertEquals("NORMAL", e.getString("result")));
+        final var moves = events.stream().filter(e -> e.getString("operation").equals("move"))
+                                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime())).toList();
+        assertEquals(2, moves.size());
+        assertEquals("4,1 4,3", moves.get(0).getString("move"));
+        assertEquals("valid", moves.get(0).getString("result"));
+        assertEquals("invalid", moves.get(1).getString("result"));
+    }
+}
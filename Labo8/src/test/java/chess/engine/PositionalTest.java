@@ -1,11 +1,15 @@
 package chess.engine;
 
+import chess.engine.board.GameState;
+import chess.engine.board.Square;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * These test assert that the GUI allows for the correct amount of possible move in a given position.
@@ -25,6 +29,127 @@ public class PositionalTest {
         assertEquals(expectedMoves, countMoves(fen));
     }
 
+    /**
+     * The legal destinations cached by the controller must give the same number of moves, promotions being counted
+     * once as the moves of the GUI.
+     */
+    @ParameterizedTest
+    @CsvFileSource(resources = "/positions.csv", numLinesToSkip = 1)
+    public void legalDestinationsSuite(String group, String name, String fen, int expectedMoves) {
+        final var controller = new TestController(fen);
+        int moves = 0;
+        for (int square = 0; square < 64; square++) {
+            moves += Long.bitCount(controller.legalDestinations(square % 8, square / 8));
+        }
+        assertEquals(expectedMoves, moves);
+    }
+
+    /**
+     * The pawn on b5 is pinned by the rook on h5 and must not move, although the rules of the pawn alone allow it.
+     */
+    @Test
+    public void pinnedPawnCannotMove() {
+        final var controller = new TestController("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        controller.setView(MockView.getInstance());
+        assertFalse(controller.move(1, 4, 1, 5));
+        assertEquals(14, countMoves("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"));
+    }
+
+    /**
+     * The start position is repeated a third time after the knights went back and forth twice.
+     */
+    @Test
+    public void threefoldRepetitionIsDraw() {
+        final var controller = new TestController();
+        controller.setView(MockView.getInstance());
+        play(controller, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+        assertEquals(GameState.NORMAL, controller.board().gameState());
+        play(controller, "f6g8");
+        assertEquals(2, controller.board().repetitionCount());
+        assertEquals(GameState.DRAW, controller.board().gameState());
+    }
+
+    /**
+     * The fivefold repetition is a draw too. The game is over after the third repetition, so the moves are played on
+     * the board directly.
+     */
+    @Test
+    public void fivefoldRepetitionIsDraw() {
+        final var board = new TestController().board();
+        for (int i = 0; i < 4; i++) {
+            for (var move : new String[]{"g1f3", "g8f6", "f3g1", "f6g8"}) {
+                final var from = square(move.substring(0, 2));
+                board.putPiece(square(move.substring(2, 4)), board.removePiece(from));
+                board.incrementHalfMoveClock();
+                board.nextTurn();
+            }
+        }
+        assertEquals(4, board.repetitionCount());
+        assertTrue(board.status().repetition());
+        assertTrue(board.isDraw());
+    }
+
+    /**
+     * The game is drawn on the hundredth half move without a capture or a pawn advance, not before.
+     */
+    @Test
+    public void fiftyMoveRuleBoundary() {
+        final var controller = new TestController("8/8/8/8/8/1k6/8/K6R w - - 99 80");
+        controller.setView(MockView.getInstance());
+        assertFalse(controller.board().status().fiftyMoves());
+        assertEquals(GameState.NORMAL, controller.board().gameState());
+        play(controller, "h1h2");
+        assertEquals(100, controller.board().halfMoveClock());
+        assertTrue(controller.board().status().fiftyMoves());
+        assertEquals(GameState.DRAW, controller.board().gameState());
+        assertEquals(GameState.DRAW, new TestController("8/8/8/8/8/1k6/8/K6R w - - 100 80").board().gameState());
+    }
+
+    /**
+     * Two bishops on squares of the same color cannot checkmate, but two on opposite colors can.
+     */
+    @Test
+    public void bishopsInsufficientMaterial() {
+        assertTrue(new TestController("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").board().status().insufficientMaterial());
+        assertFalse(new TestController("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1").board().status().insufficientMaterial());
+        assertEquals(GameState.NORMAL, new TestController("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1").board().gameState());
+    }
+
+    /**
+     * A king in check in a position that cannot be won any more is a draw, not a check.
+     */
+    @Test
+    public void drawnPositionInCheck() {
+        final var board = new TestController("8/8/8/8/1k6/8/8/K3B3 b - - 0 1").board();
+        assertTrue(board.status().check());
+        assertTrue(board.isDraw());
+        assertEquals(GameState.DRAW, board.gameState());
+    }
+
+    /**
+     * Play moves through the controller.
+     *
+     * @param controller The controller.
+     * @param moves      The moves in long algebraic notation, which must all be legal.
+     */
+    private static void play(TestController controller, String... moves) {
+        for (var move : moves) {
+            final var from = square(move.substring(0, 2));
+            final var to = square(move.substring(2, 4));
+            assertTrue(controller.move(from.x(), from.y(), to.x(), to.y()), move);
+        }
+    }
+
+    /**
+     * Get a square from its name.
+     *
+     * @param name The name of the square, such as e4.
+     * @return The square.
+     */
+    private static Square square(String name) {
+        return new Square(name.charAt(0) - 'a', name.charAt(1) - '1');
+    }
+
     /**
      * Count the number of moves that are found in a given position.
      *
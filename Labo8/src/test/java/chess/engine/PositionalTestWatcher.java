@@ -6,9 +6,7 @@ import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.TestWatcher;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -103,32 +101,17 @@ public class PositionalTestWatcher implements TestWatcher, BeforeEachCallback, A
     }
 
     /**
-     * Get the legal moves for the given FEN using the `legal_moves.py` python script.
-     * Note: this requires python and pychess to be installed and available in the system path.
-     * The script can be found in `src/test/resources/legal_moves.py`.
+     * Get the legal moves for the given FEN from the reference move generator. The promotions are reduced to their
+     * origin and destination, as the board model does not distinguish them.
      *
      * @param fen The FEN string of the position.
      * @return The list of legal moves.
      */
     private List<Move> legalMoves(String fen) {
         List<Move> moves = new ArrayList<>();
-        try {
-            ProcessBuilder pb = new ProcessBuilder(Arrays.asList("python", "src/test/resources/legal_moves.py", fen));
-            Process p = pb.start();
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            String ret;
-            while ((ret = in.readLine()) != null) {
-                String[] moveList = ret.replace("[", "").replace("]", "").replace("'", "").split(", ");
-                for (String move : moveList) {
-                    moves.add(new Move(move));
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(
-                    "Error while executing `legalMoves.py`. Check that python and pychess are installed and available in the system path.");
+        for (String move : ReferenceMoveGenerator.legalMoves(fen)) {
+            moves.add(new Move(move));
         }
-
         return moves;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,425 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reference move generator used as a test oracle. It shares no code with the engine: the position is an array of FEN
+ * characters, the moves are generated by walking the board in every direction and a move is legal if, once played on
+ * a copy of the board, no piece of the opponent attacks the king. It is slow and simple on purpose, so its results
+ * can be trusted to check the fast generators.
+ * <p>
+ * Positions without a king of the side to move are supported: all their pseudo-legal moves are legal.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public final class ReferenceMoveGenerator {
+    /**
+     * The directions, as file and rank offsets.
+     */
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_JUMPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1},
+            {-1, 2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    /**
+     * The pieces of the promotions, in UCI notation.
+     */
+    private static final String PROMOTIONS = "qrbn";
+
+    /**
+     * The FEN character of each square, '.' when empty, indexed by rank * 8 + file.
+     */
+    private final char[] board;
+
+    /**
+     * Whether white is to move.
+     */
+    private final boolean white;
+
+    /**
+     * The castling rights, as in FEN ("KQkq", "-"...).
+     */
+    private final String castling;
+
+    /**
+     * The en passant square, or -1.
+     */
+    private final int enPassant;
+
+    /**
+     * Constructor.
+     *
+     * @param board     The board.
+     * @param white     Whether white is to move.
+     * @param castling  The castling rights.
+     * @param enPassant The en passant square, or -1.
+     */
+    private ReferenceMoveGenerator(char[] board, boolean white, String castling, int enPassant) {
+        this.board = board;
+        this.white = white;
+        this.castling = castling;
+        this.enPassant = enPassant;
+    }
+
+    /**
+     * Read a position from the first four fields of a FEN or EPD string.
+     *
+     * @param fen The FEN string.
+     * @return The position.
+     */
+    public static ReferenceMoveGenerator fromFen(String fen) {
+        final String[] fields = fen.trim().split("\\s+");
+        final char[] board = new char[64];
+        Arrays.fill(board, '.');
+        final String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        for (int rank = 0; rank < 8; rank++) {
+            int file = 0;
+            for (char c : ranks[7 - rank].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    file += c - '0';
+                } else {
+                    board[rank * 8 + file++] = c;
+                }
+            }
+        }
+        final boolean white = fields.length < 2 || fields[1].equals("w");
+        final String castling = fields.length < 3 ? "-" : fields[2];
+        final int enPassant = fields.length < 4 || fields[3].equals("-") ? -1 : square(fields[3]);
+        return new ReferenceMoveGenerator(board, white, castling, enPassant);
+    }
+
+    /**
+     * Get the legal moves of a FEN position.
+     *
+     * @param fen The FEN string.
+     * @return The legal moves in UCI notation, sorted.
+     */
+    public static List<String> legalMoves(String fen) {
+        return fromFen(fen).legalMoves();
+    }
+
+    /**
+     * Get the legal moves of the position.
+     *
+     * @return The legal moves in UCI notation, sorted.
+     */
+    public List<String> legalMoves() {
+        final List<String> moves = new ArrayList<>();
+        for (var move : pseudoLegalMoves()) {
+            final char[] after = play(move).board;
+            final int king = find(after, white ? 'K' : 'k');
+            if (king < 0 || !attacked(after, king, !white)) {
+                moves.add(move);
+            }
+        }
+        Collections.sort(moves);
+        return moves;
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     *
+     * @param depth The depth.
+     * @return The number of leaf nodes.
+     */
+    public long perft(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (var move : legalMoves()) {
+            nodes += play(move).perft(depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Play a move, legal or not, on a copy of the position.
+     *
+     * @param uci The move in UCI notation.
+     * @return The position after the move.
+     */
+    public ReferenceMoveGenerator play(String uci) {
+        final int from = square(uci.substring(0, 2)), to = square(uci.substring(2, 4));
+        final char[] after = board.clone();
+        final char piece = after[from];
+        after[from] = '.';
+        after[to] = uci.length() > 4 ? (white ? Character.toUpperCase(uci.charAt(4)) : uci.charAt(4)) : piece;
+        final boolean pawn = Character.toLowerCase(piece) == 'p';
+        if (pawn && to == enPassant) {
+            after[to + (white ? -8 : 8)] = '.';
+        }
+        if (Character.toLowerCase(piece) == 'k' && Math.abs(to - from) == 2) {
+            final int rookFrom = to > from ? from + 3 : from - 4, rookTo = (from + to) / 2;
+            after[rookTo] = after[rookFrom];
+            after[rookFrom] = '.';
+        }
+        String rights = castling;
+        for (int square : new int[]{from, to}) {
+            rights = switch (square) {
+                case 4 -> rights.replace("K", "").replace("Q", "");
+                case 60 -> rights.replace("k", "").replace("q", "");
+                case 7 -> rights.replace("K", "");
+                case 0 -> rights.replace("Q", "");
+                case 63 -> rights.replace("k", "");
+                case 56 -> rights.replace("q", "");
+                default -> rights;
+            };
+        }
+        final int nextEnPassant = pawn && Math.abs(to - from) == 16 ? (from + to) / 2 : -1;
+        return new ReferenceMoveGenerator(after, !white, rights.isEmpty() ? "-" : rights, nextEnPassant);
+    }
+
+    /**
+     * Generate the moves without checking whether the king is left in check.
+     *
+     * @return The moves in UCI notation.
+     */
+    private List<String> pseudoLegalMoves() {
+        final List<String> moves = new ArrayList<>();
+        for (int from = 0; from < 64; from++) {
+            final char piece = board[from];
+            if (piece == '.' || Character.isUpperCase(piece) != white) {
+                continue;
+            }
+            switch (Character.toLowerCase(piece)) {
+                case 'p' -> pawnMoves(from, moves);
+                case 'n' -> steps(from, KNIGHT_JUMPS, false, moves);
+                case 'b' -> steps(from, BISHOP_DIRECTIONS, true, moves);
+                case 'r' -> steps(from, ROOK_DIRECTIONS, true, moves);
+                case 'q' -> {
+                    steps(from, ROOK_DIRECTIONS, true, moves);
+                    steps(from, BISHOP_DIRECTIONS, true, moves);
+                }
+                case 'k' -> {
+                    steps(from, KING_STEPS, false, moves);
+                    castlingMoves(from, moves);
+                }
+                default -> throw new IllegalStateException("Unknown piece " + piece);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Generate the moves of a pawn.
+     *
+     * @param from  The square of the pawn.
+     * @param moves The moves.
+     */
+    private void pawnMoves(int from, List<String> moves) {
+        final int forward = white ? 1 : -1;
+        final int file = from % 8, rank = from / 8;
+        final int next = rank + forward;
+        if (next < 0 || next > 7) {
+            return;
+        }
+        if (board[next * 8 + file] == '.') {
+            pawnMove(from, next * 8 + file, moves);
+            final int start = white ? 1 : 6;
+            if (rank == start && board[(next + forward) * 8 + file] == '.') {
+                moves.add(name(from) + name((next + forward) * 8 + file));
+            }
+        }
+        for (int side = -1; side <= 1; side += 2) {
+            if (file + side < 0 || file + side > 7) {
+                continue;
+            }
+            final int to = next * 8 + file + side;
+            if (isOpponent(board[to]) || to == enPassant) {
+                pawnMove(from, to, moves);
+            }
+        }
+    }
+
+    /**
+     * Add a pawn move, with the four promotions if it reaches the last rank.
+     *
+     * @param from  The origin.
+     * @param to    The destination.
+     * @param moves The moves.
+     */
+    private static void pawnMove(int from, int to, List<String> moves) {
+        if (to / 8 == 0 || to / 8 == 7) {
+            for (char promotion : PROMOTIONS.toCharArray()) {
+                moves.add(name(from) + name(to) + promotion);
+            }
+        } else {
+            moves.add(name(from) + name(to));
+        }
+    }
+
+    /**
+     * Generate the moves of a piece in some directions.
+     *
+     * @param from    The square of the piece.
+     * @param offsets The directions or jumps.
+     * @param slide   Whether the piece moves any number of squares in each direction.
+     * @param moves   The moves.
+     */
+    private void steps(int from, int[][] offsets, boolean slide, List<String> moves) {
+        for (int[] offset : offsets) {
+            int file = from % 8 + offset[0], rank = from / 8 + offset[1];
+            while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                final char target = board[rank * 8 + file];
+                if (target != '.' && !isOpponent(target)) {
+                    break;
+                }
+                moves.add(name(from) + name(rank * 8 + file));
+                if (target != '.' || !slide) {
+                    break;
+                }
+                file += offset[0];
+                rank += offset[1];
+            }
+        }
+    }
+
+    /**
+     * Generate the castling moves of the king.
+     *
+     * @param from  The square of the king.
+     * @param moves The moves.
+     */
+    private void castlingMoves(int from, List<String> moves) {
+        final int home = white ? 4 : 60;
+        if (from != home || attacked(board, home, !white)) {
+            return;
+        }
+        final char rook = white ? 'R' : 'r';
+        if (castling.indexOf(white ? 'K' : 'k') >= 0 && board[home + 3] == rook && board[home + 1] == '.'
+                && board[home + 2] == '.' && !attacked(board, home + 1, !white)) {
+            moves.add(name(home) + name(home + 2));
+        }
+        if (castling.indexOf(white ? 'Q' : 'q') >= 0 && board[home - 4] == rook && board[home - 1] == '.'
+                && board[home - 2] == '.' && board[home - 3] == '.' && !attacked(board, home - 1, !white)) {
+            moves.add(name(home) + name(home - 2));
+        }
+    }
+
+    /**
+     * Check whether a square is attacked, by looking from the square for each kind of attacker.
+     *
+     * @param board   The board.
+     * @param square  The square.
+     * @param byWhite Whether the attackers are white.
+     * @return True if a piece of the attacking color attacks the square.
+     */
+    private static boolean attacked(char[] board, int square, boolean byWhite) {
+        final int file = square % 8, rank = square / 8;
+        // A white pawn attacks from the rank below, a black one from the rank above.
+        final int pawnRank = rank + (byWhite ? -1 : 1);
+        for (int side = -1; side <= 1; side += 2) {
+            if (is(board, file + side, pawnRank, byWhite ? 'P' : 'p')) {
+                return true;
+            }
+        }
+        for (int[] jump : KNIGHT_JUMPS) {
+            if (is(board, file + jump[0], rank + jump[1], byWhite ? 'N' : 'n')) {
+                return true;
+            }
+        }
+        for (int[] step : KING_STEPS) {
+            if (is(board, file + step[0], rank + step[1], byWhite ? 'K' : 'k')) {
+                return true;
+            }
+        }
+        return slider(board, file, rank, ROOK_DIRECTIONS, byWhite ? "RQ" : "rq")
+                || slider(board, file, rank, BISHOP_DIRECTIONS, byWhite ? "BQ" : "bq");
+    }
+
+    /**
+     * Check whether the first piece met in some directions is one of the given pieces.
+     *
+     * @param board      The board.
+     * @param file       The file of the square.
+     * @param rank       The rank of the square.
+     * @param directions The directions.
+     * @param pieces     The pieces looked for.
+     * @return True if one of the pieces is met first in a direction.
+     */
+    private static boolean slider(char[] board, int file, int rank, int[][] directions, String pieces) {
+        for (int[] direction : directions) {
+            int f = file + direction[0], r = rank + direction[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                final char piece = board[r * 8 + f];
+                if (piece != '.') {
+                    if (pieces.indexOf(piece) >= 0) {
+                        return true;
+                    }
+                    break;
+                }
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a square holds a piece, if it is on the board.
+     *
+     * @param board The board.
+     * @param file  The file.
+     * @param rank  The rank.
+     * @param piece The piece.
+     * @return True if the square is on the board and holds the piece.
+     */
+    private static boolean is(char[] board, int file, int rank, char piece) {
+        return file >= 0 && file < 8 && rank >= 0 && rank < 8 && board[rank * 8 + file] == piece;
+    }
+
+    /**
+     * Check whether a square content is a piece of the opponent.
+     *
+     * @param piece The content of the square.
+     * @return True if it is a piece of the side not to move.
+     */
+    private boolean isOpponent(char piece) {
+        return piece != '.' && Character.isUpperCase(piece) != white;
+    }
+
+    /**
+     * Find a piece.
+     *
+     * @param board The board.
+     * @param piece The piece.
+     * @return The first square holding the piece, or -1.
+     */
+    private static int find(char[] board, char piece) {
+        for (int square = 0; square < 64; square++) {
+            if (board[square] == piece) {
+                return square;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the index of a square.
+     *
+     * @param name The name of the square, e.g. "e4".
+     * @return The index.
+     */
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + name.charAt(0) - 'a';
+    }
+
+    /**
+     * Get the name of a square.
+     *
+     * @param square The index.
+     * @return The name, e.g. "e4".
+     */
+    private static String name(int square) {
+        return "" + (char) ('a' + square % 8) + (char) ('1' + square / 8);
+    }
+}
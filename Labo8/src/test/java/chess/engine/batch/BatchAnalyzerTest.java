@@ -0,0 +1,71 @@
+package chess.engine.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the batch analysis of positions.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BatchAnalyzerTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;NORMAL;20",
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3;CHECKMATE;0",
+            "k7/8/1Q6/8/8/8/8/7K b - - 0 1;STALEMATE;0",
+            "4k3/8/8/8/8/8/8/K3R3 b - - 0 1;CHECK;4",
+            "4k3/8/8/8/8/8/8/R3K3 w - - 100 80;FIFTY_MOVES;15",
+            "8/8/8/8/8/b7/8/k1K5 w - - 0 1;INSUFFICIENT_MATERIAL;3",
+            "4k3/8/8/8/8/8/8/K3R3 w - - 0 1;ILLEGAL;-1",
+            "8/8/8/8/8/8/k1K5 w - - 0 1;INVALID;-1",
+    })
+    public void status(String fen, PositionStatus status, int legalMoves) {
+        var report = new PositionAnalyzer(0).analyze(1, fen);
+        assertEquals(status, report.status());
+        assertEquals(legalMoves, report.legalMoves());
+    }
+
+    @Test
+    public void extractFen() {
+        assertEquals("8/8/8/8/8/8/4P3/8 w - - 0 1",
+                     PositionAnalyzer.extractFen("Basic Positions,Pawn Single Move,8/8/8/8/8/8/4P3/8 w - - 0 1,2"));
+        assertNull(PositionAnalyzer.extractFen("Category,Position Name,FEN String,Expected Moves"));
+        assertNull(PositionAnalyzer.extractFen("# comment"));
+    }
+
+    /**
+     * The reports are written in the order of the input, whatever the number of threads and the size of the chunks.
+     */
+    @Test
+    public void order() throws IOException {
+        var input = new StringBuilder();
+        var expected = new StringBuilder("line,status,legal_moves,perft,fen\n");
+        for (int i = 1; i <= 500; i++) {
+            final boolean start = i % 3 == 0;
+            input.append(start ? "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 c0 \"start\";"
+                               : "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -").append('\n');
+            expected.append(i).append(start
+                    ? ",NORMAL,20,400,rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+                    : ",NORMAL,48,2039,r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -").append('\n');
+        }
+        var analyzer = new BatchAnalyzer(4, 7, 2, false);
+        var output = new StringWriter();
+        try {
+            analyzer.run(new BufferedReader(new StringReader(input.toString())), output);
+        } finally {
+            analyzer.shutdown();
+        }
+        assertEquals(expected.toString(), output.toString());
+    }
+}
@@ -0,0 +1,165 @@
+package chess.engine.broadcast;
+
+import chess.engine.Controller;
+import chess.engine.MockView;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the broadcast of a game to spectators.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BroadcastTest {
+    /**
+     * A spectator in the same process, which keeps the events it receives.
+     */
+    private static final class RecordingSink implements Broadcast.Sink {
+        final List<byte[]> events = new ArrayList<>();
+        final CountDownLatch received;
+
+        RecordingSink(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void send(byte[] event) {
+            events.add(event);
+            received.countDown();
+        }
+
+        synchronized List<byte[]> events() {
+            return new ArrayList<>(events);
+        }
+    }
+
+    /**
+     * A spectator whose connection is stalled: a send blocks until the connection is closed, then fails.
+     */
+    private static final class BlockedSink implements Broadcast.Sink {
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(byte[] event) throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Connection closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    @Test
+    public void eventsAreSharedInOrder() throws InterruptedException {
+        try (var broadcast = new Broadcast(64, 32)) {
+            final List<RecordingSink> sinks = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final var sink = new RecordingSink(10);
+                sinks.add(sink);
+                broadcast.subscribe(sink);
+            }
+            for (int i = 0; i < 10; i++) {
+                broadcast.publish("event " + i);
+            }
+            for (var sink : sinks) {
+                assertTrue(sink.received.await(10, TimeUnit.SECONDS));
+                final var events = sink.events();
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(i + " event " + i + "\n", new String(events.get(i), StandardCharsets.UTF_8));
+                    assertSame(sinks.get(0).events().get(i), events.get(i));
+                }
+            }
+            assertEquals(1000, broadcast.spectators());
+        }
+    }
+
+    @Test
+    public void slowSpectatorIsDropped() throws InterruptedException {
+        try (var broadcast = new Broadcast(16, 8)) {
+            final var blocked = new BlockedSink();
+            final var slow = broadcast.subscribe(blocked);
+            final var fast = new RecordingSink(100);
+            final var other = broadcast.subscribe(fast);
+            for (int i = 0; i < 100; i++) {
+                broadcast.publish("event " + i);
+                assertTrue(waitFor(fast, 100 - i - 1));
+            }
+            // The slow spectator is still blocked in its first send: only the producer can drop it.
+            slow.join();
+            assertFalse(slow.isConnected());
+            assertTrue(slow.closeReason().startsWith("slow consumer"));
+            assertEquals(1, broadcast.dropped());
+            assertTrue(other.isConnected());
+        }
+    }
+
+    @Test
+    public void closeDisconnectsBlockedSpectators() throws InterruptedException {
+        final var broadcast = new Broadcast(16, 8);
+        final var spectator = broadcast.subscribe(new BlockedSink());
+        broadcast.publish("event");
+        broadcast.close();
+        spectator.join();
+        assertEquals("broadcast closed", spectator.closeReason());
+        assertEquals(0, broadcast.spectators());
+    }
+
+    @Test
+    public void controllerMovesOverSocket() throws IOException {
+        try (var broadcast = new Broadcast(64, 32); var server = new BroadcastServer(broadcast, 0)) {
+            final var controller = new Controller();
+            controller.setView(MockView.getInstance());
+            controller.setBroadcast(broadcast);
+            controller.newGame();
+            try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+                 var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                assertEquals("0 newgame NORMAL rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                             in.readLine());
+                assertTrue(controller.move(4, 1, 4, 3));
+                assertEquals("1 move e2e4 NORMAL rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                             in.readLine());
+                assertTrue(controller.move(4, 6, 4, 4));
+                assertEquals("2 move e7e5 NORMAL rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+                             in.readLine());
+            }
+        }
+    }
+
+    /**
+     * Wait until a spectator has at most a number of events left to receive.
+     *
+     * @param sink      The spectator.
+     * @param remaining The number of events left.
+     * @return True once it is reached, false after 10 seconds.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static boolean waitFor(RecordingSink sink, long remaining) throws InterruptedException {
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sink.received.getCount() > remaining && System.nanoTime() < end) {
+            Thread.sleep(1);
+        }
+        return sink.received.getCount() <= remaining;
+    }
+}
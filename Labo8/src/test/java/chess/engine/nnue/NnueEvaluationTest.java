@@ -0,0 +1,69 @@
+package chess.engine.nnue;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the network evaluation: the accumulators updated incrementally by the moves must match the ones computed
+ * from scratch, and the SIMD inference must match the scalar one.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class NnueEvaluationTest {
+    private static final Network NETWORK = Network.random(40, 7);
+
+    @Test
+    public void incrementalMatchesRefresh() {
+        // Castling, en passant, promotions and captures.
+        for (var fen : new String[]{
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"}) {
+            var position = Position.fromFen(fen);
+            var incremental = new NnueEvaluation(NETWORK);
+            incremental.attach(position);
+            walk(position, incremental, new NnueEvaluation(NETWORK, false), 3);
+            incremental.detach(position);
+            assertEquals(fen, position.toFen());
+        }
+    }
+
+    @Test
+    public void writeAndLoad(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("net.bin");
+        NETWORK.write(file);
+        assertEquals(2 * (Network.INPUTS * 40 + 3 * 40 + 1), Files.size(file));
+        var position = Position.fromFen(Position.START_FEN);
+        assertEquals(new NnueEvaluation(NETWORK).evaluate(position),
+                     new NnueEvaluation(Network.load(file)).evaluate(position));
+    }
+
+    /**
+     * Compare the evaluations of every node of the legal move tree.
+     *
+     * @param position    The position.
+     * @param incremental The evaluation attached to the position.
+     * @param reference   The evaluation computed from scratch, with the scalar inference.
+     * @param depth       The remaining depth.
+     */
+    private static void walk(Position position, NnueEvaluation incremental, NnueEvaluation reference, int depth) {
+        assertEquals(reference.evaluate(position), incremental.evaluate(position), position.toFen());
+        if (depth == 0) {
+            return;
+        }
+        var moves = MoveGenerator.legalMoves(position);
+        for (int i = 0; i < moves.size(); i++) {
+            position.make(moves.get(i));
+            walk(position, incremental, reference, depth - 1);
+            position.unmake();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package chess.engine.perft;
+
+import chess.engine.position.Position;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the parallel perft. The smallest table is used so the slots are constantly replaced, and the counts must
+ * still be the reference ones.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class ParallelPerftTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;5;4865609",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1;4;4085603",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1;5;674624",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1;4;422333",
+    })
+    public void hashedCountsMatchTheReference(String fen, int depth, long expectedNodes) {
+        final var position = Position.fromFen(fen);
+        final var perft = new ParallelPerft(4, new PerftTable(0), 2);
+        try {
+            assertEquals(expectedNodes, perft.count(position, depth));
+            assertEquals(expectedNodes, perft.count(position, depth)); // Now mostly from the table.
+        } finally {
+            perft.shutdown();
+        }
+        assertEquals(fen, position.toFen());
+    }
+}
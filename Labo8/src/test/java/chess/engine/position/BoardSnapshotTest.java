@@ -0,0 +1,74 @@
+package chess.engine.position;
+
+import chess.engine.tournament.Bench;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the immutable board snapshots against the moves made on the mutable position.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class BoardSnapshotTest {
+    @Test
+    public void randomGames() {
+        final var random = new Random(5);
+        for (var fen : Bench.POSITIONS) {
+            final var position = Position.fromFen(fen);
+            var snapshot = BoardSnapshot.of(position);
+            final var start = snapshot;
+            for (int ply = 0; ply < 200; ply++) {
+                final var moves = MoveGenerator.legalMoves(position);
+                if (moves.size() == 0) {
+                    break;
+                }
+                final int move = moves.get(random.nextInt(moves.size()));
+                position.make(move);
+                snapshot = snapshot.play(move);
+                assertEquals(position.toFen(), snapshot.toFen());
+                assertEquals(position.hash(), snapshot.hash());
+                assertEquals(position.hash(), snapshot.toPosition().hash());
+            }
+            assertEquals(fen, start.toFen());
+        }
+    }
+
+    @Test
+    public void branchesAreIndependent() throws InterruptedException {
+        final var root = BoardSnapshot.of(Position.fromFen(Position.START_FEN));
+        final var moves = MoveGenerator.legalMoves(root.toPosition());
+        final List<Thread> threads = new ArrayList<>();
+        final long[] hashes = new long[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            final int index = i;
+            threads.add(new Thread(() -> hashes[index] = root.play(moves.get(index)).hash()));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            final var position = Position.fromFen(Position.START_FEN);
+            position.make(moves.get(i));
+            assertEquals(position.hash(), hashes[i]);
+        }
+        assertEquals(Position.START_FEN, root.toFen());
+    }
+
+    @Test
+    public void repetitions() {
+        var snapshot = BoardSnapshot.of(Position.fromFen(Position.START_FEN));
+        for (int i = 0; i < 2; i++) {
+            for (var uci : new String[]{"g1f3", "g8f6", "f3g1", "f6g8"}) {
+                snapshot = snapshot.play(Moves.fromUci(snapshot.toPosition(), uci));
+            }
+        }
+        assertEquals(2, snapshot.repetitionCount());
+    }
+}
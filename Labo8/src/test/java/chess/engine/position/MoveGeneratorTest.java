@@ -0,0 +1,65 @@
+package chess.engine.position;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Perft tests of the search move generator. Perft counts the leaf nodes of the legal move tree up to a given depth;
+ * the expected values are the well-known reference counts of these positions, so any missing or extra move
+ * (castling, en passant, promotions, pins) changes the result.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MoveGeneratorTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;4;197281",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1;3;97862",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1;5;674624",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1;4;422333",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8;3;62379",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10;3;89890",
+    })
+    public void perft(String fen, int depth, long expectedNodes) {
+        var position = Position.fromFen(fen);
+        assertEquals(expectedNodes, perft(position, depth));
+        assertEquals(fen, position.toFen());
+    }
+
+    /**
+     * The hash must be the same whether it is computed from scratch or updated incrementally.
+     */
+    @Test
+    public void incrementalHash() {
+        var position = Position.fromFen(Position.START_FEN);
+        for (var uci : new String[]{"e2e4", "d7d5", "e4d5", "c7c5", "d5c6", "b8c6", "g1f3", "e7e5", "f1b5", "e8e7"}) {
+            position.make(Moves.fromUci(position, uci));
+            assertEquals(Position.fromFen(position.toFen()).hash(), position.hash());
+        }
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     *
+     * @param position The position.
+     * @param depth    The depth.
+     * @return The number of leaf nodes.
+     */
+    private static long perft(Position position, int depth) {
+        var moves = MoveGenerator.legalMoves(position);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            position.make(moves.get(i));
+            nodes += perft(position, depth - 1);
+            position.unmake();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,103 @@
+package chess.engine.position;
+
+import chess.engine.ReferenceMoveGenerator;
+import chess.engine.tournament.Bench;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of the search move generator against the reference move generator. Random games are played from
+ * the benchmark positions and the legal moves of both generators are compared at every ply, which reaches castling,
+ * en passant, promotions and pins in many more configurations than the perft positions.
+ * <p>
+ * Run {@code main} for a longer campaign: {@code ReferenceDifferentialTest [seconds] [seed]}.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class ReferenceDifferentialTest {
+    /**
+     * The maximum number of plies of a random game.
+     */
+    private static final int MAX_PLIES = 300;
+
+    /**
+     * The reference generator must itself match the well-known perft counts.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;3;8902",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1;2;2039",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1;3;2812",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1;2;264",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8;2;1486",
+    })
+    public void referencePerft(String fen, int depth, long expectedNodes) {
+        assertEquals(expectedNodes, ReferenceMoveGenerator.fromFen(fen).perft(depth));
+    }
+
+    @Test
+    public void randomGames() {
+        final var random = new Random(42);
+        long positions = 0;
+        for (int game = 0; game < 40; game++) {
+            final String fen = Bench.POSITIONS.get(game % Bench.POSITIONS.size());
+            positions += playout(Position.fromFen(fen), random);
+        }
+        assertTrue(positions > 1000);
+    }
+
+    /**
+     * Play a random game and compare the legal moves of both generators at every ply.
+     *
+     * @param position The starting position.
+     * @param random   The random generator.
+     * @return The number of positions compared.
+     */
+    private static long playout(Position position, Random random) {
+        final var moves = new MoveList();
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            final String fen = position.toFen();
+            MoveGenerator.legalMoves(position, moves);
+            final List<String> actual = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                actual.add(Moves.uci(moves.get(i)));
+            }
+            Collections.sort(actual);
+            assertEquals(ReferenceMoveGenerator.legalMoves(fen), actual, fen);
+            if (moves.size() == 0 || position.halfMoveClock() >= 100) {
+                return ply + 1;
+            }
+            position.make(moves.get(random.nextInt(moves.size())));
+        }
+        return MAX_PLIES;
+    }
+
+    /**
+     * Compare the generators on random games for a given duration and print the throughput.
+     *
+     * @param args The duration in seconds and the seed, both optional.
+     */
+    public static void main(String[] args) {
+        final long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+        final var random = new Random(args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime());
+        final long start = System.nanoTime(), end = start + seconds * 1_000_000_000L;
+        long positions = 0, games = 0;
+        while (System.nanoTime() < end) {
+            positions += playout(Position.fromFen(Bench.POSITIONS.get((int) (games++ % Bench.POSITIONS.size()))),
+                                 random);
+        }
+        final double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d positions, no difference, %.0f positions/s%n", games, positions,
+                          positions / elapsed);
+    }
+}
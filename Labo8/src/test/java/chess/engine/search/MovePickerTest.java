@@ -0,0 +1,53 @@
+package chess.engine.search;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.MoveList;
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the staged move picker. Whatever the ordering hints, the picker must yield every pseudo-legal move of the
+ * position exactly once, and the transposition table move first when it is valid.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MovePickerTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    })
+    public void yieldsEveryMoveOnce(String fen) {
+        var position = Position.fromFen(fen);
+        var expected = new MoveList();
+        MoveGenerator.generate(position, expected);
+        var sorted = expected.toArray();
+        Arrays.sort(sorted);
+
+        // Use real moves as hints, plus moves that are not pseudo-legal in the position.
+        final int ttMove = expected.get(expected.size() - 1);
+        final int bogus = Moves.of(Position.squareIndex("a3"), Position.squareIndex("h5"), Moves.QUIET);
+        var picker = new MovePicker();
+        picker.init(position, ttMove, expected.get(0), bogus, expected.get(expected.size() / 2), new int[64 * 64]);
+
+        var picked = new MoveList();
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            picked.add(move);
+        }
+        assertEquals(ttMove, picked.get(0));
+        var actual = picked.toArray();
+        Arrays.sort(actual);
+        assertArrayEquals(sorted, actual);
+        assertEquals(fen, position.toFen());
+    }
+}
@@ -0,0 +1,58 @@
+package chess.engine.search;
+
+import chess.engine.position.Position;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the search metrics and of the Flight Recorder events of the search.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class SearchMetricsTest {
+    @Test
+    public void metricsAreConsistent() {
+        var search = new Search(1);
+        search.search(Position.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"),
+                      SearchLimits.depth(4));
+        var metrics = search.metrics();
+        assertTrue(metrics.nodes() > 0);
+        assertTrue(metrics.qnodes() <= metrics.nodes());
+        assertTrue(metrics.ttHits() <= metrics.ttProbes());
+        assertTrue(metrics.ttHitRate() >= 0 && metrics.ttHitRate() <= 1);
+        assertTrue(metrics.cutoffs() > 0);
+        assertTrue(metrics.firstMoveCutoffRate() > 0 && metrics.firstMoveCutoffRate() <= 1);
+        assertTrue(metrics.effectiveBranchingFactor() > 1);
+    }
+
+    @Test
+    public void iterationsAreRecorded() throws IOException {
+        var search = new Search(1);
+        final List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.enable("chess.SearchIteration");
+            recording.start();
+            search.search(Position.fromFen("7k/8/8/8/8/8/8/K7 w - - 0 1"), SearchLimits.depth(3));
+            recording.stop();
+            final var file = Files.createTempFile("search", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+        assertEquals(List.of(1, 2, 3), events.stream().map(e -> e.getInt("depth")).sorted().toList());
+        assertEquals(search.metrics().nodes(), events.stream().mapToLong(e -> e.getLong("nodes")).max().orElse(0));
+    }
+}
@@ -0,0 +1,39 @@
+package chess.engine.search;
+
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the multi-PV search.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class SearchTest {
+    @Test
+    public void multiPvReturnsDistinctLinesBestFirst() {
+        var position = Position.fromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        var lines = new Search(1).search(position, SearchLimits.depth(4), 3);
+        assertEquals(3, lines.size());
+        assertEquals("d1d8", Moves.uci(lines.get(0).move()));
+        assertTrue(lines.get(0).isMate());
+        assertEquals(3, lines.stream().map(SearchResult::move).collect(Collectors.toSet()).size());
+        for (int i = 1; i < lines.size(); i++) {
+            assertTrue(lines.get(i - 1).score() >= lines.get(i).score());
+            assertEquals(lines.get(i).move(), lines.get(i).pv()[0]);
+        }
+        assertEquals("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1", position.toFen());
+    }
+
+    @Test
+    public void multiPvIsLimitedByTheLegalMoves() {
+        var position = Position.fromFen("7k/8/8/8/8/8/8/K7 w - - 0 1");
+        assertEquals(3, new Search(1).search(position, SearchLimits.depth(3), 10).size());
+    }
+}
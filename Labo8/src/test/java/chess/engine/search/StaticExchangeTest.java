@@ -0,0 +1,29 @@
+package chess.engine.search;
+
+import chess.engine.position.Moves;
+import chess.engine.position.Position;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the static exchange evaluation, with x-rays and exchanges the capturing side should stop early.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class StaticExchangeTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1;e1e5;100",
+            "1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1;d3e5;-220",
+            "4k3/8/2p5/3p4/4P3/8/8/4K3 w - - 0 1;e4d5;0",
+            "4k3/8/2b5/3r4/4Q3/8/8/4K3 w - - 0 1;e4d5;-400",
+            "4k3/3q4/3r4/3p4/8/3R4/3R4/3QK3 w - - 0 1;d3d5;100",
+    })
+    public void see(String fen, String move, int expected) {
+        var position = Position.fromFen(fen);
+        assertEquals(expected, StaticExchange.see(position, Moves.fromUci(position, move)));
+    }
+}
@@ -0,0 +1,90 @@
+package chess.engine.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the off-heap position index.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PositionIndexTest {
+    @Test
+    public void putAndGet() {
+        final var index = new PositionIndex(1000);
+        assertEquals(PositionIndex.ABSENT, index.putIfAbsent(0, 5));
+        assertEquals(5, index.putIfAbsent(0, 6));
+        final var random = new SplittableRandom(3);
+        final long[] keys = random.longs(700).toArray();
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(PositionIndex.ABSENT, index.putIfAbsent(keys[i], i));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, index.get(keys[i]));
+            assertFalse(index.add(keys[i]));
+        }
+        assertFalse(index.contains(random.nextLong()));
+        assertEquals(keys.length + 1, index.size());
+        assertTrue(index.metrics().maxProbeLength() >= 1);
+        assertThrows(IllegalArgumentException.class, () -> index.putIfAbsent(1, PositionIndex.ABSENT));
+    }
+
+    @Test
+    public void concurrentInserts() throws InterruptedException {
+        final var index = new PositionIndex(100_000);
+        final var inserted = new AtomicLong();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            // Every thread inserts the same keys, so each key must be inserted exactly once.
+            threads.add(new Thread(() -> {
+                final var random = new SplittableRandom(11);
+                for (int i = 0; i < 50_000; i++) {
+                    if (index.add(random.nextLong())) {
+                        inserted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertEquals(50_000, inserted.get());
+        assertEquals(50_000, index.size());
+    }
+
+    @Test
+    public void holdsItsCapacity() {
+        for (int capacity : new int[]{1, 10, 48, 100, 1000, 5000}) {
+            for (int seed = 0; seed < 50; seed++) {
+                final var index = new PositionIndex(capacity);
+                final var random = new SplittableRandom(seed);
+                for (int i = 0; i < capacity; i++) {
+                    index.add(random.nextLong());
+                }
+                assertEquals(capacity, index.size());
+            }
+        }
+    }
+
+    @Test
+    public void full() {
+        final var index = new PositionIndex(10);
+        final var random = new SplittableRandom(5);
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                index.add(random.nextLong());
+            }
+        });
+    }
+}
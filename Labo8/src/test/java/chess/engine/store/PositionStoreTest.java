@@ -0,0 +1,99 @@
+package chess.engine.store;
+
+import chess.engine.position.MoveGenerator;
+import chess.engine.position.PackedPosition;
+import chess.engine.position.Position;
+import chess.engine.util.BoardFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the packed positions and of the position store.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class PositionStoreTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Positions of random games, with castling rights, en passant squares and promotions.
+     *
+     * @param count The number of positions.
+     * @return The FEN strings of the positions.
+     */
+    private static List<String> randomPositions(int count) {
+        final var random = new Random(7);
+        final List<String> fens = new ArrayList<>();
+        var position = Position.fromFen(Position.START_FEN);
+        while (fens.size() < count) {
+            final var moves = MoveGenerator.legalMoves(position);
+            if (moves.size() == 0 || position.ply() > 200) {
+                position = Position.fromFen(Position.START_FEN);
+                continue;
+            }
+            position.make(moves.get(random.nextInt(moves.size())));
+            fens.add(position.toFen());
+        }
+        return fens;
+    }
+
+    @Test
+    public void boardRoundTrip() {
+        final String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 3 12";
+        final byte[] bytes = PackedPosition.encode(BoardFactory.createFromFen(fen));
+        assertEquals(PackedPosition.BYTES, bytes.length);
+        assertEquals(fen, Position.of(PackedPosition.decodeBoard(bytes)).toFen());
+    }
+
+    @Test
+    public void storeRoundTrip() throws IOException {
+        final var fens = randomPositions(10_000);
+        final Path file = directory.resolve("positions.bin");
+        try (var store = PositionStore.open(file)) {
+            for (int i = 0; i < fens.size() / 2; i++) {
+                store.append(Position.fromFen(fens.get(i)), i);
+            }
+            // Reading maps the written positions, appending after it must remap.
+            assertEquals(fens.get(3), read(store, 3));
+            for (int i = fens.size() / 2; i < fens.size(); i++) {
+                store.append(Position.fromFen(fens.get(i)), i);
+            }
+            assertEquals(fens.get(fens.size() - 1), read(store, fens.size() - 1));
+        }
+        assertEquals(PositionStore.HEADER_BYTES + fens.size() * PackedPosition.BYTES, Files.size(file));
+
+        try (var store = PositionStore.open(file)) {
+            assertEquals(fens.size(), store.size());
+            final var position = new Position();
+            for (int i = 0; i < fens.size(); i++) {
+                assertEquals(i, store.read(i, position));
+                assertEquals(fens.get(i), position.toFen());
+                assertEquals(Position.fromFen(fens.get(i)).hash(), position.hash());
+            }
+        }
+    }
+
+    /**
+     * Read a position of a store.
+     *
+     * @param store The store.
+     * @param index The index of the position.
+     * @return The FEN string of the position.
+     */
+    private static String read(PositionStore store, long index) throws IOException {
+        final var position = new Position();
+        store.read(index, position);
+        return position.toFen();
+    }
+}
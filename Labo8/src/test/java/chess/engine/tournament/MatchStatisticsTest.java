@@ -0,0 +1,84 @@
+package chess.engine.tournament;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the match statistics and of the bounds of the SPRT.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class MatchStatisticsTest {
+    @Test
+    public void evenScoreIsZeroElo() {
+        final var statistics = record(10, 20, 10);
+        assertEquals(0.5, statistics.score(), 1e-9);
+        assertEquals(0, statistics.elo(), 1e-9);
+        assertTrue(statistics.eloError() > 0 && statistics.eloError() < Double.POSITIVE_INFINITY);
+        assertEquals(0, new MatchStatistics().elo(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, new MatchStatistics().eloError(), 0);
+    }
+
+    @Test
+    public void eloOfScore() {
+        // A score of 75% is an expected score of 3 to 1, so 400 * log10(3) Elo.
+        assertEquals(190.85, record(30, 0, 10).elo(), 0.01);
+        assertEquals(-190.85, record(10, 0, 30).elo(), 0.01);
+    }
+
+    @Test
+    public void resultsFromThePointOfViewOfTheFirstEngine() {
+        final var statistics = new MatchStatistics();
+        statistics.add(GameRecord.Result.WHITE_WINS, true);
+        statistics.add(GameRecord.Result.BLACK_WINS, false);
+        statistics.add(GameRecord.Result.WHITE_WINS, false);
+        statistics.add(GameRecord.Result.DRAW, false);
+        statistics.add(GameRecord.Result.ERROR, true);
+        assertEquals(2, statistics.wins());
+        assertEquals(1, statistics.losses());
+        assertEquals(1, statistics.draws());
+        assertEquals(1, statistics.errors());
+        assertEquals(4, statistics.games());
+    }
+
+    @Test
+    public void sprtBounds() {
+        assertEquals(-2.944, MatchStatistics.lowerBound(0.05, 0.05), 0.001);
+        assertEquals(2.944, MatchStatistics.upperBound(0.05, 0.05), 0.001);
+    }
+
+    @Test
+    public void llrFollowsTheResults() {
+        assertTrue(record(60, 20, 20).llr(0, 5) > 0);
+        assertTrue(record(20, 20, 60).llr(0, 5) < 0);
+        // A large winning record accepts the alternative hypothesis, a large losing one the null hypothesis.
+        assertTrue(record(600, 200, 200).llr(0, 5) > MatchStatistics.upperBound(0.05, 0.05));
+        assertTrue(record(200, 200, 600).llr(0, 5) < MatchStatistics.lowerBound(0.05, 0.05));
+        assertEquals(0, new MatchStatistics().llr(0, 5), 0);
+    }
+
+    /**
+     * Create the statistics of a match.
+     *
+     * @param wins   The number of wins of the first engine.
+     * @param draws  The number of draws.
+     * @param losses The number of losses of the first engine.
+     * @return The statistics.
+     */
+    private static MatchStatistics record(int wins, int draws, int losses) {
+        final var statistics = new MatchStatistics();
+        for (int i = 0; i < wins; i++) {
+            statistics.add(GameRecord.Result.WHITE_WINS, true);
+        }
+        for (int i = 0; i < draws; i++) {
+            statistics.add(GameRecord.Result.DRAW, true);
+        }
+        for (int i = 0; i < losses; i++) {
+            statistics.add(GameRecord.Result.BLACK_WINS, true);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,60 @@
+package chess.engine.uci;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the UCI protocol.
+ *
+ * @author Rafael Dousse <rafael.dousse@heig-vd.ch>
+ * @author Aubry Mangold <aubry.mangold@heig-vd.ch>
+ */
+public class UciEngineTest {
+    /**
+     * A stop sent right after go, possibly before the search thread starts the search, must still stop it.
+     */
+    @Test
+    public void stopRightAfterGoInfinite() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            final var output = new ByteArrayOutputStream();
+            final var engine = new UciEngine(new PrintStream(output, true, StandardCharsets.UTF_8));
+            final var input = new Thread(() -> {
+                engine.execute("position startpos");
+                engine.execute("go infinite");
+                engine.execute("stop");
+            });
+            input.setDaemon(true);
+            input.start();
+            input.join(10_000);
+            assertFalse(input.isAlive(), "The engine did not stop");
+            assertTrue(output.toString(StandardCharsets.UTF_8).contains("bestmove "));
+            engine.execute("quit");
+        }
+    }
+
+    /**
+     * A search that ends on its own, here on a mate, must not print its best move before stop.
+     */
+    @Test
+    public void infiniteSearchWaitsForStop() throws InterruptedException {
+        final var output = new ByteArrayOutputStream();
+        final var engine = new UciEngine(new PrintStream(output, true, StandardCharsets.UTF_8));
+        engine.execute("position fen 6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        engine.execute("go infinite");
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!output.toString(StandardCharsets.UTF_8).contains("score mate 1")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertFalse(output.toString(StandardCharsets.UTF_8).contains("bestmove"));
+        engine.execute("stop");
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("bestmove d1d8"));
+    }
+}
@@ -0,0 +1,55 @@
+package chess.views.console;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TerminalRendererTest {
+  private static final String CSI = "\u001B[";
+  private static final String MESSAGE_LINE = CSI + "11;1H" + CSI + "J";
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final TerminalRenderer renderer = new TerminalRenderer(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+  private final String[][] cells = new String[8][8];
+
+  @Test
+  public void redrawsOnlyWhatChanged() {
+    for (String[] column : cells) {
+      Arrays.fill(column, " ");
+    }
+    cells[4][0] = "K";
+
+    // The first frame clears the screen and draws the whole board
+    String frame = render("");
+    assertTrue(frame.startsWith(CSI + "2J" + CSI + "H"));
+    assertTrue(frame.contains("1 |        K       \n"));
+    assertTrue(frame.contains("8 |                \n"));
+    assertTrue(frame.endsWith(MESSAGE_LINE));
+
+    // An unchanged frame only moves the cursor to the message line
+    assertEquals(MESSAGE_LINE, render(""));
+
+    // A changed cell is drawn alone, e1 being at row 8 and column 12
+    cells[4][0] = " ";
+    cells[4][1] = "K";
+    assertEquals(CSI + "8;12H " + CSI + "7;12HK" + MESSAGE_LINE + "Check\n", render("Check"));
+
+    // Once invalidated, the whole board is drawn again
+    renderer.invalidate();
+    frame = render("");
+    assertTrue(frame.startsWith(CSI + "2J" + CSI + "H"));
+    assertTrue(frame.contains("2 |        K       \n"));
+  }
+
+  private String render(String message) {
+    bytes.reset();
+    renderer.render(cells, message);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+}